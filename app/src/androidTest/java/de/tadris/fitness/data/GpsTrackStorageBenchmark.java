@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.Bundle;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+/**
+ * Compares compacted tracks with sample rows in a real database. The sizes are asserted, the load
+ * times depend on the device and are only reported as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GpsTrackStorageBenchmark {
+
+    private static final int SAMPLE_COUNT = 3 * 60 * 60; // three hours, one sample per second
+    private static final int RUNS = 10;
+
+    private AppDatabase database;
+    private GpsWorkoutDao dao;
+
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).allowMainThreadQueries().build();
+        dao = database.gpsWorkoutDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void benchmarkSizeAndLoading() {
+        long rowsWorkoutId = 1;
+        long trackWorkoutId = 2;
+        dao.insertWorkout(createWorkout(rowsWorkoutId));
+        dao.insertWorkout(createWorkout(trackWorkoutId));
+
+        long pageSize = getPragma("page_size");
+        long emptyPages = getUsedPages();
+        dao.insertSamples(createSamples(rowsWorkoutId));
+        long rowPages = getUsedPages();
+        long rowBytes = (rowPages - emptyPages) * pageSize;
+
+        // The same samples of a second workout are inserted as rows and then compacted
+        dao.insertSamples(createSamples(trackWorkoutId));
+        dao.compactSamples(trackWorkoutId);
+        long trackBytes = (getUsedPages() - rowPages) * pageSize;
+
+        Assert.assertNull(dao.getTrack(rowsWorkoutId));
+        Assert.assertEquals(0, dao.getSampleRowsOfWorkout(trackWorkoutId).length);
+        Assert.assertTrue("Track needs " + trackBytes + " bytes, rows " + rowBytes, trackBytes * 4 < rowBytes);
+
+        GpsSample[] rows = dao.getSampleRowsOfWorkout(rowsWorkoutId);
+        GpsTrackColumns columns = dao.getTrackColumns(trackWorkoutId);
+        Assert.assertEquals(rows.length, columns.size);
+        for (int i = 0; i < rows.length; i++) {
+            Assert.assertEquals(rows[i].lat, columns.lats[i], 0.5e-7);
+            Assert.assertEquals(rows[i].lon, columns.lons[i], 0.5e-7);
+        }
+
+        long rowsNanos = 0;
+        long samplesNanos = 0;
+        long columnsNanos = 0;
+        for (int i = 0; i <= RUNS; i++) {
+            long start = System.nanoTime();
+            dao.getSampleRowsOfWorkout(rowsWorkoutId);
+            long rowsEnd = System.nanoTime();
+            dao.getAllSamplesOfWorkout(trackWorkoutId);
+            long samplesEnd = System.nanoTime();
+            dao.getTrackColumns(trackWorkoutId);
+            long columnsEnd = System.nanoTime();
+            if (i > 0) { // the first run warms up
+                rowsNanos += rowsEnd - start;
+                samplesNanos += samplesEnd - rowsEnd;
+                columnsNanos += columnsEnd - samplesEnd;
+            }
+        }
+
+        Bundle results = new Bundle();
+        results.putInt("samples", SAMPLE_COUNT);
+        results.putLong("rowBytes", rowBytes);
+        results.putLong("trackBytes", trackBytes);
+        results.putDouble("rowsMillis", rowsNanos / 1e6 / RUNS);
+        results.putDouble("trackSamplesMillis", samplesNanos / 1e6 / RUNS);
+        results.putDouble("trackColumnsMillis", columnsNanos / 1e6 / RUNS);
+        InstrumentationRegistry.getInstrumentation().sendStatus(2, results);
+    }
+
+    /**
+     * Pages in use, pages of deleted rows stay in the file until it is vacuumed
+     */
+    private long getUsedPages() {
+        return getPragma("page_count") - getPragma("freelist_count");
+    }
+
+    private long getPragma(String name) {
+        try (Cursor cursor = database.getOpenHelper().getWritableDatabase().query("PRAGMA " + name)) {
+            cursor.moveToFirst();
+            return cursor.getLong(0);
+        }
+    }
+
+    private static GpsWorkout createWorkout(long id) {
+        GpsWorkout workout = new GpsWorkout();
+        workout.id = id;
+        workout.start = 1_680_000_000_000L;
+        workout.end = workout.start + SAMPLE_COUNT * 1000L;
+        workout.workoutTypeId = "running";
+        return workout;
+    }
+
+    private static GpsSample[] createSamples(long workoutId) {
+        Random random = new Random(7);
+        GpsSample[] samples = new GpsSample[SAMPLE_COUNT];
+        long start = 1_680_000_000_000L;
+        double lat = 52.5200066;
+        double lon = 13.404954;
+        double elevation = 80;
+        int heartRate = 120;
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            GpsSample sample = new GpsSample();
+            sample.id = workoutId * 100_000_000L + i;
+            sample.workoutId = workoutId;
+            sample.absoluteTime = start + i * 1000L + random.nextInt(20);
+            sample.relativeTime = sample.absoluteTime - start;
+            sample.speed = 3 + random.nextGaussian() * 0.3;
+            lat += sample.speed / 111_000 * Math.cos(i / 300d);
+            lon += sample.speed / 68_000 * Math.sin(i / 300d);
+            elevation += random.nextGaussian() * 0.2;
+            heartRate = Math.max(60, Math.min(190, heartRate + random.nextInt(3) - 1));
+            sample.lat = lat;
+            sample.lon = lon;
+            sample.elevation = elevation;
+            sample.elevationMSL = elevation - 39.7;
+            sample.pressure = (float) (1013.25 - elevation / 8.3);
+            sample.heartRate = heartRate;
+            sample.intervalTriggered = i % 600 == 0 ? i / 600 + 1 : -1;
+            samples[i] = sample;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.export;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+import de.tadris.fitness.data.AppDatabase;
+import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsWorkout;
+import de.tadris.fitness.data.HeartRateVariability;
+import de.tadris.fitness.data.IndoorSample;
+import de.tadris.fitness.data.IndoorWorkout;
+import de.tadris.fitness.data.RrIntervalBatch;
+
+@RunWith(AndroidJUnit4.class)
+public class RestoreControllerTest {
+
+    private Context context;
+    private AppDatabase database;
+    private File file;
+
+    @Before
+    public void setUp() {
+        context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).allowMainThreadQueries().build();
+        file = new File(context.getCacheDir(), "restore-test.xml");
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        file.delete();
+    }
+
+    @Test
+    public void testRestoreSamplesBeforeWorkouts() throws Exception {
+        FitoTrackDataContainer container = new FitoTrackDataContainer();
+        container.setVersion(BackupController.VERSION);
+
+        GpsWorkout gpsWorkout = new GpsWorkout();
+        gpsWorkout.id = 1;
+        gpsWorkout.start = 1000;
+        gpsWorkout.end = 11000;
+        gpsWorkout.workoutTypeId = "running";
+        container.getWorkouts().add(gpsWorkout);
+        for (int i = 0; i < 10; i++) {
+            GpsSample sample = new GpsSample();
+            sample.id = 100 + i;
+            sample.workoutId = gpsWorkout.id;
+            sample.absoluteTime = gpsWorkout.start + i * 1000;
+            sample.relativeTime = i * 1000;
+            sample.lat = 52.5 + i * 1e-4;
+            sample.lon = 13.4;
+            container.getSamples().add(sample);
+        }
+        GpsSample orphan = new GpsSample();
+        orphan.id = 999;
+        orphan.workoutId = 42; // workout is not part of the backup
+        container.getSamples().add(orphan);
+
+        IndoorWorkout indoorWorkout = new IndoorWorkout();
+        indoorWorkout.id = 2;
+        indoorWorkout.start = 20000;
+        indoorWorkout.end = 25000;
+        indoorWorkout.workoutTypeId = "pushups";
+        container.getIndoorWorkouts().add(indoorWorkout);
+        for (int i = 0; i < 5; i++) {
+            IndoorSample sample = new IndoorSample();
+            sample.id = 200 + i;
+            sample.workoutId = indoorWorkout.id;
+            sample.absoluteTime = indoorWorkout.start + i * 1000;
+            sample.relativeTime = i * 1000;
+            sample.repetitions = 1;
+            container.getIndoorSamples().add(sample);
+        }
+
+        HeartRateVariability variability = new HeartRateVariability();
+        variability.workoutId = gpsWorkout.id;
+        variability.beatCount = 4;
+        variability.rmssd = 42;
+        container.getHeartRateVariabilities().add(variability);
+        int[] intervals = new int[]{800, 812, 790, 1300};
+        container.getRrIntervalBatches().add(new RrIntervalBatch(gpsWorkout.id, gpsWorkout.start, intervals, intervals.length));
+
+        // Backups of older versions were written with the properties in alphabetical order
+        XmlMapper mapper = new XmlMapper();
+        mapper.enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY);
+        mapper.writeValue(file, container);
+        String xml = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
+        Assert.assertTrue(xml.indexOf("<samples>") < xml.indexOf("<workouts>"));
+        Assert.assertTrue(xml.indexOf("<indoorSamples>") < xml.indexOf("<indoorWorkouts>"));
+
+        new RestoreController(context, database, Uri.fromFile(file), true, (progress, action) -> {
+        }).restoreData();
+
+        Assert.assertNotNull(database.gpsWorkoutDao().getWorkoutById(gpsWorkout.id));
+        Assert.assertEquals(10, database.gpsWorkoutDao().getAllSamplesOfWorkout(gpsWorkout.id).length);
+        Assert.assertEquals(10, database.gpsWorkoutDao().getSamples().length);
+        Assert.assertEquals(5, database.indoorWorkoutDao().getAllSamplesOfWorkout(indoorWorkout.id).length);
+        Assert.assertEquals(42, database.heartRateVariabilityDao().getHeartRateVariability(gpsWorkout.id).rmssd, 0);
+        RrIntervalBatch[] batches = database.heartRateVariabilityDao().getBatches(gpsWorkout.id);
+        Assert.assertEquals(1, batches.length);
+        Assert.assertArrayEquals(intervals, batches[0].getIntervals());
+    }
+}
@@ -29,6 +29,7 @@ import java.util.List;
 
 import de.tadris.fitness.data.AppDatabase;
 import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsTrackStorage;
 import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.WorkoutTypeManager;
 import de.tadris.fitness.data.preferences.UserPreferences;
@@ -96,6 +97,7 @@ public class Instance {
 
     private void startBackgroundClean(Context context) {
         DataManager.cleanFilesASync(context);
+        GpsTrackStorage.applyPreferenceAsync(this, userPreferences.getCompactTrackStorage());
     }
 
     private GpsWorkoutRecorder restoreRecorder(Context context) {
@@ -112,6 +114,7 @@ public class Instance {
     }
 
     public void prepareResume(Context context, GpsWorkout workout) {
+        db.gpsWorkoutDao().expandSamples(workout.id);
         recorder = restoreRecorder(context, workout);
     }
 }
@@ -26,6 +26,8 @@ public class AggregatedInformationDataPoint {
     private final Date date;
     private double sum;
     private int count;
+    private double min;
+    private double max;
 
     public AggregatedInformationDataPoint(Date date, double sum, int count) {
         this.date = date;
@@ -33,6 +35,21 @@ public class AggregatedInformationDataPoint {
         this.count = count;
     }
 
+    /**
+     * Adds a single value to this data point, updating sum, count, min and max
+     */
+    public void add(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        sum += value;
+        count++;
+    }
+
     public Date getDate() {
         return date;
     }
@@ -53,6 +70,14 @@ public class AggregatedInformationDataPoint {
         return count;
     }
 
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
     public void setSum(double sum) {
         this.sum = sum;
     }
@@ -21,14 +21,9 @@ package de.tadris.fitness.aggregation;
 
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import de.tadris.fitness.Instance;
-import de.tadris.fitness.data.BaseWorkout;
 
 public class AggregatedWorkoutData {
 
@@ -36,7 +31,7 @@ public class AggregatedWorkoutData {
     private double min, avg, max, sum;
     private final AggregationSpan span;
 
-    private final Map<Long, AggregatedInformationDataPoint> dataPoints = new HashMap<>();
+    private List<AggregatedInformationDataPoint> dataPoints = new ArrayList<>();
 
     public AggregatedWorkoutData(List<WorkoutInformationResult> data, AggregationSpan span) {
         this.data = data;
@@ -45,55 +40,35 @@ public class AggregatedWorkoutData {
     }
 
     public List<AggregatedInformationDataPoint> getDataPoints() {
-        List<AggregatedInformationDataPoint> dataPoints = new ArrayList<>(this.dataPoints.values());
-        Collections.sort(dataPoints, (o1, o2) -> Long.compare(o1.getDate().getTime(), o2.getDate().getTime()));
-        return dataPoints;
+        return new ArrayList<>(dataPoints);
     }
 
     private void aggregateAll() {
-        if (data.size() > 0) {
-            min = data.get(0).getValue();
-            max = data.get(0).getValue();
-        }
-        for (WorkoutInformationResult informationResult : data) {
-            if (informationResult.getValue() > max) {
-                max = informationResult.getValue();
-            }
-            if (informationResult.getValue() < min) {
-                min = informationResult.getValue();
+        dataPoints = new SpanAggregator<WorkoutInformationResult>(span, getCalendar(),
+                result -> result.getWorkout().start, WorkoutInformationResult::getValue).aggregate(data);
+
+        int count = 0;
+        for (AggregatedInformationDataPoint dataPoint : dataPoints) {
+            if (count == 0) {
+                min = dataPoint.getMin();
+                max = dataPoint.getMax();
+            } else {
+                min = Math.min(min, dataPoint.getMin());
+                max = Math.max(max, dataPoint.getMax());
             }
-            sum += informationResult.getValue();
-            aggregateWorkout(informationResult);
+            sum += dataPoint.getSum();
+            count += dataPoint.getCount();
         }
         avg = sum / data.size();
     }
 
-    private void aggregateWorkout(WorkoutInformationResult informationResult) {
-        AggregatedInformationDataPoint dataPoint = getDataPoint(informationResult.getWorkout());
-        dataPoint.setSum(dataPoint.getSum() + informationResult.getValue());
-        dataPoint.setCount(dataPoint.getCount() + 1);
-    }
-
-    private AggregatedInformationDataPoint getDataPoint(BaseWorkout workout) {
-        long key = getDataPointDateFromWorkout(workout);
-        if (!dataPoints.containsKey(key)) {
-            dataPoints.put(key, new AggregatedInformationDataPoint(new Date(key), 0, 0));
-        }
-        return dataPoints.get(key);
-    }
-
-    private long getDataPointDateFromWorkout(BaseWorkout workout) {
-        Calendar calendar = Calendar.getInstance();
-
+    private Calendar getCalendar() {
         // attempt to get the Instance an use the app preferences
         Instance i = Instance.getInstance();
         if (i != null) {
-            calendar = i.userDateTimeUtils.getCalendarInstance();
+            return i.userDateTimeUtils.getCalendarInstance();
         }
-
-        calendar.setTimeInMillis(workout.start);
-        span.setCalendarToAggregationStart(calendar);
-        return calendar.getTimeInMillis();
+        return Calendar.getInstance();
     }
 
     public double getMin() {
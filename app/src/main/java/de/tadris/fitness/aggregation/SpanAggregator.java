@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.aggregation;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Assigns items to the buckets of an {@link AggregationSpan} in a single pass.
+ * <p>
+ * The items are sorted once by time and then swept linearly, so aggregating n items costs
+ * O(n log n) regardless of the number of buckets. Only buckets containing at least one item are
+ * emitted, each with sum, count, min, max and mean of its values.
+ *
+ * @param <T> type of the aggregated items
+ */
+public class SpanAggregator<T> {
+
+    public interface TimeExtractor<T> {
+        long getTime(T item);
+    }
+
+    public interface ValueExtractor<T> {
+        double getValue(T item);
+    }
+
+    private final AggregationSpan span;
+    private final Calendar calendar;
+    private final TimeExtractor<T> timeExtractor;
+    private final ValueExtractor<T> valueExtractor;
+
+    /**
+     * @param calendar calendar used to determine the bucket boundaries, e.g. to respect the
+     *                 first day of week. It will be modified.
+     */
+    public SpanAggregator(AggregationSpan span, Calendar calendar, TimeExtractor<T> timeExtractor, ValueExtractor<T> valueExtractor) {
+        this.span = span;
+        this.calendar = calendar;
+        this.timeExtractor = timeExtractor;
+        this.valueExtractor = valueExtractor;
+    }
+
+    /**
+     * @return non-empty buckets ordered by their start time
+     */
+    public List<AggregatedInformationDataPoint> aggregate(List<T> items) {
+        List<T> sorted = new ArrayList<>(items);
+        Collections.sort(sorted, (o1, o2) -> Long.compare(timeExtractor.getTime(o1), timeExtractor.getTime(o2)));
+
+        List<AggregatedInformationDataPoint> buckets = new ArrayList<>();
+        AggregatedInformationDataPoint bucket = null;
+        long bucketEnd = Long.MIN_VALUE;
+        for (T item : sorted) {
+            long time = timeExtractor.getTime(item);
+            if (bucket == null || time >= bucketEnd) {
+                // Jump directly to the bucket of this item, empty buckets in between are skipped
+                calendar.setTimeInMillis(time);
+                span.setCalendarToAggregationStart(calendar);
+                bucket = new AggregatedInformationDataPoint(new Date(calendar.getTimeInMillis()), 0, 0);
+                bucketEnd = span.getAggregationEnd(calendar).getTimeInMillis();
+                buckets.add(bucket);
+            }
+            bucket.add(valueExtractor.getValue(item));
+        }
+        return buckets;
+    }
+}
@@ -1,7 +1,14 @@
 package de.tadris.fitness.client;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import de.tadris.fitness.model.BirdData;
 import de.tadris.fitness.service.BirdClassifierService;
@@ -9,36 +16,97 @@ import okhttp3.MediaType;
 import okhttp3.MultipartBody;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
-import retrofit2.Call;
+import retrofit2.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
+/**
+ * Process-wide client for the bird classifier. Photos are prepared on a background thread and
+ * results are cached on disk by a perceptual hash of the photo, so the same or a nearly identical
+ * photo is answered without a request.
+ */
 public class BirdClassifierApiClient {
 
-    private static String BASE_URL = "https://bird-classifier.p.rapidapi.com/";
-    private BirdClassifierService birdClassifierService;
+    private static final String BASE_URL = "https://bird-classifier.p.rapidapi.com/";
+    private static final String CACHE_DIRECTORY = "bird-predictions";
+    private static final int RESULT_COUNT = 5;
+    private static final int CACHE_SIZE = 50;
+    /**
+     * Photos whose hashes differ in at most this many bits are treated as the same photo
+     */
+    private static final int MAX_HASH_DISTANCE = 4;
+
+    private static BirdClassifierApiClient instance;
+
+    public static synchronized BirdClassifierApiClient getInstance(Context context) {
+        if (instance == null) {
+            instance = new BirdClassifierApiClient(BASE_URL, new File(context.getApplicationContext().getCacheDir(), CACHE_DIRECTORY));
+        }
+        return instance;
+    }
+
+    public interface PredictionCallback {
+        void onPredictions(List<BirdData> predictions);
 
-    public BirdClassifierApiClient() {
+        void onError(Exception e);
+    }
+
+    private final BirdClassifierService birdClassifierService;
+    private final PredictionCache cache;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    public BirdClassifierApiClient(String baseUrl, File cacheDirectory) {
         OkHttpClient client = new OkHttpClient.Builder().build();
 
         Retrofit retrofit = new Retrofit.Builder()
-                .baseUrl(BASE_URL)
+                .baseUrl(baseUrl)
                 .client(client)
                 .addConverterFactory(GsonConverterFactory.create())
                 .build();
 
         birdClassifierService = retrofit.create(BirdClassifierService.class);
+        cache = new PredictionCache(cacheDirectory, CACHE_SIZE);
+    }
+
+    /**
+     * Decodes, prepares and classifies the photo in the background, the callback is called on the
+     * main thread
+     */
+    public void classify(File photo, PredictionCallback callback) {
+        Handler handler = new Handler(Looper.getMainLooper());
+        executor.execute(() -> {
+            try {
+                ImagePreprocessor.PreparedImage image = ImagePreprocessor.prepare(photo);
+                List<BirdData> predictions = getPredictions(image.jpeg, image.hash);
+                handler.post(() -> callback.onPredictions(predictions));
+            } catch (Exception e) {
+                handler.post(() -> callback.onError(e));
+            }
+        });
     }
-    public Call<List<BirdData>> getPredictions(File quizImage){
 
-        // Create the request body
-        MediaType mediaType = MediaType.parse("multipart/form-data");
-        RequestBody requestBody = RequestBody.create(mediaType, quizImage);
+    /**
+     * Blocking, must not be called on the main thread.
+     *
+     * @param jpeg      prepared image, see {@link ImagePreprocessor}
+     * @param imageHash {@link ImageHash} of the image
+     */
+    public List<BirdData> getPredictions(byte[] jpeg, long imageHash) throws IOException {
+        List<BirdData> cachedPredictions = cache.get(imageHash, MAX_HASH_DISTANCE);
+        if (cachedPredictions != null) {
+            return cachedPredictions;
+        }
 
-        // Create the MultipartBody.Part for the image
-        MultipartBody.Part imagePart = MultipartBody.Part.createFormData("image", quizImage.getName(), requestBody);
+        RequestBody requestBody = RequestBody.create(MediaType.parse("image/jpeg"), jpeg);
+        MultipartBody.Part imagePart = MultipartBody.Part.createFormData("image", "image.jpg", requestBody);
 
-        return  birdClassifierService.getPredictions(5, imagePart);
+        Response<List<BirdData>> response = birdClassifierService.getPredictions(RESULT_COUNT, imagePart).execute();
+        List<BirdData> predictions = response.body();
+        if (!response.isSuccessful() || predictions == null) {
+            throw new IOException("Classifier request failed with HTTP " + response.code());
+        }
+        cache.put(imageHash, predictions);
+        return predictions;
     }
 
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.client;
+
+/**
+ * 64 bit difference hash (dHash) of an image. Similar images have hashes with a small hamming
+ * distance, so it can be used to recognize repeated photos even if they were re-encoded or
+ * slightly changed.
+ */
+public class ImageHash {
+
+    public static final int WIDTH = 9;
+    public static final int HEIGHT = 8;
+
+    /**
+     * @param pixels ARGB pixels of the image scaled to {@link #WIDTH} x {@link #HEIGHT}, row by row
+     */
+    public static long differenceHash(int[] pixels) {
+        if (pixels.length != WIDTH * HEIGHT) {
+            throw new IllegalArgumentException("Expected " + WIDTH * HEIGHT + " pixels but got " + pixels.length);
+        }
+        long hash = 0;
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH - 1; x++) {
+                hash <<= 1;
+                if (luminance(pixels[y * WIDTH + x]) < luminance(pixels[y * WIDTH + x + 1])) {
+                    hash |= 1;
+                }
+            }
+        }
+        return hash;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    private static int luminance(int argb) {
+        int r = (argb >> 16) & 0xff;
+        int g = (argb >> 8) & 0xff;
+        int b = argb & 0xff;
+        return (299 * r + 587 * g + 114 * b) / 1000;
+    }
+}
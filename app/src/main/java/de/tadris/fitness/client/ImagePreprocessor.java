@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.client;
+
+import android.graphics.Bitmap;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+
+import de.tadris.fitness.util.SampledBitmapDecoder;
+
+/**
+ * Prepares photos for the classifier: scales them down to the input resolution of the model,
+ * encodes them as JPEG and computes the {@link ImageHash} used as cache key.
+ */
+public class ImagePreprocessor {
+
+    /**
+     * The classifier scales images to this size anyway, larger uploads only cost time
+     */
+    public static final int CLASSIFIER_INPUT_SIZE = 224;
+    private static final int JPEG_QUALITY = 90;
+
+    public static class PreparedImage {
+        public final byte[] jpeg;
+        public final long hash;
+
+        PreparedImage(byte[] jpeg, long hash) {
+            this.jpeg = jpeg;
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Decodes the image file only as large as needed and prepares it
+     */
+    public static PreparedImage prepare(File imageFile) throws IOException {
+        Bitmap photo = SampledBitmapDecoder.decode(imageFile, CLASSIFIER_INPUT_SIZE, CLASSIFIER_INPUT_SIZE, null);
+        try {
+            return prepare(photo);
+        } finally {
+            photo.recycle();
+        }
+    }
+
+    public static PreparedImage prepare(Bitmap photo) {
+        Bitmap scaled = scaleDown(photo, CLASSIFIER_INPUT_SIZE);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        scaled.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, stream);
+
+        Bitmap hashBitmap = Bitmap.createScaledBitmap(scaled, ImageHash.WIDTH, ImageHash.HEIGHT, true);
+        int[] pixels = new int[ImageHash.WIDTH * ImageHash.HEIGHT];
+        hashBitmap.getPixels(pixels, 0, ImageHash.WIDTH, 0, 0, ImageHash.WIDTH, ImageHash.HEIGHT);
+
+        if (hashBitmap != scaled) {
+            hashBitmap.recycle();
+        }
+        if (scaled != photo) {
+            scaled.recycle();
+        }
+        return new PreparedImage(stream.toByteArray(), ImageHash.differenceHash(pixels));
+    }
+
+    /**
+     * Scales the bitmap so that its shorter side is at most {@code minSide} pixels
+     */
+    private static Bitmap scaleDown(Bitmap bitmap, int minSide) {
+        int shorterSide = Math.min(bitmap.getWidth(), bitmap.getHeight());
+        if (shorterSide <= minSide) {
+            return bitmap;
+        }
+        float scale = (float) minSide / shorterSide;
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)), true);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.client;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tadris.fitness.model.BirdData;
+
+/**
+ * Disk backed LRU cache of classifier results, keyed by the {@link ImageHash} of the photo. Every
+ * entry is a small json file, the access order is kept in the file modification times so it
+ * survives restarts.
+ */
+public class PredictionCache {
+
+    private static final String TAG = "PredictionCache";
+    private static final String SUFFIX = ".json";
+    private static final Type PREDICTIONS_TYPE = new TypeToken<List<BirdData>>() {
+    }.getType();
+
+    private final File directory;
+    private final int maxEntries;
+    private final Gson gson = new Gson();
+    private final LinkedHashMap<Long, File> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    public PredictionCache(File directory, int maxEntries) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        directory.mkdirs();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if (files != null) {
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    entries.put(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), file);
+                } catch (NumberFormatException e) {
+                    file.delete();
+                }
+            }
+        }
+        trim();
+    }
+
+    /**
+     * @param maxDistance maximum hamming distance of the hashes, 0 for exact matches only
+     * @return cached predictions of the most similar image or null if there is none
+     */
+    public synchronized List<BirdData> get(long imageHash, int maxDistance) {
+        Long key = imageHash;
+        if (!entries.containsKey(key)) {
+            key = null;
+            int bestDistance = maxDistance + 1;
+            for (Long candidate : entries.keySet()) {
+                int distance = ImageHash.distance(candidate, imageHash);
+                if (distance < bestDistance) {
+                    bestDistance = distance;
+                    key = candidate;
+                }
+            }
+            if (key == null) {
+                return null;
+            }
+        }
+        File file = entries.get(key); // also marks the entry as recently used
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            List<BirdData> predictions = gson.fromJson(reader, PREDICTIONS_TYPE);
+            file.setLastModified(System.currentTimeMillis());
+            return predictions;
+        } catch (Exception e) {
+            // Unreadable entry, e.g. from an interrupted write or an older format
+            entries.remove(key);
+            file.delete();
+            return null;
+        }
+    }
+
+    public synchronized void put(long imageHash, List<BirdData> predictions) {
+        File file = new File(directory, imageHash + SUFFIX);
+        File tempFile = new File(directory, imageHash + SUFFIX + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8)) {
+            gson.toJson(predictions, PREDICTIONS_TYPE, writer);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot cache predictions", e);
+            tempFile.delete();
+            return;
+        }
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            return;
+        }
+        entries.put(imageHash, file);
+        trim();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Long, File>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next().getValue().delete();
+            iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.converter;
+
+import android.content.Context;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable lookup table between scientific and common bird names, loaded once per process from
+ * {@value #ASSET_NAME}. Both directions are sorted arrays searched with binary search, so lookups
+ * don't allocate.
+ */
+public class SpeciesIndex {
+
+    private static final String ASSET_NAME = "species.tsv";
+
+    private static SpeciesIndex instance;
+
+    public static synchronized SpeciesIndex getInstance(Context context) {
+        if (instance == null) {
+            try (InputStream input = context.getApplicationContext().getAssets().open(ASSET_NAME)) {
+                instance = read(input);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot load " + ASSET_NAME, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Reads a table with one "scientific name TAB common name" entry per line. Lines starting
+     * with '#' are ignored, the common name may be empty.
+     */
+    static SpeciesIndex read(InputStream input) throws IOException {
+        List<String> scientificNames = new ArrayList<>();
+        List<String> commonNames = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            int tab = line.indexOf('\t');
+            String scientificName = (tab == -1 ? line : line.substring(0, tab)).trim();
+            String commonName = tab == -1 ? "" : line.substring(tab + 1).trim();
+            scientificNames.add(scientificName);
+            commonNames.add(commonName.isEmpty() ? null : commonName);
+        }
+        return new SpeciesIndex(scientificNames.toArray(new String[0]), commonNames.toArray(new String[0]));
+    }
+
+    private final String[] scientificNames;
+    private final String[] commonNames; // null if unknown
+    private final int[] byCommonName; // indices of entries with a common name, sorted case-insensitively
+
+    private SpeciesIndex(String[] scientificNames, String[] commonNames) {
+        Integer[] order = new Integer[scientificNames.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> scientificNames[a].compareTo(scientificNames[b]));
+        this.scientificNames = new String[order.length];
+        this.commonNames = new String[order.length];
+        int namedCount = 0;
+        for (int i = 0; i < order.length; i++) {
+            this.scientificNames[i] = scientificNames[order[i]];
+            this.commonNames[i] = commonNames[order[i]];
+            if (this.commonNames[i] != null) {
+                namedCount++;
+            }
+        }
+
+        Integer[] named = new Integer[namedCount];
+        int j = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (this.commonNames[i] != null) {
+                named[j++] = i;
+            }
+        }
+        // Stable sort, so the first species with a shared common name is found first
+        Arrays.sort(named, (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(this.commonNames[a], this.commonNames[b]));
+        byCommonName = new int[namedCount];
+        for (int i = 0; i < namedCount; i++) {
+            byCommonName[i] = named[i];
+        }
+    }
+
+    public int size() {
+        return scientificNames.length;
+    }
+
+    /**
+     * Finds the common name of a species. If a subspecies ("Ardea herodias occidentalis") has no
+     * own entry or no common name, the common name of the species binomial is used.
+     *
+     * @return the common name or null if unknown
+     */
+    @Nullable
+    public String getCommonName(String scientificName) {
+        int index = find(scientificName, scientificName.length());
+        if (index >= 0 && commonNames[index] != null) {
+            return commonNames[index];
+        }
+        int binomialLength = getBinomialLength(scientificName);
+        if (binomialLength != -1) {
+            index = find(scientificName, binomialLength);
+            if (index >= 0) {
+                return commonNames[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Reverse lookup, ignoring case. If several species share the common name, the
+     * alphabetically first scientific name is returned.
+     *
+     * @return the scientific name or null if no species has this common name
+     */
+    @Nullable
+    public String getScientificName(String commonName) {
+        int low = 0;
+        int high = byCommonName.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = String.CASE_INSENSITIVE_ORDER.compare(commonNames[byCommonName[mid]], commonName);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else {
+                if (comparison == 0) {
+                    result = byCommonName[mid];
+                }
+                high = mid - 1;
+            }
+        }
+        return result != -1 ? scientificNames[result] : null;
+    }
+
+    /**
+     * Binary search for the first {@code length} chars of the given name without creating a substring
+     *
+     * @return index of the entry or a negative value if there is none
+     */
+    private int find(String name, int length) {
+        int low = 0;
+        int high = scientificNames.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = compare(scientificNames[mid], name, length);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Same order as {@link String#compareTo(String)} with {@code name.substring(0, length)}
+     */
+    private static int compare(String entry, String name, int length) {
+        int common = Math.min(entry.length(), length);
+        for (int i = 0; i < common; i++) {
+            char a = entry.charAt(i);
+            char b = name.charAt(i);
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return entry.length() - length;
+    }
+
+    /**
+     * @return length of "Genus species" if the name is a trinomial "Genus species subspecies",
+     * -1 otherwise (e.g. for hybrids like "Anas superciliosa × platyrhynchos")
+     */
+    private static int getBinomialLength(String name) {
+        int firstSpace = name.indexOf(' ');
+        if (firstSpace == -1) {
+            return -1;
+        }
+        int secondSpace = name.indexOf(' ', firstSpace + 1);
+        if (secondSpace == -1 || name.indexOf(' ', secondSpace + 1) != -1) {
+            return -1;
+        }
+        return secondSpace;
+    }
+}
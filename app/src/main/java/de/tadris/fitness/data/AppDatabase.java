@@ -31,9 +31,11 @@ import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-@Database(version = 16, entities = {
+@Database(version = 19, entities = {
         GpsWorkout.class,
         GpsSample.class,
         IndoorWorkout.class,
@@ -42,6 +44,10 @@ import java.util.List;
         IntervalSet.class,
         WorkoutType.class,
         ExportTargetConfiguration.class,
+        StatsRollup.class,
+        RrIntervalBatch.class,
+        HeartRateVariability.class,
+        GpsTrack.class,
 }, exportSchema = false)
 public abstract class AppDatabase extends RoomDatabase {
 
@@ -57,6 +63,12 @@ public abstract class AppDatabase extends RoomDatabase {
 
     public abstract ExportTargetDao exportTargetDao();
 
+    public abstract StatsRollupDao statsRollupDao();
+
+    public abstract WorkoutSummaryDao workoutSummaryDao();
+
+    public abstract HeartRateVariabilityDao heartRateVariabilityDao();
+
     @Nullable
     public BaseWorkout getWorkoutByStart(long start) {
         BaseWorkout workout = gpsWorkoutDao().getWorkoutByStart(start);
@@ -67,28 +79,22 @@ public abstract class AppDatabase extends RoomDatabase {
     }
 
     public List<BaseWorkout> getAllWorkouts() {
-        List<BaseWorkout> allWorkouts = new ArrayList<>();
-
-        List<GpsWorkout> gpsWorkouts = new ArrayList<>(Arrays.asList(gpsWorkoutDao().getWorkouts()));
-        List<IndoorWorkout> indoorWorkouts = new ArrayList<>(Arrays.asList(indoorWorkoutDao().getWorkouts()));
-
-
-        // Merging gps workouts indoor workouts
-        while (gpsWorkouts.size() > 0 && indoorWorkouts.size() > 0) {
-            GpsWorkout firstGpsWorkout = gpsWorkouts.get(0);
-            IndoorWorkout firstIndoorWorkout = indoorWorkouts.get(0);
-            if (firstGpsWorkout.start > firstIndoorWorkout.start) {
-                allWorkouts.add(gpsWorkouts.remove(0));
+        GpsWorkout[] gpsWorkouts = gpsWorkoutDao().getWorkouts();
+        IndoorWorkout[] indoorWorkouts = indoorWorkoutDao().getWorkouts();
+        List<BaseWorkout> allWorkouts = new ArrayList<>(gpsWorkouts.length + indoorWorkouts.length);
+
+        // Merging gps workouts indoor workouts, both are sorted by start descending
+        int gpsIndex = 0;
+        int indoorIndex = 0;
+        while (gpsIndex < gpsWorkouts.length && indoorIndex < indoorWorkouts.length) {
+            if (gpsWorkouts[gpsIndex].start > indoorWorkouts[indoorIndex].start) {
+                allWorkouts.add(gpsWorkouts[gpsIndex++]);
             } else {
-                allWorkouts.add(indoorWorkouts.remove(0));
+                allWorkouts.add(indoorWorkouts[indoorIndex++]);
             }
         }
-        if (gpsWorkouts.size() > 0) {
-            allWorkouts.addAll(gpsWorkouts);
-        }
-        if (indoorWorkouts.size() > 0) {
-            allWorkouts.addAll(indoorWorkouts);
-        }
+        allWorkouts.addAll(Arrays.asList(gpsWorkouts).subList(gpsIndex, gpsWorkouts.length));
+        allWorkouts.addAll(Arrays.asList(indoorWorkouts).subList(indoorIndex, indoorWorkouts.length));
 
         return allWorkouts;
     }
@@ -102,6 +108,22 @@ public abstract class AppDatabase extends RoomDatabase {
         }
     }
 
+    /**
+     * @return start time of the last workout for every workout type id that was used
+     */
+    public Map<String, Long> getLastWorkoutTimesByType() {
+        Map<String, Long> lastTimes = new HashMap<>();
+        List<WorkoutTypeUsage> usages = new ArrayList<>(Arrays.asList(gpsWorkoutDao().getLastUsageByType()));
+        usages.addAll(Arrays.asList(indoorWorkoutDao().getLastUsageByType()));
+        for (WorkoutTypeUsage usage : usages) {
+            Long lastTime = lastTimes.get(usage.typeId);
+            if (lastTime == null || usage.lastStart > lastTime) {
+                lastTimes.put(usage.typeId, usage.lastStart);
+            }
+        }
+        return lastTimes;
+    }
+
     @Nullable
     public BaseWorkout getLastWorkoutByType(String type) {
         GpsWorkout gpsWorkout = gpsWorkoutDao().getLastWorkoutByType(type);
@@ -481,6 +503,74 @@ public abstract class AppDatabase extends RoomDatabase {
                                     "    data text\n" +
                                     ");");
 
+                            database.setTransactionSuccessful();
+                        } finally {
+                            database.endTransaction();
+                        }
+                    }
+                }, new Migration(16, 17) {
+                    @Override
+                    public void migrate(@NonNull SupportSQLiteDatabase database) {
+                        try {
+                            database.beginTransaction();
+
+                            // Rollups are built on first access, see StatsRollupManager
+                            database.execSQL("CREATE TABLE stats_rollup (" +
+                                    "workout_type TEXT NOT NULL," +
+                                    "span INTEGER NOT NULL," +
+                                    "bucket_start INTEGER NOT NULL," +
+                                    "property INTEGER NOT NULL," +
+                                    "value_count INTEGER NOT NULL," +
+                                    "value_sum REAL NOT NULL," +
+                                    "value_min REAL NOT NULL," +
+                                    "value_max REAL NOT NULL," +
+                                    "PRIMARY KEY(workout_type, span, bucket_start, property));");
+
+                            database.setTransactionSuccessful();
+                        } finally {
+                            database.endTransaction();
+                        }
+                    }
+                }, new Migration(17, 18) {
+                    @Override
+                    public void migrate(@NonNull SupportSQLiteDatabase database) {
+                        try {
+                            database.beginTransaction();
+
+                            database.execSQL("CREATE TABLE rr_interval_batch (" +
+                                    "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                                    "workout_id INTEGER NOT NULL," +
+                                    "start_time INTEGER NOT NULL," +
+                                    "interval_count INTEGER NOT NULL," +
+                                    "intervals BLOB);");
+                            database.execSQL("CREATE INDEX index_rr_interval_batch_workout_id ON rr_interval_batch (workout_id)");
+
+                            database.execSQL("CREATE TABLE heart_rate_variability (" +
+                                    "workout_id INTEGER PRIMARY KEY NOT NULL," +
+                                    "beat_count INTEGER NOT NULL," +
+                                    "artifact_count INTEGER NOT NULL," +
+                                    "mean_interval REAL NOT NULL," +
+                                    "sdnn REAL NOT NULL," +
+                                    "rmssd REAL NOT NULL);");
+
+                            database.setTransactionSuccessful();
+                        } finally {
+                            database.endTransaction();
+                        }
+                    }
+                }, new Migration(18, 19) {
+                    @Override
+                    public void migrate(@NonNull SupportSQLiteDatabase database) {
+                        try {
+                            database.beginTransaction();
+
+                            database.execSQL("CREATE TABLE workout_track (" +
+                                    "workout_id INTEGER PRIMARY KEY NOT NULL," +
+                                    "sample_count INTEGER NOT NULL," +
+                                    "format INTEGER NOT NULL," +
+                                    "data BLOB," +
+                                    "FOREIGN KEY (workout_id) REFERENCES workout(id) ON DELETE CASCADE);");
+
                             database.setTransactionSuccessful();
                         } finally {
                             database.endTransaction();
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import static androidx.room.ForeignKey.CASCADE;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * All samples of a finished gps workout in one compact blob. If a workout has a track, its
+ * samples are not stored in the workout_sample table, see {@link GpsWorkoutDao#compactSamples(long)}.
+ */
+@Entity(tableName = "workout_track",
+        foreignKeys = @ForeignKey(
+                entity = GpsWorkout.class,
+                parentColumns = "id",
+                childColumns = "workout_id",
+                onDelete = CASCADE))
+public class GpsTrack {
+
+    @PrimaryKey
+    @ColumnInfo(name = "workout_id")
+    public long workoutId;
+
+    @ColumnInfo(name = "sample_count")
+    public int sampleCount;
+
+    /**
+     * Encoding of the data, currently always {@link GpsTrackCodec#FORMAT_DELTA_V1}
+     */
+    public int format;
+
+    public byte[] data;
+
+    public GpsTrack() {
+    }
+
+    @Ignore
+    public GpsTrack(long workoutId, GpsSample[] samples) {
+        this.workoutId = workoutId;
+        this.sampleCount = samples.length;
+        this.format = GpsTrackCodec.FORMAT_DELTA_V1;
+        this.data = GpsTrackCodec.encode(samples);
+    }
+
+    public GpsTrackColumns getColumns() {
+        if (format != GpsTrackCodec.FORMAT_DELTA_V1) {
+            throw new IllegalStateException("Unknown track format " + format);
+        }
+        return GpsTrackCodec.decode(data, sampleCount);
+    }
+
+    public GpsSample[] toSamples() {
+        return getColumns().toSamples(workoutId);
+    }
+
+    /**
+     * Combines the samples of a track with sample rows of the same workout. Rows replace samples
+     * with the same id, the result is ordered by time.
+     */
+    public static GpsSample[] merge(GpsSample[] trackSamples, GpsSample[] rows) {
+        Map<Long, GpsSample> samples = new HashMap<>();
+        for (GpsSample sample : trackSamples) {
+            samples.put(sample.id, sample);
+        }
+        for (GpsSample sample : rows) {
+            samples.put(sample.id, sample);
+        }
+        GpsSample[] merged = samples.values().toArray(new GpsSample[0]);
+        Arrays.sort(merged, (a, b) -> Long.compare(a.absoluteTime, b.absoluteTime));
+        return merged;
+    }
+}
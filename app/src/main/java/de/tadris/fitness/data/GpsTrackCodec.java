@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+/**
+ * Compact columnar encoding of gps samples.
+ * <p>
+ * Every column is stored after the previous one as zigzag varints of the difference to the
+ * previous value. Ids, times and coordinates usually change at a steady rate, so for them the
+ * difference to the previous difference is stored instead. Coordinates are stored in 1e-7 degrees (about 1 cm), elevations in cm, speed
+ * in mm/s and pressure in 0.01 hPa. Ids, times, heart rate and intervals are stored exactly.
+ * Consecutive samples differ only slightly, so most values fit into one or two bytes.
+ */
+public final class GpsTrackCodec {
+
+    public static final int FORMAT_DELTA_V1 = 1;
+
+    private static final double COORDINATE_SCALE = 1e7;
+    private static final double ELEVATION_SCALE = 100;
+    private static final double SPEED_SCALE = 1000;
+    private static final double PRESSURE_SCALE = 100;
+
+    private GpsTrackCodec() {
+    }
+
+    public static byte[] encode(GpsSample[] samples) {
+        int count = samples.length;
+        long[] column = new long[count];
+        Output output = new Output(count * 16);
+
+        for (int i = 0; i < count; i++) column[i] = samples[i].id;
+        output.writeDeltasOfDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = samples[i].absoluteTime;
+        output.writeDeltasOfDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = samples[i].relativeTime;
+        output.writeDeltasOfDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].lat * COORDINATE_SCALE);
+        output.writeDeltasOfDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].lon * COORDINATE_SCALE);
+        output.writeDeltasOfDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].elevation * ELEVATION_SCALE);
+        output.writeDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].elevationMSL * ELEVATION_SCALE);
+        output.writeDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].speed * SPEED_SCALE);
+        output.writeDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = Math.round(samples[i].pressure * PRESSURE_SCALE);
+        output.writeDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = samples[i].heartRate;
+        output.writeDeltas(column);
+        for (int i = 0; i < count; i++) column[i] = samples[i].intervalTriggered;
+        output.writeDeltas(column);
+
+        return output.toByteArray();
+    }
+
+    public static GpsTrackColumns decode(byte[] data, int count) {
+        GpsTrackColumns columns = new GpsTrackColumns(count);
+        Input input = new Input(data);
+
+        long value = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) columns.ids[i] = value += delta += input.readDelta();
+        value = delta = 0;
+        for (int i = 0; i < count; i++) columns.absoluteTimes[i] = value += delta += input.readDelta();
+        value = delta = 0;
+        for (int i = 0; i < count; i++) columns.relativeTimes[i] = value += delta += input.readDelta();
+        value = delta = 0;
+        for (int i = 0; i < count; i++) columns.lats[i] = (value += delta += input.readDelta()) / COORDINATE_SCALE;
+        value = delta = 0;
+        for (int i = 0; i < count; i++) columns.lons[i] = (value += delta += input.readDelta()) / COORDINATE_SCALE;
+        value = 0;
+        for (int i = 0; i < count; i++) columns.elevations[i] = (value += input.readDelta()) / ELEVATION_SCALE;
+        value = 0;
+        for (int i = 0; i < count; i++) columns.elevationsMSL[i] = (value += input.readDelta()) / ELEVATION_SCALE;
+        value = 0;
+        for (int i = 0; i < count; i++) columns.speeds[i] = (value += input.readDelta()) / SPEED_SCALE;
+        value = 0;
+        for (int i = 0; i < count; i++) columns.pressures[i] = (float) ((value += input.readDelta()) / PRESSURE_SCALE);
+        value = 0;
+        for (int i = 0; i < count; i++) columns.heartRates[i] = (int) (value += input.readDelta());
+        value = 0;
+        for (int i = 0; i < count; i++) columns.intervalsTriggered[i] = value += input.readDelta();
+
+        return columns;
+    }
+
+    private static class Output {
+
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeDeltas(long[] values) {
+            long previous = 0;
+            for (long value : values) {
+                long difference = value - previous;
+                writeVarint((difference << 1) ^ (difference >> 63)); // zigzag
+                previous = value;
+            }
+        }
+
+        void writeDeltasOfDeltas(long[] values) {
+            long previous = 0;
+            long previousDifference = 0;
+            for (long value : values) {
+                long difference = value - previous;
+                long change = difference - previousDifference;
+                writeVarint((change << 1) ^ (change >> 63));
+                previous = value;
+                previousDifference = difference;
+            }
+        }
+
+        private void writeVarint(long value) {
+            if (position + 10 > buffer.length) {
+                byte[] grown = new byte[buffer.length * 2];
+                System.arraycopy(buffer, 0, grown, 0, position);
+                buffer = grown;
+            }
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            byte[] result = new byte[position];
+            System.arraycopy(buffer, 0, result, 0, position);
+            return result;
+        }
+    }
+
+    private static class Input {
+
+        private final byte[] data;
+        private int position;
+
+        Input(byte[] data) {
+            this.data = data;
+        }
+
+        long readDelta() {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
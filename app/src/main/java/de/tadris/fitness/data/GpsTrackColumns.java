@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+/**
+ * Samples of a workout track as primitive columns, decoded from a {@link GpsTrack}.
+ * <p>
+ * Readers that only need a few values, like the track preview of the theme settings, use the
+ * arrays directly, see {@link GpsWorkoutDao#getTrackColumns(long)}. The workout screens still
+ * convert them with {@link #toSamples(long)}.
+ */
+public class GpsTrackColumns {
+
+    public final int size;
+
+    public final long[] ids;
+    public final long[] absoluteTimes;
+    public final long[] relativeTimes;
+    public final double[] lats;
+    public final double[] lons;
+    public final double[] elevations;
+    public final double[] elevationsMSL;
+    public final double[] speeds;
+    public final float[] pressures;
+    public final int[] heartRates;
+    public final long[] intervalsTriggered;
+
+    public GpsTrackColumns(int size) {
+        this.size = size;
+        this.ids = new long[size];
+        this.absoluteTimes = new long[size];
+        this.relativeTimes = new long[size];
+        this.lats = new double[size];
+        this.lons = new double[size];
+        this.elevations = new double[size];
+        this.elevationsMSL = new double[size];
+        this.speeds = new double[size];
+        this.pressures = new float[size];
+        this.heartRates = new int[size];
+        this.intervalsTriggered = new long[size];
+    }
+
+    public static GpsTrackColumns fromSamples(GpsSample[] samples) {
+        GpsTrackColumns columns = new GpsTrackColumns(samples.length);
+        for (int i = 0; i < samples.length; i++) {
+            GpsSample sample = samples[i];
+            columns.ids[i] = sample.id;
+            columns.absoluteTimes[i] = sample.absoluteTime;
+            columns.relativeTimes[i] = sample.relativeTime;
+            columns.lats[i] = sample.lat;
+            columns.lons[i] = sample.lon;
+            columns.elevations[i] = sample.elevation;
+            columns.elevationsMSL[i] = sample.elevationMSL;
+            columns.speeds[i] = sample.speed;
+            columns.pressures[i] = sample.pressure;
+            columns.heartRates[i] = sample.heartRate;
+            columns.intervalsTriggered[i] = sample.intervalTriggered;
+        }
+        return columns;
+    }
+
+    public GpsSample[] toSamples(long workoutId) {
+        GpsSample[] samples = new GpsSample[size];
+        for (int i = 0; i < size; i++) {
+            GpsSample sample = new GpsSample();
+            sample.id = ids[i];
+            sample.workoutId = workoutId;
+            sample.absoluteTime = absoluteTimes[i];
+            sample.relativeTime = relativeTimes[i];
+            sample.lat = lats[i];
+            sample.lon = lons[i];
+            sample.elevation = elevations[i];
+            sample.elevationMSL = elevationsMSL[i];
+            sample.speed = speeds[i];
+            sample.pressure = pressures[i];
+            sample.heartRate = heartRates[i];
+            sample.intervalTriggered = intervalsTriggered[i];
+            samples[i] = sample;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.util.List;
+
+import de.tadris.fitness.Instance;
+import de.tadris.fitness.recording.BaseWorkoutRecorder;
+import de.tadris.fitness.recording.gps.GpsWorkoutRecorder;
+
+/**
+ * Moves the samples of finished gps workouts between the workout_sample table and
+ * {@link GpsTrack compact tracks}, depending on the user preference.
+ */
+public class GpsTrackStorage {
+
+    private static final String TAG = "GpsTrackStorage";
+
+    /**
+     * Compacts or expands all workouts in the background, e.g. after the preference was changed
+     */
+    public static void applyPreferenceAsync(Context context) {
+        Instance instance = Instance.getInstance(context);
+        applyPreferenceAsync(instance, instance.userPreferences.getCompactTrackStorage());
+    }
+
+    public static void applyPreferenceAsync(Instance instance, boolean compact) {
+        new Thread(() -> applyPreference(instance, compact), TAG).start();
+    }
+
+    public static synchronized void applyPreference(Instance instance, boolean compact) {
+        GpsWorkoutDao dao = instance.db.gpsWorkoutDao();
+        List<Long> workoutIds = compact ? dao.getCompactableWorkoutIds() : dao.getCompactedWorkoutIds();
+        int count = 0;
+        for (long workoutId : workoutIds) {
+            if (compact) {
+                if (workoutId == getRecordingWorkoutId(instance)) {
+                    // Compacted when it is saved
+                    continue;
+                }
+                dao.compactSamples(workoutId);
+            } else {
+                dao.expandSamples(workoutId);
+            }
+            count++;
+        }
+        if (count > 0) {
+            Log.i(TAG, (compact ? "Compacted " : "Expanded ") + count + " workouts");
+        }
+    }
+
+    /**
+     * A resumed workout already has an end, but the recorder keeps adding sample rows until it is saved
+     */
+    private static long getRecordingWorkoutId(Instance instance) {
+        BaseWorkoutRecorder recorder = instance.recorder;
+        if (recorder instanceof GpsWorkoutRecorder && !recorder.isSaved()) {
+            return recorder.getWorkout().id;
+        }
+        return -1;
+    }
+
+    /**
+     * Compacts a workout that was just saved if the user enabled compact storage
+     */
+    public static void compactIfEnabled(Context context, long workoutId) {
+        Instance instance = Instance.getInstance(context);
+        if (instance.userPreferences.getCompactTrackStorage()) {
+            instance.db.gpsWorkoutDao().compactSamples(workoutId);
+        }
+    }
+}
@@ -22,9 +22,13 @@ package de.tadris.fitness.data;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
+import java.util.List;
+
 @Dao
 public interface GpsWorkoutDao {
 
@@ -35,7 +39,24 @@ public interface GpsWorkoutDao {
     GpsSample findSampleById(long id);
 
     @Query("SELECT * FROM workout_sample WHERE workout_id = :workout_id")
-    GpsSample[] getAllSamplesOfWorkout(long workout_id);
+    GpsSample[] getSampleRowsOfWorkout(long workout_id);
+
+    /**
+     * Returns the samples of the workout, no matter if they are stored as rows or as {@link GpsTrack}
+     */
+    default GpsSample[] getAllSamplesOfWorkout(long workout_id) {
+        GpsTrack track = getTrack(workout_id);
+        return track != null ? track.toSamples() : getSampleRowsOfWorkout(workout_id);
+    }
+
+    /**
+     * Returns the samples of the workout as columns. Compacted workouts are decoded without
+     * creating a sample object per point.
+     */
+    default GpsTrackColumns getTrackColumns(long workout_id) {
+        GpsTrack track = getTrack(workout_id);
+        return track != null ? track.getColumns() : GpsTrackColumns.fromSamples(getSampleRowsOfWorkout(workout_id));
+    }
 
     @Query("SELECT * FROM workout ORDER BY start DESC")
     GpsWorkout[] getWorkouts();
@@ -46,18 +67,27 @@ public interface GpsWorkoutDao {
     @Query("SELECT * FROM workout WHERE workoutType = :type ORDER BY start DESC LIMIT 1")
     GpsWorkout getLastWorkoutByType(String type);
 
+    @Query("SELECT workoutType AS typeId, MAX(start) AS lastStart FROM workout GROUP BY workoutType")
+    WorkoutTypeUsage[] getLastUsageByType();
+
     @Query("SELECT * FROM workout ORDER BY start ASC")
     GpsWorkout[] getAllWorkoutsHistorically();
 
     @Query("SELECT * FROM workout WHERE workoutType = :workout_type ORDER BY start ASC ")
     GpsWorkout[] getWorkoutsHistorically(String workout_type);
 
+    @Query("SELECT * FROM workout WHERE workoutType = :workout_type AND start >= :from AND start < :to")
+    GpsWorkout[] getWorkoutsOfTypeInRange(String workout_type, long from, long to);
+
     @Query("SELECT * FROM workout WHERE start = :start")
     GpsWorkout getWorkoutByStart(long start);
 
     @Query("SELECT * FROM workout WHERE id = :id")
     GpsWorkout getWorkoutById(long id);
 
+    @Query("SELECT id FROM workout")
+    List<Long> getWorkoutIds();
+
     @Query("SELECT * FROM workout_sample")
     GpsSample[] getSamples();
 
@@ -79,6 +109,12 @@ public interface GpsWorkoutDao {
     @Insert
     void insertSample(GpsSample sample);
 
+    @Insert
+    void insertSamples(GpsSample[] samples);
+
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertSamplesIfAbsent(GpsSample[] samples);
+
     @Delete
     void deleteSample(GpsSample sample);
 
@@ -87,4 +123,54 @@ public interface GpsWorkoutDao {
 
     @Update
     void updateSample(GpsSample sample);
+
+    @Query("DELETE FROM workout_sample WHERE workout_id = :workout_id")
+    void deleteSampleRowsOfWorkout(long workout_id);
+
+    @Query("DELETE FROM workout_sample WHERE workout_id NOT IN (SELECT id FROM workout)")
+    void deleteOrphanedSamples();
+
+    @Query("SELECT * FROM workout_track WHERE workout_id = :workout_id")
+    GpsTrack getTrack(long workout_id);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertTrack(GpsTrack track);
+
+    @Query("DELETE FROM workout_track WHERE workout_id = :workout_id")
+    void deleteTrack(long workout_id);
+
+    @Query("SELECT id FROM workout WHERE `end` != -1 AND id IN (SELECT workout_id FROM workout_sample)")
+    List<Long> getCompactableWorkoutIds();
+
+    @Query("SELECT workout_id FROM workout_track")
+    List<Long> getCompactedWorkoutIds();
+
+    /**
+     * Moves the sample rows of a finished workout into a {@link GpsTrack}. If the workout already
+     * has a track, e.g. because it was resumed, the rows are merged into it.
+     */
+    @Transaction
+    default void compactSamples(long workout_id) {
+        GpsSample[] rows = getSampleRowsOfWorkout(workout_id);
+        if (rows.length == 0) {
+            return;
+        }
+        GpsTrack track = getTrack(workout_id);
+        GpsSample[] samples = track != null ? GpsTrack.merge(track.toSamples(), rows) : rows;
+        insertTrack(new GpsTrack(workout_id, samples));
+        deleteSampleRowsOfWorkout(workout_id);
+    }
+
+    /**
+     * Restores the sample rows of a compacted workout, has to be called before samples are updated or deleted
+     */
+    @Transaction
+    default void expandSamples(long workout_id) {
+        GpsTrack track = getTrack(workout_id);
+        if (track == null) {
+            return;
+        }
+        insertSamplesIfAbsent(track.toSamples());
+        deleteTrack(workout_id);
+    }
 }
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Heart rate variability of a workout, calculated while recording from the
+ * {@link RrIntervalBatch RR intervals}
+ */
+@Entity(tableName = "heart_rate_variability")
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HeartRateVariability {
+
+    /**
+     * Id of the gps or indoor workout
+     */
+    @PrimaryKey
+    @ColumnInfo(name = "workout_id")
+    public long workoutId;
+
+    /**
+     * Number of all received intervals
+     */
+    @ColumnInfo(name = "beat_count")
+    public int beatCount;
+
+    /**
+     * Number of intervals that were ignored as artifacts
+     */
+    @ColumnInfo(name = "artifact_count")
+    public int artifactCount;
+
+    /**
+     * Mean of the accepted intervals in ms
+     */
+    @ColumnInfo(name = "mean_interval")
+    public double meanInterval;
+
+    /**
+     * Standard deviation of the accepted intervals in ms
+     */
+    public double sdnn;
+
+    /**
+     * Root mean square of successive differences of accepted intervals in ms
+     */
+    public double rmssd;
+
+    @JsonIgnore
+    public double getArtifactRatio() {
+        return beatCount > 0 ? (double) artifactCount / beatCount : 0;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+@Dao
+public interface HeartRateVariabilityDao {
+
+    @Query("SELECT * FROM heart_rate_variability WHERE workout_id = :workoutId")
+    HeartRateVariability getHeartRateVariability(long workoutId);
+
+    @Query("SELECT * FROM heart_rate_variability")
+    HeartRateVariability[] getHeartRateVariabilities();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertHeartRateVariability(HeartRateVariability variability);
+
+    @Query("SELECT * FROM rr_interval_batch WHERE workout_id = :workoutId ORDER BY id ASC")
+    RrIntervalBatch[] getBatches(long workoutId);
+
+    @Insert
+    void insertBatch(RrIntervalBatch batch);
+
+    @Query("UPDATE rr_interval_batch SET workout_id = :newWorkoutId WHERE workout_id = :oldWorkoutId")
+    void moveBatches(long oldWorkoutId, long newWorkoutId);
+
+    @Query("DELETE FROM rr_interval_batch WHERE workout_id = :workoutId")
+    void deleteBatches(long workoutId);
+
+    @Query("DELETE FROM heart_rate_variability WHERE workout_id = :workoutId")
+    void deleteHeartRateVariability(long workoutId);
+
+    /**
+     * Has to be called when the workout is deleted, there is no foreign key to cascade
+     */
+    @Transaction
+    default void deleteAllOfWorkout(long workoutId) {
+        deleteBatches(workoutId);
+        deleteHeartRateVariability(workoutId);
+    }
+
+}
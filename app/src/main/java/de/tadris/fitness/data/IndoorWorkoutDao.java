@@ -22,9 +22,12 @@ package de.tadris.fitness.data;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
 import androidx.room.Update;
 
+import java.util.List;
+
 @Dao
 public interface IndoorWorkoutDao {
 
@@ -46,18 +49,27 @@ public interface IndoorWorkoutDao {
     @Query("SELECT * FROM indoor_workout WHERE workoutType = :type ORDER BY start DESC LIMIT 1")
     IndoorWorkout getLastWorkoutByType(String type);
 
+    @Query("SELECT workoutType AS typeId, MAX(start) AS lastStart FROM indoor_workout GROUP BY workoutType")
+    WorkoutTypeUsage[] getLastUsageByType();
+
     @Query("SELECT * FROM indoor_workout ORDER BY start ASC")
     IndoorWorkout[] getAllWorkoutsHistorically();
 
     @Query("SELECT * FROM indoor_workout WHERE workoutType = :workout_type ORDER BY start ASC ")
     IndoorWorkout[] getWorkoutsHistorically(String workout_type);
 
+    @Query("SELECT * FROM indoor_workout WHERE workoutType = :workout_type AND start >= :from AND start < :to")
+    IndoorWorkout[] getWorkoutsOfTypeInRange(String workout_type, long from, long to);
+
     @Query("SELECT * FROM indoor_workout WHERE start = :start")
     IndoorWorkout getWorkoutByStart(long start);
 
     @Query("SELECT * FROM indoor_workout WHERE id = :id")
     IndoorWorkout getWorkoutById(long id);
 
+    @Query("SELECT id FROM indoor_workout")
+    List<Long> getWorkoutIds();
+
     @Query("SELECT * FROM indoor_sample")
     IndoorSample[] getSamples();
 
@@ -79,9 +91,15 @@ public interface IndoorWorkoutDao {
     @Insert
     void insertSample(IndoorSample sample);
 
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    void insertSamplesIfAbsent(IndoorSample[] samples);
+
     @Delete
     void deleteSample(IndoorSample sample);
 
+    @Query("DELETE FROM indoor_sample WHERE workout_id NOT IN (SELECT id FROM indoor_workout)")
+    void deleteOrphanedSamples();
+
     @Update
     void updateSamples(IndoorSample[] samples);
 
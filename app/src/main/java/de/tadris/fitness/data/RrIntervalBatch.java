@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.data;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A batch of beat-to-beat (RR) intervals from a heart rate sensor, as recorded during a workout.
+ * The intervals are stored as zigzag varints of the difference to the previous interval, most of
+ * them fit into one byte.
+ */
+@Entity(tableName = "rr_interval_batch", indices = @Index("workout_id"))
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class RrIntervalBatch {
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    /**
+     * Id of the gps or indoor workout
+     */
+    @ColumnInfo(name = "workout_id")
+    public long workoutId;
+
+    /**
+     * Time the first interval of the batch was received
+     */
+    @ColumnInfo(name = "start_time")
+    public long startTime;
+
+    @ColumnInfo(name = "interval_count")
+    public int intervalCount;
+
+    /**
+     * Encoded intervals in milliseconds, see {@link #encode(int[], int)}
+     */
+    @JsonProperty("intervals")
+    public byte[] intervals;
+
+    public RrIntervalBatch() {
+    }
+
+    @Ignore
+    public RrIntervalBatch(long workoutId, long startTime, int[] intervals, int count) {
+        this.workoutId = workoutId;
+        this.startTime = startTime;
+        this.intervalCount = count;
+        this.intervals = encode(intervals, count);
+    }
+
+    @JsonIgnore
+    public int[] getIntervals() {
+        return decode(intervals, intervalCount);
+    }
+
+    public static byte[] encode(int[] intervals, int count) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(count + count / 2);
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int difference = intervals[i] - previous;
+            int value = (difference << 1) ^ (difference >> 31); // zigzag
+            while ((value & ~0x7F) != 0) {
+                output.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            output.write(value);
+            previous = intervals[i];
+        }
+        return output.toByteArray();
+    }
+
+    public static int[] decode(byte[] data, int count) {
+        int[] intervals = new int[count];
+        int position = 0;
+        int previous = 0;
+        for (int i = 0; i < count; i++) {
+            int value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            previous += (value >>> 1) ^ -(value & 1);
+            intervals[i] = previous;
+        }
+        return intervals;
+    }
+}
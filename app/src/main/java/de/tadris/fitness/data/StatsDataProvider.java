@@ -81,7 +81,7 @@ public class StatsDataProvider {
         return data;
     }
 
-    private double getPropertyValue(WorkoutProperty property, BaseWorkout workout) throws Exception {
+    static double getPropertyValue(WorkoutProperty property, BaseWorkout workout) throws Exception {
         switch (property.getType()) {
             case BASE:
                 return getBasePropertyValue(property, workout);
@@ -94,7 +94,7 @@ public class StatsDataProvider {
         }
     }
 
-    private double getBasePropertyValue(WorkoutProperty property, BaseWorkout workout) throws Exception {
+    private static double getBasePropertyValue(WorkoutProperty property, BaseWorkout workout) throws Exception {
         switch (property) {
             case NUMBER:
                 return 1;
@@ -117,7 +117,7 @@ public class StatsDataProvider {
         }
     }
 
-    private double getGPSPropertyValue(WorkoutProperty property, GpsWorkout workout) throws Exception {
+    private static double getGPSPropertyValue(WorkoutProperty property, GpsWorkout workout) throws Exception {
         switch (property) {
             case LENGTH:
                 return workout.length;
@@ -136,7 +136,7 @@ public class StatsDataProvider {
         }
     }
 
-    private double getIndoorPropertyValue(WorkoutProperty property, IndoorWorkout workout) throws Exception {
+    private static double getIndoorPropertyValue(WorkoutProperty property, IndoorWorkout workout) throws Exception {
         switch (property) {
             case AVG_FREQUENCY:
                 return workout.avgFrequency;
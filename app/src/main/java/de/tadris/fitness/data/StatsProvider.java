@@ -36,11 +36,8 @@ import com.github.mikephil.charting.data.LineDataSet;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Calendar;
 import java.util.Collections;
-import java.util.GregorianCalendar;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
@@ -55,10 +52,12 @@ import de.tadris.fitness.util.exceptions.NoDataException;
 public class StatsProvider {
     Context ctx;
     StatsDataProvider dataProvider;
+    StatsRollupManager rollupManager;
 
     public StatsProvider(Context ctx) {
         this.ctx = ctx;
         dataProvider = new StatsDataProvider(ctx);
+        rollupManager = new StatsRollupManager(ctx);
     }
 
     public enum Reduction {
@@ -238,24 +237,19 @@ public class StatsProvider {
             return new TimeFormatter(unit, true, true, false);
     }
 
-    private ArrayList<StatsDataTypes.DataPoint> findDataPointsInAggregationSpan(ArrayList<StatsDataTypes.DataPoint> data, Calendar startTime, AggregationSpan span) {
-        // Retrieve the workoutProperty for all workouts in the specific time span
-        StatsDataTypes.TimeSpan timeSpan = new StatsDataTypes.TimeSpan(startTime.getTimeInMillis(), span.getAggregationEnd(startTime).getTimeInMillis());
-        ArrayList<StatsDataTypes.DataPoint> intervalData = new ArrayList<>();
-
-        // Create list of data points belonging to the same time span
-        Iterator<StatsDataTypes.DataPoint> dataPointIterator = data.iterator();
-        while (dataPointIterator.hasNext()) {
-            StatsDataTypes.DataPoint dataPoint = dataPointIterator.next();
-            if (timeSpan.contains(dataPoint.time)) {
-                intervalData.add(dataPoint);
-                data.remove(dataPointIterator);
+    public ArrayList<CandleEntry> getCombinedCandleData(AggregationSpan span, List<WorkoutType> workoutTypes, WorkoutProperty workoutProperty) throws NoDataException {
+        if (StatsRollupManager.supports(span)) {
+            ArrayList<CandleEntry> candleEntries = new ArrayList<>();
+            for (StatsRollup rollup : rollupManager.getCombinedRollups(span, workoutProperty, workoutTypes)) {
+                float mean = (float) rollup.getMean();
+                candleEntries.add(new CandleEntry((float) rollup.bucketStart, (float) rollup.max, (float) rollup.min, mean, mean));
+            }
+            if (candleEntries.isEmpty()) {
+                throw new NoDataException();
             }
+            return candleEntries;
         }
-        return intervalData;
-    }
 
-    public ArrayList<CandleEntry> getCombinedCandleData(AggregationSpan span, List<WorkoutType> workoutTypes, WorkoutProperty workoutProperty) throws NoDataException {
         ArrayList<StatsDataTypes.DataPoint> data = dataProvider.getData(workoutProperty,
                 workoutTypes);
 
@@ -270,50 +264,27 @@ public class StatsProvider {
             }
         }
 
+        // No aggregation, all other spans are served by the rollups
         ArrayList<CandleEntry> candleEntries = new ArrayList<>();
-
-        if (span == AggregationSpan.SINGLE) {
-            // No aggregation
-            for (StatsDataTypes.DataPoint dataPoint : data) {
-                float value = (float) dataPoint.value;
-                candleEntries.add(new CandleEntry((float) dataPoint.time, value, value, value, value, dataPoint));
-            }
-        } else {
-            // Find start and end time of workouts
-            long oldestWorkoutTime = Collections.min(data, StatsDataTypes.DataPoint.timeComparator).time;
-            long newestWorkoutTime = Collections.max(data, StatsDataTypes.DataPoint.timeComparator).time;
-
-            GregorianCalendar calendar = new GregorianCalendar();
-            calendar.setTimeInMillis(oldestWorkoutTime);
-
-            span.setCalendarToAggregationStart(calendar);
-
-
-            // Iterate all time spans from first workout time to last workout time
-            while (calendar.getTimeInMillis() < newestWorkoutTime) {
-                ArrayList<StatsDataTypes.DataPoint> intervalData = findDataPointsInAggregationSpan(data, calendar, span);
-
-                // Calculate min, max and average of the data of the span and store in the candle list
-                if (intervalData.size() > 0) {
-                    float min = (float) Collections.min(intervalData, StatsDataTypes.DataPoint.valueComparator).value;
-                    float max = (float) Collections.max(intervalData, StatsDataTypes.DataPoint.valueComparator).value;
-                    float mean = calculateValueAverage(intervalData);
-                    candleEntries.add(new CandleEntry((float) calendar.getTimeInMillis(), max, min, mean, mean));
-                }
-
-                // Increment time span
-                if (span != AggregationSpan.ALL) {
-                    calendar.add(span.calendarField, 1);
-                } else  {
-                    calendar.setTimeInMillis(Long.MAX_VALUE);
-                }
-            }
+        for (StatsDataTypes.DataPoint dataPoint : data) {
+            float value = (float) dataPoint.value;
+            candleEntries.add(new CandleEntry((float) dataPoint.time, value, value, value, value, dataPoint));
         }
-
         return candleEntries;
     }
 
     public ArrayList<BarEntry> getCombinedSumData(AggregationSpan span, List<WorkoutType> workoutTypes, WorkoutProperty workoutProperty) throws NoDataException {
+        if (StatsRollupManager.supports(span)) {
+            ArrayList<BarEntry> barEntries = new ArrayList<>();
+            for (StatsRollup rollup : rollupManager.getCombinedRollups(span, workoutProperty, workoutTypes)) {
+                barEntries.add(new BarEntry((float) rollup.bucketStart, (float) rollup.sum));
+            }
+            if (barEntries.isEmpty()) {
+                throw new NoDataException();
+            }
+            return barEntries;
+        }
+
         ArrayList<StatsDataTypes.DataPoint> data = dataProvider.getData(workoutProperty,
                 workoutTypes);
 
@@ -321,43 +292,12 @@ public class StatsProvider {
             throw new NoDataException();
         }
 
+        // No aggregation, all other spans are served by the rollups
         ArrayList<BarEntry> barEntries = new ArrayList<>();
-
-        if (span == AggregationSpan.SINGLE) {
-            // No aggregation
-            for (StatsDataTypes.DataPoint dataPoint : data) {
-                float value = (float) dataPoint.value;
-                barEntries.add(new BarEntry((float) dataPoint.time, value));
-            }
-        } else {
-            // Find start and end time of workouts
-            long oldestWorkoutTime = Collections.min(data, StatsDataTypes.DataPoint.timeComparator).time;
-            long newestWorkoutTime = Collections.max(data, StatsDataTypes.DataPoint.timeComparator).time;
-
-            // Find start time of aggregation span
-            GregorianCalendar calendar = new GregorianCalendar();
-            calendar.setTimeInMillis(oldestWorkoutTime);
-            span.setCalendarToAggregationStart(calendar);
-
-            // Iterate all time spans from first workout time to last workout time
-            while (calendar.getTimeInMillis() < newestWorkoutTime) {
-                ArrayList<StatsDataTypes.DataPoint> intervalData = findDataPointsInAggregationSpan(data, calendar, span);
-
-                // Calculate the sum of the data from the span and store in the bar list
-                if (intervalData.size() > 0) {
-                    float sum = calculateValueSum(intervalData);
-                    barEntries.add(new BarEntry((float) calendar.getTimeInMillis(), sum));
-                }
-
-                // Increment time span
-                if (span != AggregationSpan.ALL) {
-                    calendar.add(span.calendarField, 1);
-                } else  {
-                    calendar.setTimeInMillis(Long.MAX_VALUE);
-                }
-            }
+        for (StatsDataTypes.DataPoint dataPoint : data) {
+            float value = (float) dataPoint.value;
+            barEntries.add(new BarEntry((float) dataPoint.time, value));
         }
-
         return barEntries;
     }
 
@@ -407,22 +347,6 @@ public class StatsProvider {
         return dataSet;
     }
 
-    private float calculateValueAverage(ArrayList<StatsDataTypes.DataPoint> marks) {
-        float average = 0f;
-        if (!marks.isEmpty()) {
-            average = calculateValueSum(marks) / marks.size();
-        }
-        return average;
-    }
-
-    private float calculateValueSum(ArrayList<StatsDataTypes.DataPoint> marks) {
-        float sum = 0f;
-        for (StatsDataTypes.DataPoint mark : marks) {
-            sum += mark.value;
-        }
-        return sum;
-    }
-
     public void setAxisLimits(AxisBase axis, WorkoutProperty property) {
         try {
             axis.setAxisMinimum(dataProvider.getFirstData(
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.data;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+
+/**
+ * Pre-aggregated value of a {@link de.tadris.fitness.util.WorkoutProperty} for all workouts of
+ * one type inside one {@link de.tadris.fitness.aggregation.AggregationSpan} bucket.
+ *
+ * @see StatsRollupManager
+ */
+@Entity(tableName = "stats_rollup", primaryKeys = {"workout_type", "span", "bucket_start", "property"})
+public class StatsRollup {
+
+    /**
+     * Raw workout type id as stored in the workout
+     *
+     * @see BaseWorkout#workoutTypeId
+     */
+    @NonNull
+    @ColumnInfo(name = "workout_type")
+    public String workoutTypeId = "";
+
+    /**
+     * @see de.tadris.fitness.aggregation.AggregationSpan#toInt()
+     */
+    public int span;
+
+    /**
+     * Start timestamp of the aggregation span bucket
+     */
+    @ColumnInfo(name = "bucket_start")
+    public long bucketStart;
+
+    /**
+     * @see de.tadris.fitness.util.WorkoutProperty#getId()
+     */
+    public int property;
+
+    @ColumnInfo(name = "value_count")
+    public int count;
+
+    @ColumnInfo(name = "value_sum")
+    public double sum;
+
+    @ColumnInfo(name = "value_min")
+    public double min;
+
+    @ColumnInfo(name = "value_max")
+    public double max;
+
+    public StatsRollup() {
+    }
+
+    @Ignore
+    public StatsRollup(@NonNull String workoutTypeId, int span, long bucketStart, int property) {
+        this.workoutTypeId = workoutTypeId;
+        this.span = span;
+        this.bucketStart = bucketStart;
+        this.property = property;
+    }
+
+    public void add(double value) {
+        if (count == 0) {
+            min = value;
+            max = value;
+        } else {
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        sum += value;
+        count++;
+    }
+
+    public void merge(StatsRollup other) {
+        if (other.count == 0) return;
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        sum += other.sum;
+        count += other.count;
+    }
+
+    public double getMean() {
+        return count > 0 ? sum / count : 0;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.data;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+@Dao
+public interface StatsRollupDao {
+
+    @Query("SELECT * FROM stats_rollup WHERE span = :span AND property = :property ORDER BY bucket_start ASC")
+    StatsRollup[] getRollups(int span, int property);
+
+    @Query("SELECT * FROM stats_rollup WHERE workout_type = :type AND span = :span AND bucket_start >= :from AND bucket_start < :to")
+    StatsRollup[] getRollupsOfTypeInRange(String type, int span, long from, long to);
+
+    @Query("DELETE FROM stats_rollup WHERE workout_type = :type AND span = :span AND bucket_start = :bucketStart")
+    void deleteBucket(String type, int span, long bucketStart);
+
+    @Query("DELETE FROM stats_rollup")
+    void deleteAll();
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insert(StatsRollup[] rollups);
+
+}
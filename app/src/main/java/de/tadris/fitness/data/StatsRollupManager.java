@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.data;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import de.tadris.fitness.Instance;
+import de.tadris.fitness.aggregation.AggregationSpan;
+import de.tadris.fitness.data.preferences.UserPreferences;
+import de.tadris.fitness.util.WorkoutProperty;
+
+/**
+ * Maintains the {@link StatsRollup} table so the statistics charts don't have to rescan the
+ * whole workout history.
+ * <p>
+ * Day buckets are calculated from the workouts of that day, all coarser spans are folded from the
+ * next finer rollups (week and month from days, year from months, all from years). Refreshing a
+ * single workout therefore only reads a handful of rows. START and END are stored as time of the
+ * day, like the candle charts display them.
+ */
+public class StatsRollupManager {
+
+    private static final List<AggregationSpan> ROLLUP_SPANS = Arrays.asList(
+            AggregationSpan.DAY,
+            AggregationSpan.WEEK,
+            AggregationSpan.MONTH,
+            AggregationSpan.YEAR,
+            AggregationSpan.ALL);
+
+    private final Context context;
+    private final AppDatabase db;
+    private final UserPreferences preferences;
+
+    public StatsRollupManager(Context context) {
+        this(context, Instance.getInstance(context).db);
+    }
+
+    public StatsRollupManager(Context context, AppDatabase db) {
+        this.context = context;
+        this.db = db;
+        this.preferences = Instance.getInstance(context).userPreferences;
+    }
+
+    public static boolean supports(AggregationSpan span) {
+        return ROLLUP_SPANS.contains(span);
+    }
+
+    /**
+     * Returns the rollups of all given workout types combined per bucket, ordered by bucket start.
+     */
+    public List<StatsRollup> getCombinedRollups(AggregationSpan span, WorkoutProperty property, List<WorkoutType> workoutTypes) {
+        ensureBuilt();
+
+        // Unknown type ids are resolved to 'other' by the WorkoutTypeManager, so match resolved types
+        Map<String, Boolean> typeIncluded = new HashMap<>();
+        TreeMap<Long, StatsRollup> combined = new TreeMap<>();
+        for (StatsRollup rollup : db.statsRollupDao().getRollups(span.toInt(), property.getId())) {
+            Boolean included = typeIncluded.get(rollup.workoutTypeId);
+            if (included == null) {
+                WorkoutType type = WorkoutTypeManager.getInstance().getWorkoutTypeById(context, rollup.workoutTypeId);
+                included = workoutTypes.contains(type);
+                typeIncluded.put(rollup.workoutTypeId, included);
+            }
+            if (!included) continue;
+
+            StatsRollup bucket = combined.get(rollup.bucketStart);
+            if (bucket == null) {
+                bucket = new StatsRollup("", rollup.span, rollup.bucketStart, rollup.property);
+                combined.put(rollup.bucketStart, bucket);
+            }
+            bucket.merge(rollup);
+        }
+        return new ArrayList<>(combined.values());
+    }
+
+    public void onWorkoutChanged(BaseWorkout workout) {
+        onWorkoutChanged(getTypeId(workout), workout.start, workout);
+    }
+
+    /**
+     * Has to be called after a workout was inserted, updated or deleted in the database.
+     *
+     * @param previousTypeId type id the workout had before the change
+     * @param previousStart  start time the workout had before the change
+     */
+    public void onWorkoutChanged(String previousTypeId, long previousStart, BaseWorkout workout) {
+        // The last usage of the types might have changed as well
+        WorkoutTypeManager.getInstance().notifyWorkoutsChanged();
+        if (!isBuilt()) {
+            // Will be built completely on next access
+            return;
+        }
+        db.runInTransaction(() -> {
+            refresh(previousTypeId, previousStart);
+            if (!getTypeId(workout).equals(previousTypeId) || workout.start != previousStart) {
+                refresh(getTypeId(workout), workout.start);
+            }
+        });
+    }
+
+    public void rebuild() {
+        WorkoutTypeManager.getInstance().notifyWorkoutsChanged();
+        db.runInTransaction(() -> {
+            db.statsRollupDao().deleteAll();
+
+            Map<String, StatsRollup> rollups = new HashMap<>();
+            Calendar calendar = new GregorianCalendar();
+            for (BaseWorkout workout : db.getAllWorkouts()) {
+                for (AggregationSpan span : ROLLUP_SPANS) {
+                    addWorkout(rollups, workout, span, getBucketStart(calendar, span, workout.start));
+                }
+            }
+            db.statsRollupDao().insert(rollups.values().toArray(new StatsRollup[0]));
+        });
+        preferences.setStatisticsRollupState(getState());
+    }
+
+    private void ensureBuilt() {
+        if (!isBuilt()) {
+            rebuild();
+        }
+    }
+
+    private boolean isBuilt() {
+        return preferences.getStatisticsRollupState().equals(getState());
+    }
+
+    /**
+     * Bucket boundaries depend on the time zone and the first day of the week
+     */
+    private String getState() {
+        return TimeZone.getDefault().getID() + "/" + new GregorianCalendar().getFirstDayOfWeek();
+    }
+
+    private void refresh(String typeId, long time) {
+        Calendar calendar = new GregorianCalendar();
+        long dayStart = getBucketStart(calendar, AggregationSpan.DAY, time);
+        long dayEnd = AggregationSpan.DAY.getAggregationEnd(calendar).getTimeInMillis();
+
+        Map<String, StatsRollup> dayRollups = new HashMap<>();
+        for (BaseWorkout workout : getWorkoutsInRange(typeId, dayStart, dayEnd)) {
+            addWorkout(dayRollups, workout, AggregationSpan.DAY, dayStart);
+        }
+        replaceBucket(typeId, AggregationSpan.DAY, dayStart, dayRollups.values());
+
+        foldBucket(calendar, typeId, AggregationSpan.WEEK, AggregationSpan.DAY, time);
+        foldBucket(calendar, typeId, AggregationSpan.MONTH, AggregationSpan.DAY, time);
+        foldBucket(calendar, typeId, AggregationSpan.YEAR, AggregationSpan.MONTH, time);
+        foldBucket(calendar, typeId, AggregationSpan.ALL, AggregationSpan.YEAR, time);
+    }
+
+    private void foldBucket(Calendar calendar, String typeId, AggregationSpan span, AggregationSpan source, long time) {
+        long bucketStart = getBucketStart(calendar, span, time);
+        long bucketEnd = span.getAggregationEnd(calendar).getTimeInMillis();
+
+        Map<Integer, StatsRollup> folded = new HashMap<>();
+        for (StatsRollup rollup : db.statsRollupDao().getRollupsOfTypeInRange(typeId, source.toInt(), bucketStart, bucketEnd)) {
+            StatsRollup target = folded.get(rollup.property);
+            if (target == null) {
+                target = new StatsRollup(typeId, span.toInt(), bucketStart, rollup.property);
+                folded.put(rollup.property, target);
+            }
+            target.merge(rollup);
+        }
+        replaceBucket(typeId, span, bucketStart, folded.values());
+    }
+
+    private void replaceBucket(String typeId, AggregationSpan span, long bucketStart, Iterable<StatsRollup> rollups) {
+        db.statsRollupDao().deleteBucket(typeId, span.toInt(), bucketStart);
+        List<StatsRollup> list = new ArrayList<>();
+        for (StatsRollup rollup : rollups) {
+            list.add(rollup);
+        }
+        db.statsRollupDao().insert(list.toArray(new StatsRollup[0]));
+    }
+
+    private List<BaseWorkout> getWorkoutsInRange(String typeId, long from, long to) {
+        List<BaseWorkout> workouts = new ArrayList<>();
+        workouts.addAll(Arrays.asList(db.gpsWorkoutDao().getWorkoutsOfTypeInRange(typeId, from, to)));
+        workouts.addAll(Arrays.asList(db.indoorWorkoutDao().getWorkoutsOfTypeInRange(typeId, from, to)));
+        return workouts;
+    }
+
+    private void addWorkout(Map<String, StatsRollup> rollups, BaseWorkout workout, AggregationSpan span, long bucketStart) {
+        String typeId = getTypeId(workout);
+        for (WorkoutProperty property : WorkoutProperty.values()) {
+            if (!property.getType().canBeApplied(workout)) continue;
+            double value;
+            try {
+                value = StatsDataProvider.getPropertyValue(property, workout);
+            } catch (Exception e) {
+                // This should never happen, cause it is checked by the if clause above
+                e.printStackTrace();
+                continue;
+            }
+            if (property == WorkoutProperty.START || property == WorkoutProperty.END) {
+                value %= TimeUnit.DAYS.toMillis(1); // day->milliseconds
+            }
+
+            String key = typeId + "/" + span.toInt() + "/" + bucketStart + "/" + property.getId();
+            StatsRollup rollup = rollups.get(key);
+            if (rollup == null) {
+                rollup = new StatsRollup(typeId, span.toInt(), bucketStart, property.getId());
+                rollups.put(key, rollup);
+            }
+            rollup.add(value);
+        }
+    }
+
+    private static long getBucketStart(Calendar calendar, AggregationSpan span, long time) {
+        calendar.setTimeInMillis(time);
+        span.setCalendarToAggregationStart(calendar);
+        return calendar.getTimeInMillis();
+    }
+
+    private static String getTypeId(BaseWorkout workout) {
+        return workout.workoutTypeId != null ? workout.workoutTypeId : WorkoutTypeManager.WORKOUT_TYPE_ID_OTHER;
+    }
+}
@@ -40,6 +40,8 @@ public class WorkoutBuilder {
 
     private GpsWorkout existingWorkout;
     private boolean fromExistingWorkout = false;
+    private String existingTypeId;
+    private long existingStart;
 
     private boolean wasEdited = false;
 
@@ -102,10 +104,12 @@ public class WorkoutBuilder {
 
     private void updateWorkout(Context context, GpsWorkout workout) {
         Instance.getInstance(context).db.gpsWorkoutDao().updateWorkout(workout);
+        new StatsRollupManager(context).onWorkoutChanged(existingTypeId, existingStart, workout);
     }
 
     private void insertWorkout(Context context, GpsWorkout workout) {
         Instance.getInstance(context).db.gpsWorkoutDao().insertWorkout(workout);
+        new StatsRollupManager(context).onWorkoutChanged(workout);
     }
 
     public WorkoutType getWorkoutType() {
@@ -160,6 +164,8 @@ public class WorkoutBuilder {
         WorkoutBuilder builder = new WorkoutBuilder(context);
         builder.fromExistingWorkout = true;
         builder.existingWorkout = workout;
+        builder.existingTypeId = workout.workoutTypeId;
+        builder.existingStart = workout.start;
         builder.wasEdited = workout.edited;
         builder.workoutType = workout.getWorkoutType(context);
         builder.start.setTimeInMillis(workout.start);
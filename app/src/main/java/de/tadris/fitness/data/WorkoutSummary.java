@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.data;
+
+import android.content.Context;
+
+import androidx.room.ColumnInfo;
+
+import java.util.Objects;
+
+/**
+ * Lightweight projection of a gps or indoor workout that contains only what is needed to show it
+ * in the workout list.
+ */
+public class WorkoutSummary {
+
+    public long id;
+
+    public long start;
+
+    public long duration;
+
+    public String comment;
+
+    @ColumnInfo(name = "workoutType")
+    public String workoutTypeId;
+
+    /**
+     * Length in meters, only set for gps workouts
+     */
+    public int length;
+
+    /**
+     * Only set for indoor workouts
+     */
+    public int repetitions;
+
+    /**
+     * true if this summarizes a {@link GpsWorkout}, false for an {@link IndoorWorkout}
+     */
+    public boolean gps;
+
+    public WorkoutType getWorkoutType(Context context) {
+        return WorkoutTypeManager.getInstance().getWorkoutTypeById(context, workoutTypeId);
+    }
+
+    public boolean isSameWorkout(WorkoutSummary other) {
+        return id == other.id && gps == other.gps;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WorkoutSummary that = (WorkoutSummary) o;
+        return id == that.id && start == that.start && duration == that.duration &&
+                length == that.length && repetitions == that.repetitions && gps == that.gps &&
+                Objects.equals(comment, that.comment) && Objects.equals(workoutTypeId, that.workoutTypeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, start, duration, comment, workoutTypeId, length, repetitions, gps);
+    }
+}
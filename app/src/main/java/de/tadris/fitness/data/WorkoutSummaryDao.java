@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.data;
+
+import androidx.annotation.Nullable;
+import androidx.paging.PagingSource;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+@Dao
+public interface WorkoutSummaryDao {
+
+    String SUMMARY_QUERY = "SELECT id, start, duration, comment, workoutType, length, 0 AS repetitions, 1 AS gps FROM workout " +
+            "UNION ALL " +
+            "SELECT id, start, duration, comment, workoutType, 0 AS length, repetitions, 0 AS gps FROM indoor_workout " +
+            "ORDER BY start DESC";
+
+    /**
+     * Pages through the summaries of all gps and indoor workouts, newest first. The source is
+     * invalidated whenever one of the workout tables changes.
+     */
+    @Query(SUMMARY_QUERY)
+    PagingSource<Integer, WorkoutSummary> getWorkoutSummaries();
+
+    @Nullable
+    @Query(SUMMARY_QUERY + " LIMIT 1")
+    WorkoutSummary getLatestWorkoutSummary();
+
+}
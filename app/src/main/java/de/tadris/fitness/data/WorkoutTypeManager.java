@@ -24,7 +24,10 @@ import android.content.Context;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
@@ -48,7 +51,15 @@ public class WorkoutTypeManager {
     public static final String WORKOUT_TYPE_ID_PUSH_UPS = "push-ups";
     public static final String WORKOUT_TYPE_ID_PULL_UPS = "pull-ups";
 
-    private List<WorkoutType> allWorkoutTypes = new ArrayList<>();
+    private final List<WorkoutType> allWorkoutTypes = new ArrayList<>();
+    private final Map<String, WorkoutType> workoutTypesById = new HashMap<>();
+    // Registered from the UI, notified from worker threads as well
+    private final List<WorkoutTypeChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Cached start time of the last workout per type id, null if it has to be loaded
+     */
+    private Map<String, Long> lastUsageTimes;
 
     public String str;
     private static WorkoutTypeManager instance;
@@ -62,66 +73,91 @@ public class WorkoutTypeManager {
         return instance;
     }
 
-    public WorkoutType getWorkoutTypeById(Context context, String id) {
-        buildPresets(context);
-
-        WorkoutType retType = null;
-        for (WorkoutType type : allWorkoutTypes) {
-            if (type.id.equals(id)) {
-                retType = type;
-            }
-        }
+    /**
+     * Resolves a workout type without touching the database once the types are loaded.
+     * Unknown ids resolve to the 'other' type.
+     */
+    public synchronized WorkoutType getWorkoutTypeById(Context context, String id) {
+        loadTypes(context);
 
+        WorkoutType retType = workoutTypesById.get(id);
         if (retType == null) {
-            List<WorkoutType> newTypes = checkForNewTypes(context);
-
-            for (WorkoutType type : newTypes) {
-                if (type.id.equals(id)) {
-                    retType = type;
-                }
-            }
+            retType = workoutTypesById.get(WORKOUT_TYPE_ID_OTHER); // Default to 'Other' type
         }
-
-        if (retType == null && !WORKOUT_TYPE_ID_OTHER.equals(id)) {
-            retType = getWorkoutTypeById(context, WORKOUT_TYPE_ID_OTHER); // Default to 'Other' type
-        }
-
         return retType;
     }
 
     public List<WorkoutType> getAllTypesSorted(Context context) {
         List<WorkoutType> list = getAllTypes(context);
-        AppDatabase db = Instance.getInstance(context).db;
-        Collections.sort(list, (o1, o2) -> -Long.compare(db.getLastWorkoutTimeByType(o1.id), db.getLastWorkoutTimeByType(o2.id)));
+        Map<String, Long> lastUsageTimes = getLastUsageTimes(context);
+        Collections.sort(list, (o1, o2) -> -Long.compare(getLastUsageTime(lastUsageTimes, o1), getLastUsageTime(lastUsageTimes, o2)));
 
         return list;
     }
 
-    public List<WorkoutType> getAllTypes(Context context) {
-        buildPresets(context);
-        checkForNewTypes(context);
+    public synchronized List<WorkoutType> getAllTypes(Context context) {
+        loadTypes(context);
         return new ArrayList<>(allWorkoutTypes); // Return clone to avoid tampering from outside...
     }
 
-    private List<WorkoutType> checkForNewTypes(Context context) {
-        WorkoutType[] fromDatabase = Instance.getInstance(context).db.workoutTypeDao().findAll();
-        List<String> existingIDs = new ArrayList<>();
-        for (WorkoutType existingType : allWorkoutTypes) {
-            existingIDs.add(existingType.id);
+    /**
+     * Has to be called after custom workout types were added, edited or removed.
+     * Drops all cached types and informs the registered listeners.
+     */
+    public void notifyWorkoutTypesChanged() {
+        synchronized (this) {
+            allWorkoutTypes.clear();
+            workoutTypesById.clear();
+            lastUsageTimes = null;
+        }
+        for (WorkoutTypeChangeListener listener : listeners) {
+            listener.onWorkoutTypesChanged();
+        }
+    }
+
+    /**
+     * Has to be called after workouts were added, edited or removed so the sort order of
+     * {@link #getAllTypesSorted(Context)} is recalculated.
+     */
+    public synchronized void notifyWorkoutsChanged() {
+        lastUsageTimes = null;
+    }
+
+    public void addChangeListener(WorkoutTypeChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(WorkoutTypeChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private synchronized Map<String, Long> getLastUsageTimes(Context context) {
+        if (lastUsageTimes == null) {
+            lastUsageTimes = Instance.getInstance(context).db.getLastWorkoutTimesByType();
         }
+        return lastUsageTimes;
+    }
 
-        List<WorkoutType> newTypes = new ArrayList<>();
-        for (WorkoutType typeFromDb : fromDatabase) {
-            if (!existingIDs.contains(typeFromDb.id)) {
-                newTypes.add(typeFromDb);
+    private static long getLastUsageTime(Map<String, Long> lastUsageTimes, WorkoutType type) {
+        Long time = lastUsageTimes.get(type.id);
+        return time != null ? time : 0;
+    }
+
+    private synchronized void loadTypes(Context context) {
+        if (allWorkoutTypes.size() > 0) return; // Don't load a second time
+        buildPresets(context);
+        for (WorkoutType type : allWorkoutTypes) {
+            workoutTypesById.put(type.id, type);
+        }
+        for (WorkoutType typeFromDb : Instance.getInstance(context).db.workoutTypeDao().findAll()) {
+            if (!workoutTypesById.containsKey(typeFromDb.id)) {
+                allWorkoutTypes.add(typeFromDb);
+                workoutTypesById.put(typeFromDb.id, typeFromDb);
             }
         }
-        allWorkoutTypes.addAll(newTypes);
-        return newTypes;
     }
 
     private void buildPresets(Context context) {
-        if (allWorkoutTypes.size() > 0) return; // Don't build a second time
         allWorkoutTypes.addAll(Arrays.asList(new WorkoutType(WORKOUT_TYPE_ID_RUNNING,
                 context.getString(R.string.workoutTypeRunning),
                 5,
@@ -213,4 +249,8 @@ public class WorkoutTypeManager {
                         R.plurals.workoutPullUp)));
     }
 
+    public interface WorkoutTypeChangeListener {
+        void onWorkoutTypesChanged();
+    }
+
 }
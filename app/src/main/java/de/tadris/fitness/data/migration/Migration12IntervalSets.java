@@ -63,6 +63,7 @@ public class Migration12IntervalSets extends Migration {
 
     public void migrateWorkout(GpsWorkout workout) {
         if (workout.intervalSetUsedId > 0) {
+            database.gpsWorkoutDao().expandSamples(workout.id);
             GpsWorkoutData workoutData = GpsWorkoutData.fromWorkout(context, workout);
             List<GpsSample> samples = new ArrayList<>(workoutData.getSamples());
             for (Pair<Long, Interval> pair : getIntervalSetTimesFromWorkout(workoutData)) {
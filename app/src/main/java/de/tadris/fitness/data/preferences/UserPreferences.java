@@ -54,6 +54,7 @@ public class UserPreferences {
     public static final String STEP_LENGTH = "stepLength";
     public static final String STATISTICS_AGGREGATION_SPAN = "statisticsAggregationSpan";
     public static final String STATISTICS_SELECTED_TYPES = "statisticsSelectedTypes";
+    private static final String STATISTICS_ROLLUP_STATE = "statisticsRollupState";
     public static final String VOICE_ANNOUNCEMENTS_INTERVAL_TIME = "spokenUpdateTimePeriod";
     public static final String VOICE_ANNOUNCEMENTS_INTERVAL_DISTANCE = "spokenUpdateDistancePeriod2";
 
@@ -254,6 +255,10 @@ public class UserPreferences {
         return preferences.getString("energyUnit", "kcal");
     }
 
+    public boolean getCompactTrackStorage() {
+        return preferences.getBoolean("compactTrackStorage", false);
+    }
+
     public boolean getShowOnLockScreen() {
         return preferences.getBoolean("showOnLockScreen", false);
     }
@@ -509,6 +514,20 @@ public class UserPreferences {
         }
         preferences.edit().putStringSet(STATISTICS_SELECTED_TYPES, typeIDs).apply();
     }
+
+    /**
+     * State (time zone and first day of week) the statistics rollups were built with
+     *
+     * @see de.tadris.fitness.data.StatsRollupManager
+     */
+    public String getStatisticsRollupState() {
+        return preferences.getString(STATISTICS_ROLLUP_STATE, "");
+    }
+
+    public void setStatisticsRollupState(String state) {
+        preferences.edit().putString(STATISTICS_ROLLUP_STATE, state).apply();
+    }
+
     public UserMeasurements getMeasurements() {
         return new UserMeasurements(
                 getUserWeight(),
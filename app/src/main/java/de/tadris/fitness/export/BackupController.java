@@ -21,8 +21,12 @@ package de.tadris.fitness.export;
 
 import android.content.Context;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -31,9 +35,13 @@ import java.util.List;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.xml.namespace.QName;
+
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.AppDatabase;
+import de.tadris.fitness.data.GpsWorkout;
+import de.tadris.fitness.data.IndoorWorkout;
 import de.tadris.fitness.data.Interval;
 import de.tadris.fitness.data.IntervalSet;
 
@@ -45,8 +53,7 @@ public class BackupController {
     private final File output;
     private final ExportStatusListener listener;
     private AppDatabase database;
-
-    private FitoTrackDataContainer dataContainer;
+    private XmlMapper mapper;
 
     public BackupController(Context context, File output, ExportStatusListener listener) {
         this.context = context;
@@ -54,75 +61,115 @@ public class BackupController {
         this.listener = listener;
     }
 
+    /**
+     * Writes the backup while reading it from the database. Samples are loaded workout by workout,
+     * so the memory needed doesn't grow with the size of the history.
+     * The output has the same structure as a serialized {@link FitoTrackDataContainer}.
+     */
     public void exportData() throws IOException {
         listener.onStatusChanged(0, context.getString(R.string.initialising));
         init();
-        listener.onStatusChanged(5, context.getString(R.string.workoutRecordingTypeGps));
-        saveGpsWorkoutsToContainer();
-        listener.onStatusChanged(20, context.getString(R.string.locationData));
-        saveGpsSamplesToContainer();
-        listener.onStatusChanged(40, context.getString(R.string.workoutRecordingTypeIndoor));
-        saveIndoorWorkoutsToContainer();
-        listener.onStatusChanged(45, context.getString(R.string.workoutRecordingTypeIndoor));
-        saveIndoorSamplesToContainer();
-        listener.onStatusChanged(50, context.getString(R.string.intervalSets));
-        saveIntervalsToContainer();
-        listener.onStatusChanged(55, context.getString(R.string.customWorkoutTypesTitle));
-        saveWorkoutTypes();
-        listener.onStatusChanged(60, context.getString(R.string.converting));
-        writeContainerToOutputFile();
+        try (FileOutputStream out = new FileOutputStream(output);
+             ZipOutputStream zipOut = new ZipOutputStream(new BufferedOutputStream(out))) {
+            zipOut.putNextEntry(new ZipEntry("data.xml"));
+            ToXmlGenerator generator = mapper.getFactory().createGenerator(zipOut);
+            generator.setNextName(new QName("fito-track"));
+            generator.writeStartObject();
+            generator.writeNumberField("version", VERSION);
+
+            listener.onStatusChanged(5, context.getString(R.string.workoutRecordingTypeGps));
+            GpsWorkout[] gpsWorkouts = database.gpsWorkoutDao().getWorkouts();
+            writeList(generator, "workouts", Arrays.asList(gpsWorkouts));
+            writeGpsSamples(generator, gpsWorkouts);
+
+            listener.onStatusChanged(75, context.getString(R.string.workoutRecordingTypeIndoor));
+            IndoorWorkout[] indoorWorkouts = database.indoorWorkoutDao().getWorkouts();
+            writeList(generator, "indoorWorkouts", Arrays.asList(indoorWorkouts));
+            writeIndoorSamples(generator, indoorWorkouts);
+
+            listener.onStatusChanged(90, context.getString(R.string.workoutHeartRate));
+            writeList(generator, "heartRateVariabilities", Arrays.asList(database.heartRateVariabilityDao().getHeartRateVariabilities()));
+            writeRrIntervalBatches(generator, gpsWorkouts, indoorWorkouts);
+
+            listener.onStatusChanged(93, context.getString(R.string.intervalSets));
+            writeIntervalSets(generator);
+            listener.onStatusChanged(95, context.getString(R.string.customWorkoutTypesTitle));
+            writeList(generator, "workoutTypes", Arrays.asList(database.workoutTypeDao().findAll()));
+
+            generator.writeEndObject();
+            generator.close();
+            zipOut.closeEntry();
+        }
         listener.onStatusChanged(100, context.getString(R.string.finished));
     }
 
-    private void init(){
-        database= Instance.getInstance(context).db;
-        newContainer();
-    }
-
-    private void newContainer(){
-        dataContainer= new FitoTrackDataContainer();
-        dataContainer.setVersion(VERSION);
-    }
-
-    private void saveGpsWorkoutsToContainer() {
-        dataContainer.getWorkouts().addAll(Arrays.asList(database.gpsWorkoutDao().getWorkouts()));
+    private void init() {
+        database = Instance.getInstance(context).db;
+        mapper = new XmlMapper();
+        // The zip stream is closed by us after the entry is finished
+        mapper.getFactory().disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        // Items are written one by one, flushing after each would write tiny chunks
+        mapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
-    private void saveGpsSamplesToContainer() {
-        dataContainer.getSamples().addAll(Arrays.asList(database.gpsWorkoutDao().getSamples()));
+    private void writeGpsSamples(ToXmlGenerator generator, GpsWorkout[] workouts) throws IOException {
+        startList(generator, "samples");
+        for (int i = 0; i < workouts.length; i++) {
+            listener.onStatusChanged(10 + 60 * i / workouts.length, context.getString(R.string.locationData));
+            writeItems(generator, "samples", Arrays.asList(database.gpsWorkoutDao().getAllSamplesOfWorkout(workouts[i].id)));
+        }
+        generator.writeEndObject();
     }
 
-    private void saveIndoorWorkoutsToContainer() {
-        dataContainer.getIndoorWorkouts().addAll(Arrays.asList(database.indoorWorkoutDao().getWorkouts()));
+    private void writeIndoorSamples(ToXmlGenerator generator, IndoorWorkout[] workouts) throws IOException {
+        startList(generator, "indoorSamples");
+        for (int i = 0; i < workouts.length; i++) {
+            listener.onStatusChanged(80 + 10 * i / workouts.length, context.getString(R.string.workoutRecordingTypeIndoor));
+            writeItems(generator, "indoorSamples", Arrays.asList(database.indoorWorkoutDao().getAllSamplesOfWorkout(workouts[i].id)));
+        }
+        generator.writeEndObject();
     }
 
-    private void saveIndoorSamplesToContainer() {
-        dataContainer.getIndoorSamples().addAll(Arrays.asList(database.indoorWorkoutDao().getSamples()));
+    private void writeRrIntervalBatches(ToXmlGenerator generator, GpsWorkout[] gpsWorkouts, IndoorWorkout[] indoorWorkouts) throws IOException {
+        startList(generator, "rrIntervalBatches");
+        for (GpsWorkout workout : gpsWorkouts) {
+            writeItems(generator, "rrIntervalBatches", Arrays.asList(database.heartRateVariabilityDao().getBatches(workout.id)));
+        }
+        for (IndoorWorkout workout : indoorWorkouts) {
+            writeItems(generator, "rrIntervalBatches", Arrays.asList(database.heartRateVariabilityDao().getBatches(workout.id)));
+        }
+        generator.writeEndObject();
     }
 
-    private void saveIntervalsToContainer() {
+    private void writeIntervalSets(ToXmlGenerator generator) throws IOException {
+        startList(generator, "intervalSets");
         for (IntervalSet set : database.intervalDao().getAllSets()) {
-            saveIntervalToContainer(set);
+            List<Interval> intervals = Arrays.asList(database.intervalDao().getAllIntervalsOfSet(set.id));
+            generator.writeFieldName("intervalSets");
+            mapper.writeValue(generator, new IntervalSetContainer(set, intervals));
         }
+        generator.writeEndObject();
     }
 
-    private void saveIntervalToContainer(IntervalSet set) {
-        List<Interval> intervals = Arrays.asList(database.intervalDao().getAllIntervalsOfSet(set.id));
-        dataContainer.getIntervalSets().add(new IntervalSetContainer(set, intervals));
+    private void writeList(ToXmlGenerator generator, String name, List<?> items) throws IOException {
+        startList(generator, name);
+        writeItems(generator, name, items);
+        generator.writeEndObject();
     }
 
-    private void saveWorkoutTypes() {
-        dataContainer.getWorkoutTypes().addAll(Arrays.asList(database.workoutTypeDao().findAll()));
+    /**
+     * Lists are written like jackson does by default: a wrapper element containing one element per item, both with the property name
+     */
+    private static void startList(ToXmlGenerator generator, String name) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeStartObject();
     }
 
-    private void writeContainerToOutputFile() throws IOException {
-        XmlMapper mapper = new XmlMapper();
-        FileOutputStream out = new FileOutputStream(output);
-        ZipOutputStream zipOut = new ZipOutputStream(out);
-        zipOut.putNextEntry(new ZipEntry("data.xml"));
-        mapper.writeValue(zipOut, dataContainer);
-        zipOut.close();
-        out.close();
+    private void writeItems(ToXmlGenerator generator, String name, List<?> items) throws IOException {
+        for (Object item : items) {
+            generator.writeFieldName(name);
+            mapper.writeValue(generator, item);
+        }
     }
 
     public interface ExportStatusListener {
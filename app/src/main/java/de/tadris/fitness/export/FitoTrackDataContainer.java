@@ -27,8 +27,10 @@ import java.util.List;
 
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
+import de.tadris.fitness.data.HeartRateVariability;
 import de.tadris.fitness.data.IndoorSample;
 import de.tadris.fitness.data.IndoorWorkout;
+import de.tadris.fitness.data.RrIntervalBatch;
 import de.tadris.fitness.data.WorkoutType;
 
 @JacksonXmlRootElement(localName = "fito-track")
@@ -40,6 +42,8 @@ class FitoTrackDataContainer {
     private List<GpsSample> samples = new ArrayList<>();
     private List<IndoorWorkout> indoorWorkouts = new ArrayList<>();
     private List<IndoorSample> indoorSamples = new ArrayList<>();
+    private List<HeartRateVariability> heartRateVariabilities = new ArrayList<>();
+    private List<RrIntervalBatch> rrIntervalBatches = new ArrayList<>();
     private List<IntervalSetContainer> intervalSets = new ArrayList<>();
     private List<WorkoutType> workoutTypes = new ArrayList<>();
 
@@ -101,4 +105,20 @@ class FitoTrackDataContainer {
     public void setIndoorSamples(List<IndoorSample> indoorSamples) {
         this.indoorSamples = indoorSamples;
     }
+
+    public List<HeartRateVariability> getHeartRateVariabilities() {
+        return heartRateVariabilities;
+    }
+
+    public void setHeartRateVariabilities(List<HeartRateVariability> heartRateVariabilities) {
+        this.heartRateVariabilities = heartRateVariabilities;
+    }
+
+    public List<RrIntervalBatch> getRrIntervalBatches() {
+        return rrIntervalBatches;
+    }
+
+    public void setRrIntervalBatches(List<RrIntervalBatch> rrIntervalBatches) {
+        this.rrIntervalBatches = rrIntervalBatches;
+    }
 }
@@ -23,10 +23,15 @@ import android.content.Context;
 import android.net.Uri;
 
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import java.util.zip.ZipInputStream;
 
 import de.tadris.fitness.Instance;
@@ -34,143 +39,258 @@ import de.tadris.fitness.R;
 import de.tadris.fitness.data.AppDatabase;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
+import de.tadris.fitness.data.HeartRateVariability;
 import de.tadris.fitness.data.IndoorSample;
 import de.tadris.fitness.data.IndoorWorkout;
 import de.tadris.fitness.data.Interval;
 import de.tadris.fitness.data.IntervalSet;
+import de.tadris.fitness.data.RrIntervalBatch;
+import de.tadris.fitness.data.StatsRollupManager;
 import de.tadris.fitness.data.WorkoutType;
+import de.tadris.fitness.data.WorkoutTypeManager;
 import de.tadris.fitness.data.migration.Migration;
 import de.tadris.fitness.data.migration.Migration12IntervalSets;
 
 public class RestoreController {
 
+    private static final int SAMPLE_BATCH_SIZE = 1000;
+
     private final Context context;
     private final Uri input;
     private final ImportStatusListener listener;
     private final boolean replace;
-    private FitoTrackDataContainer dataContainer;
     private final AppDatabase database;
+    private final XmlMapper mapper;
+
+    private int version;
+    private final List<GpsWorkout> restoredGpsWorkouts = new ArrayList<>();
+    private Set<Long> knownGpsWorkoutIds;
+    private Set<Long> knownIndoorWorkoutIds;
+    private Set<Long> compactedWorkoutIds;
+    private final Set<Long> insertedWorkoutIds = new HashSet<>();
+    private final List<HeartRateVariability> heartRateVariabilities = new ArrayList<>();
+    private final List<RrIntervalBatch> rrIntervalBatches = new ArrayList<>();
+    private final List<GpsSample> gpsSampleBatch = new ArrayList<>();
+    private final List<IndoorSample> indoorSampleBatch = new ArrayList<>();
+    private long currentWorkoutId = -1;
+    private int sampleWorkoutCount = 0;
+    private int gpsSampleCount = 0;
 
     public RestoreController(Context context, Uri input, boolean replace, ImportStatusListener listener) {
+        this(context, Instance.getInstance(context).db, input, replace, listener);
+    }
+
+    public RestoreController(Context context, AppDatabase database, Uri input, boolean replace, ImportStatusListener listener) {
         this.context = context;
         this.input = input;
         this.replace = replace;
         this.listener = listener;
-        this.database = Instance.getInstance(context).db;
+        this.database = database;
+        this.mapper = new XmlMapper();
+        this.mapper.configure(JsonParser.Feature.IGNORE_UNDEFINED, true);
     }
 
     public void restoreData() throws IOException, UnsupportedVersionException {
         listener.onStatusChanged(0, context.getString(R.string.loadingFile));
-        loadDataFromFile();
-        checkVersion();
-        restoreDatabase();
+        try (InputStream input = openInput()) {
+            restoreDatabase(mapper.getFactory().createParser(input));
+        }
         listener.onStatusChanged(100, context.getString(R.string.finished));
     }
 
-    private void loadDataFromFile() throws IOException {
+    private InputStream openInput() throws IOException {
         InputStream stream = context.getContentResolver().openInputStream(input);
         boolean isZIP = stream.read() == 0x50; // Zip Magic number
         stream.close();
         stream = context.getContentResolver().openInputStream(input);
-        InputStream decompressedInput;
         if (isZIP) {
             ZipInputStream zipIn = new ZipInputStream(stream);
             zipIn.getNextEntry();
-            decompressedInput = zipIn;
+            return zipIn;
         } else {
-            decompressedInput = stream;
+            return stream;
         }
-        XmlMapper xmlMapper = new XmlMapper();
-        xmlMapper.configure(JsonParser.Feature.IGNORE_UNDEFINED, true);
-        dataContainer = xmlMapper.readValue(decompressedInput, FitoTrackDataContainer.class);
-        decompressedInput.close();
-        stream.close();
     }
 
     private void checkVersion() throws UnsupportedVersionException {
-        if (dataContainer.getVersion() > BackupController.VERSION) {
-            throw new UnsupportedVersionException("Version Code" + dataContainer.getVersion() + " is unsupported!");
+        if (version > BackupController.VERSION) {
+            throw new UnsupportedVersionException("Version Code" + version + " is unsupported!");
         }
     }
 
-    private void restoreDatabase() {
-        database.runInTransaction(() -> {
+    /**
+     * Restores the backup while parsing it, so only the workouts and small entities are kept in memory.
+     * The transaction is rolled back if anything fails.
+     * <p>
+     * Samples may be listed before their workouts, older backups are written in alphabetical order.
+     * So all samples are inserted with deferred foreign keys and the ones without workout are
+     * removed at the end. Heart rate data is kept until all workouts are known and only restored
+     * for the workouts that were inserted.
+     */
+    private void restoreDatabase(JsonParser parser) throws IOException, UnsupportedVersionException {
+        database.beginTransaction();
+        try {
             if (replace) {
                 resetDatabase();
             }
-            listener.onStatusChanged(40, context.getString(R.string.workoutRecordingTypeGps));
-            restoreGpsWorkouts();
-            listener.onStatusChanged(50, context.getString(R.string.locationData));
-            restoreGpsSamples();
-            listener.onStatusChanged(65, context.getString(R.string.workoutRecordingTypeIndoor));
-            restoreIndoorWorkouts();
-            listener.onStatusChanged(70, context.getString(R.string.workoutRecordingTypeIndoor));
-            restoreIndoorSamples();
-            listener.onStatusChanged(80, context.getString(R.string.intervalSets));
-            restoreIntervalSets();
-            listener.onStatusChanged(85, context.getString(R.string.customWorkoutTypesTitle));
-            restoreWorkoutTypes();
+            database.getOpenHelper().getWritableDatabase().execSQL("PRAGMA defer_foreign_keys = TRUE");
+            knownGpsWorkoutIds = new HashSet<>(database.gpsWorkoutDao().getWorkoutIds());
+            knownIndoorWorkoutIds = new HashSet<>(database.indoorWorkoutDao().getWorkoutIds());
+            compactedWorkoutIds = new HashSet<>(database.gpsWorkoutDao().getCompactedWorkoutIds());
+            listener.onStatusChanged(10, context.getString(R.string.loadingFile));
+            readContainer(parser);
+            database.gpsWorkoutDao().deleteOrphanedSamples();
+            database.indoorWorkoutDao().deleteOrphanedSamples();
+            restoreHeartRateData();
             listener.onStatusChanged(90, context.getString(R.string.runningMigrations));
             runMigrations();
-        });
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+        }
+        WorkoutTypeManager.getInstance().notifyWorkoutTypesChanged();
+        new StatsRollupManager(context, database).rebuild();
     }
 
     private void resetDatabase() {
         database.clearAllTables();
     }
 
-    private void restoreGpsWorkouts() {
-        if (dataContainer.getWorkouts() != null) {
-            for (GpsWorkout workout : dataContainer.getWorkouts()) {
-                // Only Import Unknown Workouts on merge
-                if (replace || database.gpsWorkoutDao().findById(workout.id) == null) {
-                    database.gpsWorkoutDao().insertWorkout(workout);
-                }
+    /**
+     * Reads the properties of the {@link FitoTrackDataContainer} one after another and restores them directly.
+     */
+    private void readContainer(JsonParser parser) throws IOException, UnsupportedVersionException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Invalid backup file");
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "version":
+                    version = parser.getValueAsInt();
+                    checkVersion();
+                    break;
+                case "workouts":
+                    listener.onStatusChanged(20, context.getString(R.string.workoutRecordingTypeGps));
+                    readList(parser, GpsWorkout.class, this::restoreGpsWorkout);
+                    break;
+                case "samples":
+                    readList(parser, GpsSample.class, this::restoreGpsSample);
+                    flushGpsSamples();
+                    break;
+                case "indoorWorkouts":
+                    listener.onStatusChanged(75, context.getString(R.string.workoutRecordingTypeIndoor));
+                    readList(parser, IndoorWorkout.class, this::restoreIndoorWorkout);
+                    break;
+                case "indoorSamples":
+                    readList(parser, IndoorSample.class, this::restoreIndoorSample);
+                    flushIndoorSamples();
+                    break;
+                case "heartRateVariabilities":
+                    readList(parser, HeartRateVariability.class, heartRateVariabilities::add);
+                    break;
+                case "rrIntervalBatches":
+                    readList(parser, RrIntervalBatch.class, rrIntervalBatches::add);
+                    break;
+                case "intervalSets":
+                    listener.onStatusChanged(85, context.getString(R.string.intervalSets));
+                    readList(parser, IntervalSetContainer.class, this::restoreIntervalSet);
+                    break;
+                case "workoutTypes":
+                    listener.onStatusChanged(88, context.getString(R.string.customWorkoutTypesTitle));
+                    readList(parser, WorkoutType.class, this::restoreWorkoutType);
+                    break;
+                default:
+                    parser.skipChildren();
             }
         }
     }
 
-    private void restoreGpsSamples() {
-        if (dataContainer.getSamples() != null) {
-            for (GpsSample sample : dataContainer.getSamples()) {
-                // Only import unknown samples with known workout on merge
-                // Query not necessary on replace because data was cleared
-                if (replace || (database.gpsWorkoutDao().findById(sample.workoutId) != null &&
-                        database.gpsWorkoutDao().findSampleById(sample.id) == null)) {
-                    database.gpsWorkoutDao().insertSample(sample);
-                }
-            }
+    /**
+     * Reads the items of a wrapped list one by one. Empty lists are written as empty elements.
+     */
+    private <T> void readList(JsonParser parser, Class<T> type, ItemConsumer<T> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            parser.nextToken();
+            consumer.accept(mapper.readValue(parser, type));
         }
     }
 
-    private void restoreIndoorWorkouts() {
-        if (dataContainer.getIndoorWorkouts() != null) {
-            for (IndoorWorkout workout : dataContainer.getIndoorWorkouts()) {
-                // Only Import Unknown Workouts on merge
-                if (replace || database.indoorWorkoutDao().findById(workout.id) == null) {
-                    database.indoorWorkoutDao().insertWorkout(workout);
-                }
-            }
+    private void restoreGpsWorkout(GpsWorkout workout) {
+        restoredGpsWorkouts.add(workout);
+        // Only Import Unknown Workouts on merge
+        if (knownGpsWorkoutIds.add(workout.id)) {
+            database.gpsWorkoutDao().insertWorkout(workout);
+            insertedWorkoutIds.add(workout.id);
         }
     }
 
-    private void restoreIndoorSamples() {
-        if (dataContainer.getIndoorSamples() != null) {
-            for (IndoorSample sample : dataContainer.getIndoorSamples()) {
-                // Only import unknown samples with known workout on merge
-                // Query not necessary on replace because data was cleared
-                if (replace || (database.indoorWorkoutDao().findById(sample.workoutId) != null &&
-                        database.indoorWorkoutDao().findSampleById(sample.id) == null)) {
-                    database.indoorWorkoutDao().insertSample(sample);
-                }
+    private void restoreGpsSample(GpsSample sample) {
+        if (sample.workoutId != currentWorkoutId) {
+            // Samples are grouped by workout
+            currentWorkoutId = sample.workoutId;
+            sampleWorkoutCount++;
+            if (restoredGpsWorkouts.isEmpty()) {
+                // Older backups list the samples first, the number of workouts isn't known yet
+                listener.onStatusChanged(20, context.getString(R.string.locationData) + " (" + gpsSampleCount + ")");
+            } else {
+                int total = restoredGpsWorkouts.size();
+                listener.onStatusChanged(20 + 50 * Math.min(sampleWorkoutCount, total) / total, context.getString(R.string.locationData));
             }
         }
+        gpsSampleCount++;
+        if (compactedWorkoutIds.contains(sample.workoutId)) {
+            // The local workout keeps its samples in a track, rows would duplicate them
+            return;
+        }
+        // Existing samples are ignored on insert
+        gpsSampleBatch.add(sample);
+        if (gpsSampleBatch.size() >= SAMPLE_BATCH_SIZE) {
+            flushGpsSamples();
+        }
     }
 
-    private void restoreIntervalSets() {
-        if (dataContainer.getIntervalSets() != null) {
-            for (IntervalSetContainer container : dataContainer.getIntervalSets()) {
-                restoreIntervalSet(container);
+    private void flushGpsSamples() {
+        database.gpsWorkoutDao().insertSamplesIfAbsent(gpsSampleBatch.toArray(new GpsSample[0]));
+        gpsSampleBatch.clear();
+    }
+
+    private void restoreIndoorWorkout(IndoorWorkout workout) {
+        // Only Import Unknown Workouts on merge
+        if (knownIndoorWorkoutIds.add(workout.id)) {
+            database.indoorWorkoutDao().insertWorkout(workout);
+            insertedWorkoutIds.add(workout.id);
+        }
+    }
+
+    private void restoreIndoorSample(IndoorSample sample) {
+        // Existing samples are ignored on insert
+        indoorSampleBatch.add(sample);
+        if (indoorSampleBatch.size() >= SAMPLE_BATCH_SIZE) {
+            flushIndoorSamples();
+        }
+    }
+
+    private void flushIndoorSamples() {
+        database.indoorWorkoutDao().insertSamplesIfAbsent(indoorSampleBatch.toArray(new IndoorSample[0]));
+        indoorSampleBatch.clear();
+    }
+
+    private void restoreHeartRateData() {
+        for (HeartRateVariability variability : heartRateVariabilities) {
+            if (insertedWorkoutIds.contains(variability.workoutId)) {
+                database.heartRateVariabilityDao().insertHeartRateVariability(variability);
+            }
+        }
+        for (RrIntervalBatch batch : rrIntervalBatches) {
+            if (insertedWorkoutIds.contains(batch.workoutId)) {
+                // Ids may already be taken on merge, the batches keep their order
+                batch.id = 0;
+                database.heartRateVariabilityDao().insertBatch(batch);
             }
         }
     }
@@ -191,20 +311,16 @@ public class RestoreController {
         }
     }
 
-    private void restoreWorkoutTypes() {
-        if (dataContainer.getWorkoutTypes() != null) {
-            for (WorkoutType type : dataContainer.getWorkoutTypes()) {
-                // Only import unknown workout types
-                if (database.workoutTypeDao().findById(type.id) == null) {
-                    database.workoutTypeDao().insert(type);
-                }
-            }
+    private void restoreWorkoutType(WorkoutType type) {
+        // Only import unknown workout types
+        if (database.workoutTypeDao().findById(type.id) == null) {
+            database.workoutTypeDao().insert(type);
         }
     }
 
     private void runMigrations() {
-        if (dataContainer.getVersion() <= 1) {
-            for (GpsWorkout workout : dataContainer.getWorkouts()) {
+        if (version <= 1) {
+            for (GpsWorkout workout : restoredGpsWorkouts) {
                 float minHeight = 0f;
                 float maxHeight = 0f;
                 for (GpsSample sample : database.gpsWorkoutDao().getAllSamplesOfWorkout(workout.id)) {
@@ -220,14 +336,18 @@ public class RestoreController {
                 database.gpsWorkoutDao().updateWorkout(workout);
             }
         }
-        if (dataContainer.getVersion() <= 2) {
+        if (version <= 2) {
             Migration12IntervalSets migration = new Migration12IntervalSets(context, Migration.DUMMY_LISTENER);
-            for (GpsWorkout workout : dataContainer.getWorkouts()) {
+            for (GpsWorkout workout : restoredGpsWorkouts) {
                 migration.migrateWorkout(workout);
             }
         }
     }
 
+    private interface ItemConsumer<T> {
+        void accept(T item);
+    }
+
     public interface ImportStatusListener {
         void onStatusChanged(int progress, String action);
     }
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.generator;
+
+import android.content.Context;
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tadris.fitness.BuildConfig;
+import de.tadris.fitness.util.SampledBitmapDecoder;
+
+/**
+ * Index of the bird images bundled in the assets. It is built when it's used for the first time,
+ * together with a small thumbnail of every image, and persisted to the files directory so later
+ * uses only read the index. Thumbnails are kept in an in-memory LRU cache.
+ */
+public class BirdImageCatalog {
+
+    private static final String TAG = "BirdImageCatalog";
+
+    /**
+     * Increase when the index format or the thumbnail parameters change to force a rebuild. App
+     * updates rebuild the index as well, because they may ship different images.
+     */
+    private static final int VERSION = 1;
+
+    private static final String ASSET_DIRECTORY = "birdsimages";
+    private static final String CATALOG_DIRECTORY = "bird-catalog";
+    private static final String THUMBNAIL_DIRECTORY = "thumbnails";
+    private static final String INDEX_FILE = "index.tsv";
+    private static final int THUMBNAIL_SIZE = 256;
+    private static final int THUMBNAIL_QUALITY = 85;
+
+    private static BirdImageCatalog instance;
+
+    public static synchronized BirdImageCatalog getInstance(Context context) {
+        if (instance == null) {
+            instance = new BirdImageCatalog(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public interface ThumbnailCallback {
+        void onThumbnailLoaded(@Nullable Bitmap thumbnail);
+    }
+
+    public static class Entry {
+        /**
+         * Common name of the bird, the file name without extension
+         */
+        public final String name;
+        public final String assetPath;
+        public final int width;
+        public final int height;
+        /**
+         * Average color of the image as ARGB
+         */
+        public final int dominantColor;
+        public final String thumbnailPath;
+
+        Entry(String name, String assetPath, int width, int height, int dominantColor, String thumbnailPath) {
+            this.name = name;
+            this.assetPath = assetPath;
+            this.width = width;
+            this.height = height;
+            this.dominantColor = dominantColor;
+            this.thumbnailPath = thumbnailPath;
+        }
+    }
+
+    private final AssetManager assets;
+    private final File catalogDirectory;
+    private final File thumbnailDirectory;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final LruCache<String, Bitmap> thumbnailCache;
+
+    private Entry[] entries;
+    private Map<String, Integer> indexByName;
+
+    private BirdImageCatalog(Context context) {
+        this.assets = context.getAssets();
+        this.catalogDirectory = new File(context.getFilesDir(), CATALOG_DIRECTORY);
+        this.thumbnailDirectory = new File(catalogDirectory, THUMBNAIL_DIRECTORY);
+        int cacheSize = (int) Math.min(Runtime.getRuntime().maxMemory() / 16, Integer.MAX_VALUE);
+        this.thumbnailCache = new LruCache<String, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * Loads or builds the index in the background, e.g. while the quiz waits for the classifier
+     */
+    public void prepareAsync() {
+        executor.execute(this::ensureLoaded);
+    }
+
+    /**
+     * Loads the thumbnail of the bird with the given name in the background and passes it to the
+     * callback on the main thread, null if there is no image of this bird.
+     */
+    public void loadThumbnailAsync(String name, ThumbnailCallback callback) {
+        executor.execute(() -> {
+            Entry entry = getEntry(name);
+            Bitmap thumbnail = entry != null ? getThumbnail(entry) : null;
+            mainHandler.post(() -> callback.onThumbnailLoaded(thumbnail));
+        });
+    }
+
+    /**
+     * @param name common name of the bird, ignoring case
+     */
+    @Nullable
+    public Entry getEntry(String name) {
+        ensureLoaded();
+        Integer index = indexByName.get(name.toLowerCase(Locale.ROOT));
+        return index != null ? entries[index] : null;
+    }
+
+    /**
+     * Returns the thumbnail from the cache or reads it from disk. Recreates it from the asset if
+     * the file is missing. Should not be called on the main thread.
+     */
+    @Nullable
+    public Bitmap getThumbnail(Entry entry) {
+        Bitmap bitmap = thumbnailCache.get(entry.thumbnailPath);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        File file = new File(entry.thumbnailPath);
+        bitmap = BitmapFactory.decodeFile(file.getAbsolutePath());
+        if (bitmap == null) {
+            try {
+                bitmap = createThumbnail(entry.assetPath, file);
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot create thumbnail for " + entry.assetPath, e);
+                return null;
+            }
+        }
+        thumbnailCache.put(entry.thumbnailPath, bitmap);
+        return bitmap;
+    }
+
+    private synchronized void ensureLoaded() {
+        if (entries != null) {
+            return;
+        }
+        String[] assetNames;
+        try {
+            assetNames = assets.list(ASSET_DIRECTORY);
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot list bird images", e);
+            assetNames = new String[0];
+        }
+
+        Entry[] loaded = readIndex(assetNames.length);
+        if (loaded == null) {
+            loaded = buildIndex(assetNames);
+            try {
+                writeIndex(loaded, assetNames.length);
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot write bird catalog", e);
+            }
+        }
+
+        Map<String, Integer> byName = new HashMap<>(loaded.length * 2);
+        for (int i = 0; i < loaded.length; i++) {
+            byName.put(loaded[i].name.toLowerCase(Locale.ROOT), i);
+        }
+        indexByName = byName;
+        entries = loaded;
+    }
+
+    private Entry[] buildIndex(String[] assetNames) {
+        if (!thumbnailDirectory.isDirectory() && !thumbnailDirectory.mkdirs()) {
+            Log.w(TAG, "Cannot create " + thumbnailDirectory);
+        }
+        String[] sortedNames = assetNames.clone();
+        Arrays.sort(sortedNames);
+
+        List<Entry> built = new ArrayList<>(sortedNames.length);
+        for (int i = 0; i < sortedNames.length; i++) {
+            String fileName = sortedNames[i];
+            String assetPath = ASSET_DIRECTORY + "/" + fileName;
+            File thumbnailFile = new File(thumbnailDirectory, i + ".jpg");
+            try {
+                BitmapFactory.Options bounds = readBounds(assetPath);
+                Bitmap thumbnail = createThumbnail(assetPath, thumbnailFile);
+                Bitmap pixel = Bitmap.createScaledBitmap(thumbnail, 1, 1, true);
+                int color = pixel.getPixel(0, 0);
+                if (pixel != thumbnail) {
+                    pixel.recycle();
+                }
+                thumbnailCache.put(thumbnailFile.getAbsolutePath(), thumbnail);
+                built.add(new Entry(removeExtension(fileName), assetPath, bounds.outWidth, bounds.outHeight,
+                        color, thumbnailFile.getAbsolutePath()));
+            } catch (IOException e) {
+                Log.e(TAG, "Skipping " + assetPath, e);
+            }
+        }
+        return built.toArray(new Entry[0]);
+    }
+
+    private BitmapFactory.Options readBounds(String assetPath) throws IOException {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        try (InputStream input = assets.open(assetPath)) {
+            BitmapFactory.decodeStream(input, null, options);
+        }
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw new IOException("Cannot decode " + assetPath);
+        }
+        return options;
+    }
+
+    private Bitmap createThumbnail(String assetPath, File target) throws IOException {
+        BitmapFactory.Options options = readBounds(assetPath);
+        options.inSampleSize = SampledBitmapDecoder.calculateInSampleSize(
+                options.outWidth, options.outHeight, THUMBNAIL_SIZE, THUMBNAIL_SIZE);
+        options.inJustDecodeBounds = false;
+        Bitmap decoded;
+        try (InputStream input = assets.open(assetPath)) {
+            decoded = BitmapFactory.decodeStream(input, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Cannot decode " + assetPath);
+        }
+
+        float scale = (float) THUMBNAIL_SIZE / Math.max(decoded.getWidth(), decoded.getHeight());
+        Bitmap thumbnail = decoded;
+        if (scale < 1) {
+            thumbnail = Bitmap.createScaledBitmap(decoded,
+                    Math.max(1, Math.round(decoded.getWidth() * scale)),
+                    Math.max(1, Math.round(decoded.getHeight() * scale)), true);
+            if (thumbnail != decoded) {
+                decoded.recycle();
+            }
+        }
+        try (OutputStream output = new FileOutputStream(target)) {
+            thumbnail.compress(Bitmap.CompressFormat.JPEG, THUMBNAIL_QUALITY, output);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * @return the persisted entries or null if there is no index or it is outdated
+     */
+    @Nullable
+    private Entry[] readIndex(int assetCount) {
+        File file = new File(catalogDirectory, INDEX_FILE);
+        if (!file.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String header = reader.readLine();
+            if (!getHeader(assetCount).equals(header)) {
+                return null;
+            }
+            List<Entry> loaded = new ArrayList<>(assetCount);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t");
+                if (fields.length != 6) {
+                    return null;
+                }
+                loaded.add(new Entry(fields[0], fields[1], Integer.parseInt(fields[2]),
+                        Integer.parseInt(fields[3]), (int) Long.parseLong(fields[4], 16), fields[5]));
+            }
+            return loaded.toArray(new Entry[0]);
+        } catch (IOException | NumberFormatException e) {
+            Log.w(TAG, "Cannot read bird catalog, rebuilding", e);
+            return null;
+        }
+    }
+
+    private void writeIndex(Entry[] entries, int assetCount) throws IOException {
+        File file = new File(catalogDirectory, INDEX_FILE);
+        File temp = new File(catalogDirectory, INDEX_FILE + ".tmp");
+        try (PrintWriter writer = new PrintWriter(temp)) {
+            writer.print(getHeader(assetCount) + "\n");
+            for (Entry entry : entries) {
+                writer.print(entry.name + "\t" + entry.assetPath + "\t" + entry.width + "\t" + entry.height
+                        + "\t" + Integer.toHexString(entry.dominantColor) + "\t" + entry.thumbnailPath + "\n");
+            }
+            if (writer.checkError()) {
+                throw new IOException("Cannot write " + temp);
+            }
+        }
+        if (!temp.renameTo(file)) {
+            throw new IOException("Cannot move " + temp + " to " + file);
+        }
+    }
+
+    private static String getHeader(int assetCount) {
+        return VERSION + "\t" + BuildConfig.VERSION_CODE + "\t" + assetCount;
+    }
+
+    private static String removeExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+}
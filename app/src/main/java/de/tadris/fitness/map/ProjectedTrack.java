@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.map;
+
+import org.mapsforge.core.util.MercatorProjection;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsTrackColumns;
+
+/**
+ * Mercator projection of a track, calculated once. Coordinates are normalized to [0, 1],
+ * multiplying them with the map size of a zoom level gives the pixel coordinates.
+ */
+public class ProjectedTrack {
+
+    private static final long WORLD_SIZE = 1L << 32;
+
+    private final double[] x;
+    private final double[] y;
+
+    public ProjectedTrack(List<GpsSample> samples) {
+        int size = samples.size();
+        x = new double[size];
+        y = new double[size];
+        for (int i = 0; i < size; i++) {
+            GpsSample sample = samples.get(i);
+            x[i] = MercatorProjection.longitudeToPixelX(sample.lon, WORLD_SIZE) / WORLD_SIZE;
+            y[i] = MercatorProjection.latitudeToPixelY(sample.lat, WORLD_SIZE) / WORLD_SIZE;
+        }
+    }
+
+    public ProjectedTrack(GpsTrackColumns track) {
+        x = new double[track.size];
+        y = new double[track.size];
+        for (int i = 0; i < track.size; i++) {
+            x[i] = MercatorProjection.longitudeToPixelX(track.lons[i], WORLD_SIZE) / WORLD_SIZE;
+            y[i] = MercatorProjection.latitudeToPixelY(track.lats[i], WORLD_SIZE) / WORLD_SIZE;
+        }
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public double getX(int index) {
+        return x[index];
+    }
+
+    public double getY(int index) {
+        return y[index];
+    }
+
+    /**
+     * Douglas-Peucker simplification of the points from {@code from} to {@code to} (inclusive).
+     * Points that are needed to stay within the tolerance are marked in {@code keep}.
+     *
+     * @param tolerance maximum deviation in normalized coordinates
+     */
+    public void simplify(int from, int to, double tolerance, boolean[] keep) {
+        keep[from] = true;
+        keep[to] = true;
+        double toleranceSquared = tolerance * tolerance;
+        int[] stack = new int[64];
+        int stackSize = 0;
+        stack[stackSize++] = from;
+        stack[stackSize++] = to;
+        while (stackSize > 0) {
+            int end = stack[--stackSize];
+            int start = stack[--stackSize];
+            double maxDistance = 0;
+            int maxIndex = -1;
+            for (int i = start + 1; i < end; i++) {
+                double distance = segmentDistanceSquared(i, start, end);
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    maxIndex = i;
+                }
+            }
+            if (maxIndex != -1 && maxDistance > toleranceSquared) {
+                keep[maxIndex] = true;
+                if (stackSize + 4 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[stackSize++] = start;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = maxIndex;
+                stack[stackSize++] = end;
+            }
+        }
+    }
+
+    private double segmentDistanceSquared(int point, int start, int end) {
+        double dx = x[end] - x[start];
+        double dy = y[end] - y[start];
+        double px = x[point] - x[start];
+        double py = y[point] - y[start];
+        double lengthSquared = dx * dx + dy * dy;
+        if (lengthSquared > 0) {
+            double t = Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared));
+            px -= t * dx;
+            py -= t * dy;
+        }
+        return px * px + py * py;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.map;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid over the projected coordinates of a track for nearest sample queries.
+ * Built once in O(n), a query only looks at the cells covered by its radius.
+ */
+public class SampleSpatialIndex {
+
+    private static final int SAMPLES_PER_CELL = 4;
+    private static final int MAX_CELLS_PER_AXIS = 1024;
+
+    private final ProjectedTrack track;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    // Sample indices sorted by cell, the samples of cell c are cellItems[cellStart[c]] until cellItems[cellStart[c + 1]]
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    public SampleSpatialIndex(ProjectedTrack track) {
+        this.track = track;
+        int size = track.size();
+        double minX = 1, minY = 1, maxX = 0, maxY = 0;
+        for (int i = 0; i < size; i++) {
+            minX = Math.min(minX, track.getX(i));
+            minY = Math.min(minY, track.getY(i));
+            maxX = Math.max(maxX, track.getX(i));
+            maxY = Math.max(maxY, track.getY(i));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        double width = Math.max(maxX - minX, 0);
+        double height = Math.max(maxY - minY, 0);
+        double area = Math.max(width * height, 1e-18);
+        double cellSize = Math.sqrt(area * SAMPLES_PER_CELL / Math.max(size, 1));
+        cellSize = Math.max(cellSize, Math.max(width, height) / MAX_CELLS_PER_AXIS);
+        this.cellSize = Math.max(cellSize, 1e-12);
+        this.columns = (int) (width / this.cellSize) + 1;
+        this.rows = (int) (height / this.cellSize) + 1;
+
+        // Counting sort of the samples into their cells
+        cellStart = new int[columns * rows + 1];
+        int[] cellOfSample = new int[size];
+        for (int i = 0; i < size; i++) {
+            cellOfSample[i] = cellOf(track.getX(i), track.getY(i));
+            cellStart[cellOfSample[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        cellItems = new int[size];
+        int[] fill = Arrays.copyOf(cellStart, cellStart.length - 1);
+        for (int i = 0; i < size; i++) {
+            cellItems[fill[cellOfSample[i]]++] = i;
+        }
+    }
+
+    private int cellOf(double x, double y) {
+        return row(y) * columns + column(x);
+    }
+
+    private int column(double x) {
+        return clamp((int) ((x - minX) / cellSize), columns);
+    }
+
+    private int row(double y) {
+        return clamp((int) ((y - minY) / cellSize), rows);
+    }
+
+    private static int clamp(int value, int count) {
+        return Math.max(0, Math.min(count - 1, value));
+    }
+
+    /**
+     * @param radius maximum distance in normalized coordinates
+     * @return index of the sample closest to the given point or -1 if no sample is within the radius
+     */
+    public int findNearest(double x, double y, double radius) {
+        if (!intersects(x, y, radius)) {
+            return -1;
+        }
+        int nearest = -1;
+        double nearestDistance = radius * radius;
+        for (int row = row(y - radius); row <= row(y + radius); row++) {
+            for (int column = column(x - radius); column <= column(x + radius); column++) {
+                int cell = row * columns + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int index = cellItems[i];
+                    double distance = distanceSquared(index, x, y);
+                    if (distance <= nearestDistance) {
+                        // On equal distance prefer the earlier sample
+                        if (distance < nearestDistance || nearest == -1 || index < nearest) {
+                            nearest = index;
+                            nearestDistance = distance;
+                        }
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * @param radius maximum distance in normalized coordinates
+     * @return indices of all samples within the radius in ascending order
+     */
+    public int[] findWithin(double x, double y, double radius) {
+        if (!intersects(x, y, radius)) {
+            return new int[0];
+        }
+        int[] result = new int[16];
+        int count = 0;
+        double radiusSquared = radius * radius;
+        for (int row = row(y - radius); row <= row(y + radius); row++) {
+            for (int column = column(x - radius); column <= column(x + radius); column++) {
+                int cell = row * columns + column;
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int index = cellItems[i];
+                    if (distanceSquared(index, x, y) <= radiusSquared) {
+                        if (count == result.length) {
+                            result = Arrays.copyOf(result, count * 2);
+                        }
+                        result[count++] = index;
+                    }
+                }
+            }
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private boolean intersects(double x, double y, double radius) {
+        return track.size() > 0
+                && x + radius >= minX && x - radius <= minX + columns * cellSize
+                && y + radius >= minY && y - radius <= minY + rows * cellSize;
+    }
+
+    private double distanceSquared(int index, double x, double y) {
+        double dx = track.getX(index) - x;
+        double dy = track.getY(index) - y;
+        return dx * dx + dy * dy;
+    }
+}
@@ -22,42 +22,61 @@ package de.tadris.fitness.map;
 import androidx.annotation.Nullable;
 
 import org.mapsforge.core.graphics.Canvas;
+import org.mapsforge.core.graphics.Cap;
 import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.Join;
 import org.mapsforge.core.graphics.Paint;
 import org.mapsforge.core.graphics.Path;
 import org.mapsforge.core.graphics.Style;
 import org.mapsforge.core.model.BoundingBox;
 import org.mapsforge.core.model.LatLong;
 import org.mapsforge.core.model.Point;
+import org.mapsforge.core.util.LatLongUtils;
 import org.mapsforge.core.util.MercatorProjection;
 import org.mapsforge.map.android.graphics.AndroidGraphicFactory;
 import org.mapsforge.map.layer.Layer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import de.tadris.fitness.data.GpsSample;
-import de.tadris.fitness.data.GpsWorkout;
+import de.tadris.fitness.data.GpsTrackColumns;
 import de.tadris.fitness.ui.workout.diagram.SampleConverter;
+import de.tadris.fitness.ui.workout.diagram.SampleStatistics;
 
 public class WorkoutLayer extends Layer {
 
     private static final byte STROKE_MIN_ZOOM = 12;
+    private static final double SIMPLIFICATION_TOLERANCE = 1; // in pixels
+    private static final int RUN_END = -1;
+    private static final long NORMALIZED_MAP_SIZE = 1L << 32;
     private final GraphicFactory graphicFactory;
     private final boolean keepAligned;
     private Paint paintStroke;
     private double strokeIncrease = 1;
     private BoundingBox boundingBox;
     private final List<GpsSample> samples;
+    private final ProjectedTrack projectedTrack;
+    private final SampleSpatialIndex spatialIndex;
+    private volatile long lastMapSize = 0; // map size of the last drawn zoom level, needed for taps
     private Set<MapSampleSelectionListener> listeners;
 
+    private int[] sampleColors;
+    // Simplified paths by map size
+    private final Map<Long, LevelOfDetail> levelsOfDetail = new HashMap<>();
+
     private ColoringStrategy fallbackColoringStrategy; // if workout is displayed without coloring this will be used
 
     @Nullable
     private SampleConverter sampleConverter; // get values from samples
+    private SampleStatistics sampleStatistics;
     @Nullable
     private ColoringStrategy coloringStrategy; // get colors from values
 
@@ -65,6 +84,8 @@ public class WorkoutLayer extends Layer {
         Paint paint = AndroidGraphicFactory.INSTANCE.createPaint();
         paint.setStyle(Style.STROKE);
         paint.setStrokeWidth(14f);
+        paint.setStrokeJoin(Join.ROUND);
+        paint.setStrokeCap(Cap.ROUND);
         return paint;
     }
 
@@ -79,19 +100,65 @@ public class WorkoutLayer extends Layer {
         this.listeners.add(listener);
     }
 
+    /**
+     * Only draws the track in the color of the coloring strategy, samples can't be selected
+     */
+    public WorkoutLayer(GpsTrackColumns track, ColoringStrategy coloringStrategy) {
+        this(getDEFAULT_PAINT_STROKE(), Collections.emptyList(), new ProjectedTrack(track),
+                calculateBoundingBox(track.lats, track.lons, track.size));
+        this.fallbackColoringStrategy = coloringStrategy;
+        listeners = new HashSet<>();
+    }
+
     private WorkoutLayer(Paint paintStroke, List<GpsSample> samples) {
+        this(paintStroke, samples, new ProjectedTrack(samples), calculateBoundingBox(samples));
+    }
+
+    private WorkoutLayer(Paint paintStroke, List<GpsSample> samples, ProjectedTrack projectedTrack, @Nullable BoundingBox boundingBox) {
         super();
         this.keepAligned = false;
         this.paintStroke = paintStroke;
         this.graphicFactory = AndroidGraphicFactory.INSTANCE;
         this.samples = samples;
+        this.projectedTrack = projectedTrack;
+        this.spatialIndex = new SampleSpatialIndex(projectedTrack);
+        this.boundingBox = boundingBox;
+    }
 
-        //We need to calculate the Bounding box hence need to still convert the items to latLongs
-        List<LatLong> points = new ArrayList<>();
+    @Nullable
+    private static BoundingBox calculateBoundingBox(List<GpsSample> samples) {
+        if (samples.isEmpty()) {
+            return null;
+        }
+        double minLat = Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
         for (GpsSample sample : samples) {
-            points.add(sample.toLatLong());
+            minLat = Math.min(minLat, sample.lat);
+            minLon = Math.min(minLon, sample.lon);
+            maxLat = Math.max(maxLat, sample.lat);
+            maxLon = Math.max(maxLon, sample.lon);
+        }
+        return new BoundingBox(minLat, minLon, maxLat, maxLon);
+    }
+
+    @Nullable
+    private static BoundingBox calculateBoundingBox(double[] lats, double[] lons, int size) {
+        if (size == 0) {
+            return null;
         }
-        boundingBox = points.isEmpty() ? null : new BoundingBox(points);
+        double minLat = Double.MAX_VALUE;
+        double minLon = Double.MAX_VALUE;
+        double maxLat = -Double.MAX_VALUE;
+        double maxLon = -Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            minLat = Math.min(minLat, lats[i]);
+            minLon = Math.min(minLon, lons[i]);
+            maxLat = Math.max(maxLat, lats[i]);
+            maxLon = Math.max(maxLon, lons[i]);
+        }
+        return new BoundingBox(minLat, minLon, maxLat, maxLon);
     }
 
     private void onSampleSelected(GpsSample sample) {
@@ -107,20 +174,18 @@ public class WorkoutLayer extends Layer {
 
     public boolean onTap(LatLong tapLatLong, Point layerXY, Point tapXY) {
 
-        if (listeners.size() ==0){
+        if (listeners.size() ==0 || lastMapSize == 0 || samples.isEmpty()){
             return false;
         }
-        double max_distance = Math.max(20 / 2 * this.displayModel.getScaleFactor(),
-                this.paintStroke.getStrokeWidth() / 2);
-
-        // on tap find the closest workout sample and if within a certain range select it
-        GpsSample sample = findClosestSample(tapLatLong);
-
-        assert sample != null;
-        double distance =  sample.toLatLong().sphericalDistance(tapLatLong);
-        System.out.println("distance " + distance + " max (" + max_distance + ")");
-        if (distance < max_distance) {
-            onSampleSelected(sample);
+        double maxDistance = Math.max(20 / 2 * this.displayModel.getScaleFactor(),
+                this.paintStroke.getStrokeWidth() / 2); // in pixels
+
+        // on tap find the closest workout sample within a certain range and select it
+        int index = spatialIndex.findNearest(MercatorProjection.longitudeToPixelX(tapLatLong.longitude, lastMapSize) / lastMapSize,
+                MercatorProjection.latitudeToPixelY(tapLatLong.latitude, lastMapSize) / lastMapSize,
+                maxDistance / lastMapSize);
+        if (index != -1) {
+            onSampleSelected(samples.get(index));
             hasSelection = true;
             return true;
         } else if (hasSelection) {//if the user clicks outside the area deselect item
@@ -131,26 +196,53 @@ public class WorkoutLayer extends Layer {
     }
 
     /**
-     * @param latLong location
-     * @return the sample that is closest to the selected location
+     * @param radius maximum distance in meters
+     * @return the sample that is closest to the given location or null if there is none within the radius
      */
-    private GpsSample findClosestSample(LatLong latLong) {
-        GpsSample sample = null;
-        double shortestDistance = 0;
-
-        for (int i = 0; i < this.samples.size() - 1; i++) {
-            double dist = latLong.sphericalDistance(samples.get(i).toLatLong());
-            if (sample == null || (dist < shortestDistance)) {
-                sample = samples.get(i);
-                shortestDistance = dist;
-            }
+    @Nullable
+    public GpsSample findClosestSample(LatLong latLong, double radius) {
+        if (samples.isEmpty()) {
+            return null;
+        }
+        int index = spatialIndex.findNearest(toNormalizedX(latLong), toNormalizedY(latLong), metersToNormalized(latLong, radius));
+        return index != -1 ? samples.get(index) : null;
+    }
+
+    /**
+     * @param radius maximum distance in meters
+     * @return all samples within the radius around the given location in recording order
+     */
+    public List<GpsSample> findSamplesWithin(LatLong latLong, double radius) {
+        if (samples.isEmpty()) {
+            return Collections.emptyList();
+        }
+        int[] indices = spatialIndex.findWithin(toNormalizedX(latLong), toNormalizedY(latLong), metersToNormalized(latLong, radius));
+        List<GpsSample> result = new ArrayList<>(indices.length);
+        for (int index : indices) {
+            result.add(samples.get(index));
         }
-        return sample;
+        return result;
+    }
+
+    private static double toNormalizedX(LatLong latLong) {
+        return MercatorProjection.longitudeToPixelX(latLong.longitude, NORMALIZED_MAP_SIZE) / NORMALIZED_MAP_SIZE;
+    }
+
+    private static double toNormalizedY(LatLong latLong) {
+        return MercatorProjection.latitudeToPixelY(latLong.latitude, NORMALIZED_MAP_SIZE) / NORMALIZED_MAP_SIZE;
+    }
+
+    /**
+     * The mercator scale depends on the latitude, the circumference at the equator is one normalized unit
+     */
+    private static double metersToNormalized(LatLong latLong, double meters) {
+        double circumference = 2 * Math.PI * LatLongUtils.EQUATORIAL_RADIUS * Math.cos(Math.toRadians(latLong.latitude));
+        return meters / circumference;
     }
 
     @Override
     public synchronized void draw(BoundingBox boundingBox, byte zoomLevel, Canvas canvas, Point topLeftPoint) {
-        if (this.samples.isEmpty() || this.paintStroke == null) {
+        if (projectedTrack.size() == 0 || this.paintStroke == null) {
             return;
         }
 
@@ -158,12 +250,9 @@ public class WorkoutLayer extends Layer {
             return;
         }
 
-        Iterator<GpsSample> sampleIterator = this.samples.iterator();
-
-        GpsSample sample = sampleIterator.next();
         long mapSize = MercatorProjection.getMapSize(zoomLevel, displayModel.getTileSize());
-        float x = (float) (MercatorProjection.longitudeToPixelX(sample.lon, mapSize) - topLeftPoint.x);
-        float y = (float) (MercatorProjection.latitudeToPixelY(sample.lat, mapSize) - topLeftPoint.y);
+        lastMapSize = mapSize;
+        LevelOfDetail levelOfDetail = getLevelOfDetail(mapSize);
 
         if (this.keepAligned) {
             this.paintStroke.setBitmapShaderShift(topLeftPoint);
@@ -174,20 +263,118 @@ public class WorkoutLayer extends Layer {
             this.paintStroke.setStrokeWidth(strokeWidth * scale);
         }
 
-        Path path = this.graphicFactory.createPath();
-        while (sampleIterator.hasNext()) {
-            path.moveTo(x, y);
-            sample = sampleIterator.next();
-            x = (float) (MercatorProjection.longitudeToPixelX(sample.lon, mapSize) - topLeftPoint.x);
-            y = (float) (MercatorProjection.latitudeToPixelY(sample.lat, mapSize) - topLeftPoint.y);
-            paintStroke.setColor(getColorFromSample(sample));
-            path.lineTo(x, y);
-            canvas.drawPath(path, this.paintStroke);
-            path.clear();
+        // Segments outside of the canvas aren't added to the paths
+        float margin = this.paintStroke.getStrokeWidth();
+        float minX = -margin;
+        float minY = -margin;
+        float maxX = canvas.getWidth() + margin;
+        float maxY = canvas.getHeight() + margin;
+
+        for (ColorPath colorPath : levelOfDetail.paths) {
+            Path path = this.graphicFactory.createPath();
+            boolean empty = true;
+            boolean penUp = true;
+            boolean hasPrevious = false;
+            float previousX = 0;
+            float previousY = 0;
+            for (int i = 0; i < colorPath.size; i++) {
+                int index = colorPath.indices[i];
+                if (index == RUN_END) {
+                    hasPrevious = false;
+                    penUp = true;
+                    continue;
+                }
+                float x = (float) (projectedTrack.getX(index) * mapSize - topLeftPoint.x);
+                float y = (float) (projectedTrack.getY(index) * mapSize - topLeftPoint.y);
+                if (hasPrevious) {
+                    boolean visible = !((x < minX && previousX < minX) || (x > maxX && previousX > maxX)
+                            || (y < minY && previousY < minY) || (y > maxY && previousY > maxY));
+                    if (visible) {
+                        if (penUp) {
+                            path.moveTo(previousX, previousY);
+                            penUp = false;
+                        }
+                        path.lineTo(x, y);
+                        empty = false;
+                    } else {
+                        penUp = true;
+                    }
+                }
+                previousX = x;
+                previousY = y;
+                hasPrevious = true;
+            }
+            if (!empty) {
+                paintStroke.setColor(colorPath.color);
+                canvas.drawPath(path, this.paintStroke);
+            }
         }
         this.paintStroke.setStrokeWidth(strokeWidth);
     }
 
+    private LevelOfDetail getLevelOfDetail(long mapSize) {
+        LevelOfDetail levelOfDetail = levelsOfDetail.get(mapSize);
+        if (levelOfDetail == null) {
+            levelOfDetail = createLevelOfDetail(mapSize);
+            levelsOfDetail.put(mapSize, levelOfDetail);
+        }
+        return levelOfDetail;
+    }
+
+    /**
+     * Splits the track into runs of segments with the same color, simplifies every run for the
+     * given map size and collects all runs of a color in one path.
+     */
+    private LevelOfDetail createLevelOfDetail(long mapSize) {
+        int[] colors = getSampleColors();
+        int size = projectedTrack.size();
+        boolean[] keep = new boolean[size];
+        double tolerance = SIMPLIFICATION_TOLERANCE / mapSize;
+
+        Map<Integer, ColorPath> paths = new LinkedHashMap<>();
+        int runStart = 0;
+        for (int i = 1; i < size; i++) {
+            // A segment gets the color of its end sample
+            boolean runEnds = i == size - 1 || colors[i + 1] != colors[i];
+            if (runEnds) {
+                projectedTrack.simplify(runStart, i, tolerance, keep);
+                ColorPath path = paths.get(colors[i]);
+                if (path == null) {
+                    path = new ColorPath(colors[i]);
+                    paths.put(colors[i], path);
+                }
+                for (int j = runStart; j <= i; j++) {
+                    if (keep[j]) {
+                        path.add(j);
+                    }
+                }
+                path.add(RUN_END);
+                runStart = i;
+            }
+        }
+        return new LevelOfDetail(new ArrayList<>(paths.values()));
+    }
+
+    private int[] getSampleColors() {
+        if (sampleColors == null) {
+            sampleColors = new int[projectedTrack.size()];
+            if (samples.isEmpty()) {
+                // Layer without samples, drawn in a single color
+                Arrays.fill(sampleColors, fallbackColoringStrategy.getColor(0));
+            } else {
+                for (int i = 0; i < sampleColors.length; i++) {
+                    sampleColors[i] = getColorFromSample(samples.get(i));
+                }
+            }
+        }
+        return sampleColors;
+    }
+
+    private synchronized void invalidateColors() {
+        sampleColors = null;
+        levelsOfDetail.clear();
+    }
+
     private int getColorFromSample(GpsSample sample) {
         if (coloringStrategy != null && sampleConverter != null) {
             double value = sampleConverter.getValue(sample);
@@ -197,25 +384,58 @@ public class WorkoutLayer extends Layer {
         }
     }
 
-    public void setColoringStrategy(GpsWorkout workout, ColoringStrategy coloringStrategy) {
+    public void setColoringStrategy(ColoringStrategy coloringStrategy) {
         this.coloringStrategy = coloringStrategy;
-        refreshColoringMinMax(workout);
+        refreshColoringMinMax();
     }
 
-    public void setSampleConverter(GpsWorkout workout, @Nullable SampleConverter sampleConverter) {
+    /**
+     * @param statistics statistics of the workout these samples belong to, used for the coloring range
+     */
+    public void setSampleConverter(SampleStatistics statistics, @Nullable SampleConverter sampleConverter) {
+        this.sampleStatistics = statistics;
         this.sampleConverter = sampleConverter;
-        refreshColoringMinMax(workout);
+        refreshColoringMinMax();
     }
 
-    private void refreshColoringMinMax(GpsWorkout workout) {
-        if (coloringStrategy != null && sampleConverter != null) {
-            coloringStrategy.setMin(sampleConverter.getMinValue(workout));
-            coloringStrategy.setMax(sampleConverter.getMaxValue(workout));
+    private void refreshColoringMinMax() {
+        if (coloringStrategy != null && sampleConverter != null && sampleStatistics != null) {
+            coloringStrategy.setMin(sampleConverter.getMinValue(sampleStatistics));
+            coloringStrategy.setMax(sampleConverter.getMaxValue(sampleStatistics));
         }
+        invalidateColors();
         requestRedraw();
     }
 
     public BoundingBox getBoundingBox() {
         return boundingBox;
     }
+
+    private static class LevelOfDetail {
+        final List<ColorPath> paths;
+
+        LevelOfDetail(List<ColorPath> paths) {
+            this.paths = paths;
+        }
+    }
+
+    /**
+     * Sample indices of all runs with the same color, separated by {@link #RUN_END}
+     */
+    private static class ColorPath {
+        final int color;
+        int[] indices = new int[64];
+        int size = 0;
+
+        ColorPath(int color) {
+            this.color = color;
+        }
+
+        void add(int index) {
+            if (size == indices.length) {
+                indices = Arrays.copyOf(indices, size * 2);
+            }
+            indices[size++] = index;
+        }
+    }
 }
@@ -39,6 +39,7 @@ import de.tadris.fitness.recording.event.HeartRateChangeEvent;
 import de.tadris.fitness.recording.event.HeartRateConnectionChangeEvent;
 import de.tadris.fitness.recording.event.WorkoutAutoStopEvent;
 import de.tadris.fitness.recording.gps.GpsWorkoutRecorder;
+import de.tadris.fitness.recording.hrv.RrIntervalRecorder;
 import de.tadris.fitness.ui.record.RecordWorkoutActivity;
 import de.tadris.fitness.util.WorkoutLogger;
 
@@ -73,6 +74,7 @@ public abstract class BaseWorkoutRecorder {
 
     protected int lastHeartRate = -1;
     protected int lastHRBatteryLevel = -1;
+    private volatile RrIntervalRecorder rrIntervalRecorder;
 
     // Temporarily saved the last interval that was triggered.
     // It will be added to the next recorded sample.
@@ -112,6 +114,7 @@ public abstract class BaseWorkoutRecorder {
         if (isActive()) {
             WorkoutLogger.log("WorkoutRecorder", "handleWatchdog " + this.getState().toString() + " samples: " + getSampleSize() + " instance: " + this);
             onWatchdog();
+            flushRrIntervalsIfDue();
             if (hasRecordedSomething()) {
                 long timeDiff = System.currentTimeMillis() - lastSampleTime;
                 if (autoTimeoutMs > 0 && timeDiff > autoTimeoutMs) {
@@ -184,6 +187,16 @@ public abstract class BaseWorkoutRecorder {
 
     public abstract void save();
 
+    /**
+     * Writes data that is still buffered to the database, e.g. before the recording service is destroyed
+     */
+    public void persistPendingData() {
+        RrIntervalRecorder recorder = rrIntervalRecorder;
+        if (recorder != null) {
+            recorder.flush();
+        }
+    }
+
     public abstract boolean isSaved();
 
     public void setComment(String comment) {
@@ -235,6 +248,41 @@ public abstract class BaseWorkoutRecorder {
     @Subscribe
     public void onHeartRateChange(HeartRateChangeEvent event) {
         lastHeartRate = event.heartRate;
+        if (state == RecordingState.RUNNING && event.rrIntervals != null && !event.rrIntervals.isEmpty()) {
+            getRrIntervalRecorder().addSensorIntervals(event.rrIntervals);
+        }
+    }
+
+    private synchronized RrIntervalRecorder getRrIntervalRecorder() {
+        if (rrIntervalRecorder == null) {
+            rrIntervalRecorder = new RrIntervalRecorder(Instance.getInstance(context).db, getWorkout().id);
+        }
+        return rrIntervalRecorder;
+    }
+
+    private void flushRrIntervalsIfDue() {
+        RrIntervalRecorder recorder = rrIntervalRecorder;
+        if (recorder != null) {
+            recorder.flushIfDue();
+        }
+    }
+
+    /**
+     * Stores the remaining RR intervals and the heart rate variability, has to be called after
+     * the workout was saved
+     */
+    protected void saveRrIntervals() {
+        RrIntervalRecorder recorder = rrIntervalRecorder;
+        if (recorder != null) {
+            recorder.finish(getWorkout().id);
+        }
+    }
+
+    protected void discardRrIntervals() {
+        RrIntervalRecorder recorder = rrIntervalRecorder;
+        if (recorder != null) {
+            recorder.discard();
+        }
     }
 
     @Subscribe
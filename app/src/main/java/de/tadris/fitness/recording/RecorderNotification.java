@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording;
+
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+
+import androidx.annotation.Nullable;
+import androidx.core.app.NotificationManagerCompat;
+
+import java.util.Date;
+import java.util.Objects;
+
+import de.tadris.fitness.BuildConfig;
+import de.tadris.fitness.Instance;
+import de.tadris.fitness.R;
+import de.tadris.fitness.ui.record.RecordWorkoutActivity;
+import de.tadris.fitness.util.NotificationHelper;
+
+/**
+ * Keeps the foreground notification of the {@link RecorderService} up to date. The builder and
+ * the content intent are reused and the notification is only posted again when its content
+ * changed.
+ */
+public class RecorderNotification {
+
+    /**
+     * Everything that is shown in the notification
+     */
+    public static class Content {
+
+        final BaseWorkoutRecorder.RecordingState state;
+        final long durationSeconds;
+        final Class<? extends RecordWorkoutActivity> activityClass;
+
+        public Content(BaseWorkoutRecorder recorder) {
+            this.state = recorder.getState();
+            this.durationSeconds = state != BaseWorkoutRecorder.RecordingState.IDLE ? recorder.getDuration() / 1000 : 0;
+            this.activityClass = recorder.getActivityClass();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Content content = (Content) o;
+            return durationSeconds == content.durationSeconds && state == content.state && activityClass == content.activityClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(state, durationSeconds, activityClass);
+        }
+    }
+
+    private final Context context;
+    private final int id;
+    private final Instance instance;
+    private final Notification.Builder builder;
+    private final Notification.BigTextStyle style = new Notification.BigTextStyle();
+    private final String debugSuffix;
+
+    private Class<? extends RecordWorkoutActivity> intentActivityClass;
+    @Nullable
+    private Content lastContent;
+
+    public RecorderNotification(Context context, int id, Date serviceStartTime) {
+        this.context = context;
+        this.id = id;
+        this.instance = Instance.getInstance(context);
+        this.builder = new Notification.Builder(context)
+                .setContentTitle(context.getText(R.string.trackerRunning))
+                .setStyle(style)
+                .setSmallIcon(R.drawable.notification);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationHelper.createChannels(context);
+            builder.setChannelId(NotificationHelper.CHANNEL_WORKOUT);
+        }
+        if (BuildConfig.DEBUG) {
+            debugSuffix = "\n\nServiceCreateTime: " + instance.userDateTimeUtils.formatTime(serviceStartTime);
+        } else {
+            debugSuffix = "";
+        }
+    }
+
+    /**
+     * Builds the notification for the given content, e.g. for startForeground()
+     */
+    public synchronized Notification build(Content content) {
+        String contentText = getContentText(content);
+        builder.setContentText(contentText);
+        style.bigText(contentText);
+        if (content.activityClass != intentActivityClass) {
+            builder.setContentIntent(createContentIntent(content.activityClass));
+            intentActivityClass = content.activityClass;
+        }
+        lastContent = content;
+        return builder.build();
+    }
+
+    /**
+     * Posts the notification if the content differs from the last one
+     */
+    public synchronized void update(Content content) {
+        if (content.equals(lastContent)) {
+            return;
+        }
+        NotificationManagerCompat.from(context).notify(id, build(content));
+    }
+
+    private String getContentText(Content content) {
+        if (content.state == BaseWorkoutRecorder.RecordingState.IDLE) {
+            return context.getText(R.string.trackerWaitingMessage) + debugSuffix;
+        }
+        return "\n" + getRecordingStateString(content.state) +
+                "\n" + context.getText(R.string.workoutDuration) + ": " +
+                instance.distanceUnitUtils.getHourMinuteSecondTime(content.durationSeconds * 1000) +
+                debugSuffix;
+    }
+
+    private String getRecordingStateString(BaseWorkoutRecorder.RecordingState state) {
+        switch (state) {
+            case IDLE:
+                return context.getString(R.string.recordingStateIdle);
+            case RUNNING:
+                return context.getString(R.string.recordingStateRunning);
+            case PAUSED:
+                return context.getString(R.string.recordingStatePaused);
+            case STOPPED:
+                return context.getString(R.string.recordingStateStopped);
+        }
+        return "";
+    }
+
+    private PendingIntent createContentIntent(Class<? extends RecordWorkoutActivity> activityClass) {
+        Intent recorderActivityIntent = new Intent(context, activityClass);
+        recorderActivityIntent.setAction(RecordWorkoutActivity.RESUME_ACTION);
+        int flag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? PendingIntent.FLAG_IMMUTABLE : 0;
+        return PendingIntent.getActivity(context, 0, recorderActivityIntent, flag);
+    }
+}
@@ -19,25 +19,20 @@
 
 package de.tadris.fitness.recording;
 
-import android.app.Notification;
-import android.app.PendingIntent;
 import android.app.Service;
 import android.content.Intent;
 import android.os.Build;
 import android.os.IBinder;
 import android.os.PowerManager;
 
-import androidx.core.app.NotificationManagerCompat;
-
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
-import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
-import de.tadris.fitness.BuildConfig;
 import de.tadris.fitness.Instance;
-import de.tadris.fitness.R;
 import de.tadris.fitness.data.RecordingType;
 import de.tadris.fitness.recording.component.AnnouncementComponent;
 import de.tadris.fitness.recording.component.ExerciseRecognitionComponent;
@@ -46,9 +41,6 @@ import de.tadris.fitness.recording.component.GpsComponent;
 import de.tadris.fitness.recording.component.HeartRateComponent;
 import de.tadris.fitness.recording.component.PressureComponent;
 import de.tadris.fitness.recording.component.RecorderServiceComponent;
-import de.tadris.fitness.recording.gps.GpsWorkoutRecorder;
-import de.tadris.fitness.ui.record.RecordWorkoutActivity;
-import de.tadris.fitness.util.NotificationHelper;
 import de.tadris.fitness.util.WorkoutLogger;
 
 /**
@@ -72,33 +64,8 @@ public class RecorderService extends Service {
 
     private final List<RecorderServiceComponent> components = new ArrayList<>();
 
-    protected WatchDogRunner mWatchdogRunner;
-    protected Thread mWatchdogThread = null;
-
-    private class WatchDogRunner implements Runnable {
-        boolean running = true;
-
-        @Override
-        public void run() {
-            running = true;
-            try {
-                while (running) {
-                    while (instance.recorder.handleWatchdog() && running) {
-                        updateNotification();
-                        checkAllComponents();
-                        Thread.sleep(WATCHDOG_INTERVAL);
-                    }
-                    Thread.sleep(WATCHDOG_INTERVAL); // Additional Retry Interval
-                }
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
-        }
-
-        public void stop() {
-            running = false;
-        }
-    }
+    private ScheduledExecutorService watchdogExecutor;
+    private volatile RecorderNotification notification;
 
     @Override
     public IBinder onBind(Intent arg0) {
@@ -111,64 +78,20 @@ public class RecorderService extends Service {
         super.onStartCommand(intent, flags, startId);
 
         serviceStartTime = new Date();
-        Notification notification = this.getNotification();
+        notification = new RecorderNotification(this, NOTIFICATION_ID, serviceStartTime);
 
-        startForeground(NOTIFICATION_ID, notification);
+        startForeground(NOTIFICATION_ID, notification.build(new RecorderNotification.Content(instance.recorder)));
 
         acquireWakelock();
 
         return START_STICKY;
     }
 
-    private String getRecordingStateString() {
-        switch (instance.recorder.getState()) {
-            case IDLE:
-                return getString(R.string.recordingStateIdle);
-            case RUNNING:
-                return getString(R.string.recordingStateRunning);
-            case PAUSED:
-                return getString(R.string.recordingStatePaused);
-            case STOPPED:
-                return getString(R.string.recordingStateStopped);
-        }
-        return "";
-    }
-
-    private Notification getNotification() {
-        String contentText = getText(R.string.trackerWaitingMessage).toString();
-        if (instance.recorder.getState() != GpsWorkoutRecorder.RecordingState.IDLE) {
-            contentText = String.format(Locale.getDefault(), "\n%s\n%s: %s",
-                    getRecordingStateString(),
-                    getText(R.string.workoutDuration),
-                    instance.distanceUnitUtils.getHourMinuteSecondTime(instance.recorder.getDuration()));
-        }
-        if (BuildConfig.DEBUG && serviceStartTime != null) {
-            contentText = String.format("%s\n\nServiceCreateTime: %s",
-                    contentText,
-                    instance.userDateTimeUtils.formatTime(serviceStartTime));
-        }
-        Notification.Builder builder = new Notification.Builder(this)
-                .setContentTitle(getText(R.string.trackerRunning))
-                .setContentText(contentText)
-                .setStyle(new Notification.BigTextStyle().bigText(contentText))
-                .setSmallIcon(R.drawable.notification);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationHelper.createChannels(this);
-            builder.setChannelId(NotificationHelper.CHANNEL_WORKOUT);
-        }
-
-        Intent recorderActivityIntent = new Intent(this, instance.recorder.getActivityClass());
-        recorderActivityIntent.setAction(RecordWorkoutActivity.RESUME_ACTION);
-        int flag = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M ? PendingIntent.FLAG_IMMUTABLE : 0;
-        PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, recorderActivityIntent, flag);
-        builder.setContentIntent(pendingIntent);
-
-        return builder.build();
-    }
-
     private void updateNotification() {
-        NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this);
-        notificationManager.notify(NOTIFICATION_ID, getNotification());
+        RecorderNotification notification = this.notification;
+        if (notification != null) {
+            notification.update(new RecorderNotification.Content(instance.recorder));
+        }
     }
 
     @Override
@@ -191,7 +114,11 @@ public class RecorderService extends Service {
         stopAllComponents();
 
         // Shutdown Watchdog
-        mWatchdogRunner.stop();
+        watchdogExecutor.shutdown();
+
+        if (instance != null) {
+            instance.recorder.persistPendingData();
+        }
 
         if (wakeLock != null && wakeLock.isHeld()) {
             wakeLock.release();
@@ -237,12 +164,21 @@ public class RecorderService extends Service {
     }
 
     private void initializeWatchdog() {
-        if (mWatchdogThread == null || !mWatchdogThread.isAlive()) {
-            mWatchdogRunner = new WatchDogRunner();
-            mWatchdogThread = new Thread(mWatchdogRunner, "WorkoutWatchdog");
+        if (watchdogExecutor == null || watchdogExecutor.isShutdown()) {
+            watchdogExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "WorkoutWatchdog"));
+            watchdogExecutor.scheduleWithFixedDelay(this::onWatchdog, 0, WATCHDOG_INTERVAL, TimeUnit.MILLISECONDS);
         }
-        if (!mWatchdogThread.isAlive()) {
-            mWatchdogThread.start();
+    }
+
+    private void onWatchdog() {
+        try {
+            if (instance.recorder.handleWatchdog()) {
+                updateNotification();
+                checkAllComponents();
+            }
+        } catch (RuntimeException e) {
+            // An exception would cancel all further runs
+            WorkoutLogger.log(TAG, "Watchdog failed: " + e);
         }
     }
 
@@ -20,23 +20,33 @@
 package de.tadris.fitness.recording.component
 
 import android.content.Context
-import android.hardware.Sensor
-import android.hardware.SensorEvent
-import android.hardware.SensorEventListener
 import android.hardware.SensorManager
+import android.os.Handler
+import android.os.Looper
 import de.tadris.fitness.Instance
 import de.tadris.fitness.recording.RecorderService
 import de.tadris.fitness.recording.indoor.exercise.ExerciseRecognizer
+import de.tadris.fitness.recording.sensor.SensorPipeline
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
 import de.tadris.fitness.util.WorkoutLogger
 import org.greenrobot.eventbus.EventBus
 
 /**
- * Activity recognition for indoor workouts
+ * Activity recognition for indoor workouts. Sensor samples go through a [SensorPipeline]
+ * directly to the recognizer, only recognized repetitions are posted to the EventBus.
  */
-class ExerciseRecognitionComponent : RecorderServiceComponent, SensorEventListener {
+class ExerciseRecognitionComponent : RecorderServiceComponent, SensorSampleConsumer {
 
-    private var sensorManager: SensorManager? = null
+    private var pipeline: SensorPipeline? = null
     private var exerciseRecognizer: ExerciseRecognizer? = null
+    @Volatile
+    private var recognizerStarted = false
+    private val mainHandler = Handler(Looper.getMainLooper())
+
+    /**
+     * Additionally receives all samples on the pipeline thread, for debugging
+     */
+    var sampleListener: SensorSampleConsumer? = null
 
     override fun register(service: RecorderService) {
         init(service as Context)
@@ -45,7 +55,11 @@ class ExerciseRecognitionComponent : RecorderServiceComponent, SensorEventListen
                 "RecoderService",
                 "Using ${exerciseRecognizer!!.javaClass.simpleName} recognizer"
             )
-            exerciseRecognizer!!.start()
+            exerciseRecognizer!!.repetitionListener = { event ->
+                // Keep delivering on the main thread like before
+                mainHandler.post { EventBus.getDefault().post(event) }
+            }
+            recognizerStarted = true
             exerciseRecognizer!!.getActivatedSensors().forEach {
                 activateSensor(it)
             }
@@ -55,28 +69,44 @@ class ExerciseRecognitionComponent : RecorderServiceComponent, SensorEventListen
     }
 
     fun init(context: Context) {
-        sensorManager = context.getSystemService(Context.SENSOR_SERVICE) as SensorManager
+        val sensorManager = context.getSystemService(Context.SENSOR_SERVICE) as SensorManager
+        pipeline = SensorPipeline(sensorManager, this)
         exerciseRecognizer =
             ExerciseRecognizer.findByType(Instance.getInstance(context).recorder.workout.workoutTypeId)
     }
 
     override fun unregister() {
-        sensorManager?.unregisterListener(this)
-        exerciseRecognizer?.stop()
+        unregister(null)
+    }
+
+    /**
+     * @param onDrained called on the pipeline thread after the last samples were delivered
+     */
+    fun unregister(onDrained: (() -> Unit)?) {
+        val pipeline = pipeline
+        if (pipeline != null) {
+            pipeline.unregister(onDrained)
+        } else {
+            onDrained?.invoke()
+        }
+        recognizerStarted = false
     }
 
     fun activateSensor(sensorOption: FitoTrackSensorOption) {
-        val sensor = sensorManager?.getDefaultSensor(sensorOption.sensorType)
-        if (sensor != null) {
+        val registered = pipeline?.register(
+            sensorOption.sensorType,
+            sensorOption.samplingPeriodUs,
+            sensorOption.maxReportLatencyUs
+        ) ?: false
+        if (registered) {
             WorkoutLogger.log("RecoderService", "Activating sensor ${sensorOption.name}")
-            sensorManager?.registerListener(this, sensor, SensorManager.SENSOR_DELAY_GAME)
         }
     }
 
-    override fun onSensorChanged(event: SensorEvent?) {
-        if (event == null) return
-        EventBus.getDefault().post(event)
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (recognizerStarted) {
+            exerciseRecognizer?.onSensorSample(sensorType, timestamp, x, y, z)
+        }
+        sampleListener?.onSensorSample(sensorType, timestamp, x, y, z)
     }
-
-    override fun onAccuracyChanged(sensor: Sensor?, accuracy: Int) {}
 }
\ No newline at end of file
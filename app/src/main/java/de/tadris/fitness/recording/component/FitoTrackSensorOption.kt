@@ -20,10 +20,18 @@
 package de.tadris.fitness.recording.component
 
 import android.hardware.Sensor
+import android.hardware.SensorManager
 
-enum class FitoTrackSensorOption(val sensorType: Int) {
-    ACCELERATION_WITHOUT_G(Sensor.TYPE_LINEAR_ACCELERATION),
-    ACCELERATION(Sensor.TYPE_ACCELEROMETER),
+/**
+ * @param maxReportLatencyUs how long the hardware may batch samples before reporting them
+ */
+enum class FitoTrackSensorOption(
+    val sensorType: Int,
+    val samplingPeriodUs: Int = SensorManager.SENSOR_DELAY_GAME,
+    val maxReportLatencyUs: Int = 0
+) {
+    ACCELERATION_WITHOUT_G(Sensor.TYPE_LINEAR_ACCELERATION, maxReportLatencyUs = 200_000),
+    ACCELERATION(Sensor.TYPE_ACCELEROMETER, maxReportLatencyUs = 200_000),
     STEPS(Sensor.TYPE_STEP_DETECTOR),
     PROXIMITY(Sensor.TYPE_PROXIMITY)
 }
\ No newline at end of file
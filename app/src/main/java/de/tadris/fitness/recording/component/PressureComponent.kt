@@ -21,46 +21,57 @@ package de.tadris.fitness.recording.component
 
 import android.content.Context
 import android.hardware.Sensor
-import android.hardware.SensorEvent
-import android.hardware.SensorEventListener
 import android.hardware.SensorManager
 import de.tadris.fitness.recording.RecorderService
 import de.tadris.fitness.recording.event.PressureChangeEvent
+import de.tadris.fitness.recording.sensor.SensorPipeline
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
 import de.tadris.fitness.util.WorkoutLogger
 import org.greenrobot.eventbus.EventBus
 
-class PressureComponent : RecorderServiceComponent, SensorEventListener {
+/**
+ * Reads the pressure sensor in batches. Subscribers only need the current pressure, so only the
+ * latest reading of each batch is posted as a [PressureChangeEvent].
+ */
+class PressureComponent : RecorderServiceComponent, SensorSampleConsumer {
 
     companion object {
         const val TAG = "PressureComponent"
+        private const val MAX_REPORT_LATENCY_US = 1_000_000
     }
 
-    private var sensorManager: SensorManager? = null
+    private var pipeline: SensorPipeline? = null
 
-    private var pressureSensor: Sensor? = null
+    private var lastPressure = Float.NaN
 
     override fun register(service: RecorderService) {
         register(service as Context)
     }
 
     fun register(context: Context) {
-        sensorManager = context.getSystemService(Context.SENSOR_SERVICE) as SensorManager?
-        pressureSensor = sensorManager?.getDefaultSensor(Sensor.TYPE_PRESSURE)
-        if (pressureSensor != null) {
+        val sensorManager = context.getSystemService(Context.SENSOR_SERVICE) as SensorManager
+        val pipeline = SensorPipeline(sensorManager, this)
+        if (pipeline.register(Sensor.TYPE_PRESSURE, SensorManager.SENSOR_DELAY_NORMAL, MAX_REPORT_LATENCY_US)) {
             WorkoutLogger.log(TAG, "started Pressure Sensor")
-            sensorManager?.registerListener(this, pressureSensor, SensorManager.SENSOR_DELAY_NORMAL)
+            this.pipeline = pipeline
         } else {
             WorkoutLogger.log(TAG, "no Pressure Sensor Available")
         }
     }
 
     override fun unregister() {
-        sensorManager?.unregisterListener(this)
+        pipeline?.unregister()
+        pipeline = null
     }
 
-    override fun onSensorChanged(event: SensorEvent) {
-        EventBus.getDefault().post(PressureChangeEvent(event.values[0]))
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        lastPressure = x
     }
 
-    override fun onAccuracyChanged(sensor: Sensor?, accuracy: Int) { }
+    override fun onSamplesDrained() {
+        if (!lastPressure.isNaN()) {
+            EventBus.getDefault().post(PressureChangeEvent(lastPressure))
+            lastPressure = Float.NaN
+        }
+    }
 }
\ No newline at end of file
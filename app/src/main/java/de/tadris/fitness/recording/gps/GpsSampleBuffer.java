@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.gps;
+
+import android.hardware.SensorManager;
+
+import org.mapsforge.core.model.LatLong;
+
+import java.util.Arrays;
+
+import de.tadris.fitness.data.GpsSample;
+
+/**
+ * Column oriented copy of the recorded samples using primitive arrays.
+ * <p>
+ * Distance and ascent are updated when a sample is appended, so reading them
+ * doesn't depend on the number of recorded samples. Not thread safe.
+ */
+public class GpsSampleBuffer {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int size = 0;
+    private long[] absoluteTimes = new long[INITIAL_CAPACITY];
+    private long[] relativeTimes = new long[INITIAL_CAPACITY];
+    private double[] lats = new double[INITIAL_CAPACITY];
+    private double[] lons = new double[INITIAL_CAPACITY];
+    private double[] elevations = new double[INITIAL_CAPACITY];
+    private float[] pressures = new float[INITIAL_CAPACITY];
+    private double[] speeds = new double[INITIAL_CAPACITY];
+    private int[] heartRates = new int[INITIAL_CAPACITY];
+    // Distance along the track from the first sample to the sample at the index
+    private double[] distances = new double[INITIAL_CAPACITY];
+
+    private LatLong lastLatLong;
+    private double smoothedElevation;
+    private double ascent;
+
+    public void add(GpsSample sample) {
+        ensureCapacity(size + 1);
+        LatLong latLong = sample.toLatLong();
+        absoluteTimes[size] = sample.absoluteTime;
+        relativeTimes[size] = sample.relativeTime;
+        lats[size] = sample.lat;
+        lons[size] = sample.lon;
+        elevations[size] = sample.elevation;
+        pressures[size] = sample.pressure;
+        speeds[size] = sample.speed;
+        heartRates[size] = sample.heartRate;
+
+        double elevation = SensorManager.getAltitude(SensorManager.PRESSURE_STANDARD_ATMOSPHERE, sample.pressure);
+        if (size == 0) {
+            distances[size] = 0;
+            smoothedElevation = elevation;
+        } else {
+            distances[size] = distances[size - 1] + lastLatLong.sphericalDistance(latLong);
+            elevation = (elevation + smoothedElevation * 9) / 10; // Slow floating average
+            if (elevation > smoothedElevation) {
+                ascent += elevation - smoothedElevation;
+            }
+            smoothedElevation = elevation;
+        }
+        lastLatLong = latLong;
+        size++;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= absoluteTimes.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, absoluteTimes.length * 2);
+        absoluteTimes = Arrays.copyOf(absoluteTimes, newCapacity);
+        relativeTimes = Arrays.copyOf(relativeTimes, newCapacity);
+        lats = Arrays.copyOf(lats, newCapacity);
+        lons = Arrays.copyOf(lons, newCapacity);
+        elevations = Arrays.copyOf(elevations, newCapacity);
+        pressures = Arrays.copyOf(pressures, newCapacity);
+        speeds = Arrays.copyOf(speeds, newCapacity);
+        heartRates = Arrays.copyOf(heartRates, newCapacity);
+        distances = Arrays.copyOf(distances, newCapacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getAbsoluteTime(int index) {
+        return absoluteTimes[index];
+    }
+
+    public long getRelativeTime(int index) {
+        return relativeTimes[index];
+    }
+
+    public double getLat(int index) {
+        return lats[index];
+    }
+
+    public double getLon(int index) {
+        return lons[index];
+    }
+
+    public double getElevation(int index) {
+        return elevations[index];
+    }
+
+    public float getPressure(int index) {
+        return pressures[index];
+    }
+
+    public double getSpeed(int index) {
+        return speeds[index];
+    }
+
+    public int getHeartRate(int index) {
+        return heartRates[index];
+    }
+
+    /**
+     * @return distance along the track in meters
+     */
+    public double getDistance() {
+        return size == 0 ? 0 : distances[size - 1];
+    }
+
+    /**
+     * @return ascent in meters, calculated from the smoothed pressure altitude
+     */
+    public double getAscent() {
+        return ascent;
+    }
+
+    /**
+     * Average speed of the samples recorded after the given relative time and not before the given absolute time.
+     * Times of appended samples never decrease, so the first matching sample is found by binary search
+     * and the distance is taken from the running totals.
+     *
+     * @return speed in m/s, 0 if less than two samples match
+     */
+    public double getAverageSpeedSince(long minRelativeTime, long minAbsoluteTime) {
+        if (size < 2) {
+            return 0;
+        }
+        int last = size - 1;
+        int first = Math.max(firstIndexAfter(relativeTimes, minRelativeTime), firstIndexAtLeast(absoluteTimes, minAbsoluteTime));
+        if (first >= last) {
+            return 0;
+        }
+        long timeDiff = relativeTimes[last] - relativeTimes[first];
+        if (timeDiff == 0) {
+            return 0;
+        }
+        return (distances[last] - distances[first]) / (timeDiff / 1000d);
+    }
+
+    private int firstIndexAfter(long[] values, long value) {
+        return firstIndexAtLeast(values, value == Long.MAX_VALUE ? value : value + 1);
+    }
+
+    private int firstIndexAtLeast(long[] values, long value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (values[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
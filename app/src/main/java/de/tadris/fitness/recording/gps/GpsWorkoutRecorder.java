@@ -21,7 +21,6 @@ package de.tadris.fitness.recording.gps;
 
 import android.content.Context;
 import android.graphics.Color;
-import android.hardware.SensorManager;
 import android.location.Location;
 import android.os.SystemClock;
 
@@ -35,6 +34,7 @@ import java.util.List;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsTrackStorage;
 import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.GpsWorkoutData;
 import de.tadris.fitness.data.RecordingType;
@@ -55,9 +55,10 @@ import de.tadris.fitness.util.calorie.CalorieCalculator;
 public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
 
     private final GpsWorkout workout;
+    // Sample objects are needed by the saver, all live information is read from the buffer
     private final List<GpsSample> samples = new ArrayList<>();
+    private final GpsSampleBuffer sampleBuffer = new GpsSampleBuffer();
     private final GpsWorkoutSaver workoutSaver;
-    private double distance = 0;
 
     private boolean saved = false;
 
@@ -111,7 +112,6 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
         WorkoutLogger.log("WorkoutRecorder", "Trying to reconstruct previously recorded workout");
         lastResume = workout.start;
         lastSampleTime = workout.start;
-        LatLong prefLocation = null;
         for (GpsSample sample : samples) {
             long timeDiff = sample.absoluteTime - lastSampleTime;
             if (timeDiff > PAUSE_TIME) { // Handle Pause
@@ -119,11 +119,7 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
                 lastResume = sample.absoluteTime; // Workout resumed at new sample
                 pauseTime += timeDiff - PAUSE_TIME; // Add Time Diff without Pause Time
             }
-            if (prefLocation != null) { //Update Distance
-                double sampleDistance = prefLocation.sphericalDistance(sample.toLatLong());
-                distance += sampleDistance;
-            }
-            prefLocation = sample.toLatLong();
+            sampleBuffer.add(sample); // Update distance and ascent
             lastSampleTime = sample.absoluteTime;
             time = sample.relativeTime; // Update Times Always To Sample RelTime
         }
@@ -185,6 +181,19 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
     @Override
     protected void onWatchdog() {
         checkSignalState();
+        workoutSaver.flushSamplesIfDue();
+    }
+
+    @Override
+    public void pause() {
+        super.pause();
+        workoutSaver.flushSamples();
+    }
+
+    @Override
+    public void persistPendingData() {
+        super.persistPendingData();
+        workoutSaver.flushSamples();
     }
 
     @Override
@@ -229,6 +238,8 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
         synchronized (samples) {
             workoutSaver.finalizeWorkout();
         }
+        GpsTrackStorage.compactIfEnabled(context, workout.id);
+        saveRrIntervals();
         Instance.getInstance(context).planner.onWorkoutRecorded(workout);
         saved = true;
     }
@@ -248,14 +259,14 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
         Location location = e.location;
         lastFix = location;
         if (isActive()) {
-            double distance = 0;
             if (getSampleCount() > 0) {
                 // Checks whether the minimum distance to last sample was reached
                 // and if the time difference to the last sample is too small
                 synchronized (samples) {
-                    GpsSample lastSample = samples.get(samples.size() - 1);
-                    distance = Math.abs(GpsComponent.locationToLatLong(location).sphericalDistance(lastSample.toLatLong()));
-                    long timediff = Math.abs(lastSample.absoluteTime - LocationUtils.getTimeFor(location));
+                    int last = sampleBuffer.size() - 1;
+                    LatLong lastLatLong = new LatLong(sampleBuffer.getLat(last), sampleBuffer.getLon(last));
+                    double distance = Math.abs(GpsComponent.locationToLatLong(location).sphericalDistance(lastLatLong));
+                    long timediff = Math.abs(sampleBuffer.getAbsoluteTime(last) - LocationUtils.getTimeFor(location));
                     if (distance < workout.getWorkoutType(context).minDistance || timediff < 500) {
                         return;
                     }
@@ -263,7 +274,6 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
             }
             lastSampleTime = System.currentTimeMillis();
             if (state == RecordingState.RUNNING && LocationUtils.getTimeFor(location) > workout.start) {
-                this.distance += distance;
                 addToSamples(location);
             }
         }
@@ -285,23 +295,21 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
             if (workoutSaver == null) {
                 throw new RuntimeException("Missing WorkoutSaver for Recorder");
             }
-            workoutSaver.addSample(sample); // already persist to db
+            workoutSaver.addSample(sample); // queued for the database
             samples.add(sample); // add to recorder list
+            sampleBuffer.add(sample);
         }
+        workoutSaver.flushSamplesIfDue();
     }
 
-    private GpsSample getLastSample() {
+    private double getDistance() {
         synchronized (samples) {
-            if (samples.size() > 0) {
-                return samples.get(samples.size() - 1);
-            } else {
-                return null;
-            }
+            return sampleBuffer.getDistance();
         }
     }
 
     public int getDistanceInMeters() {
-        return (int) distance;
+        return (int) getDistance();
     }
 
     @Subscribe
@@ -323,29 +331,14 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
     }
 
     public int getAscent() {
-        double ascent = 0;
         synchronized (samples) {
-            if (samples.size() == 0) {
-                return 0;
-            }
-            double lastElevation = -1;
-            for (GpsSample sample : samples) {
-                double elevation = SensorManager.getAltitude(SensorManager.PRESSURE_STANDARD_ATMOSPHERE, sample.pressure);
-                if (lastElevation == -1) lastElevation = elevation;
-                elevation = (elevation + lastElevation * 9) / 10; // Slow floating average
-                if (elevation > lastElevation) {
-                    ascent += elevation - lastElevation;
-                }
-                lastElevation = elevation;
-            }
+            return (int) sampleBuffer.getAscent();
         }
-        System.out.println(ascent);
-        return (int) ascent;
     }
 
     // in m/s
     public double getAvgSpeed() {
-        return distance / (double) (getDuration() / 1000);
+        return getDistance() / (double) (getDuration() / 1000);
     }
 
     public double getAvgPace() {
@@ -359,53 +352,29 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
 
     // in m/s
     public double getAvgSpeedTotal() {
-        return distance / (double) (getTimeSinceStart() / 1000);
+        return getDistance() / (double) (getTimeSinceStart() / 1000);
     }
 
     // in m/s
     public double getCurrentSpeed() {
-        GpsSample lastSample = getLastSample();
-        if (lastSample != null) {
-            if (!useAverageForCurrentSpeed || currentSpeedAverageTime == 0 || samples.size() == 1) {
-                return lastSample.speed;
+        synchronized (samples) {
+            int size = sampleBuffer.size();
+            if (size == 0) {
+                return 0;
+            } else if (!useAverageForCurrentSpeed || currentSpeedAverageTime == 0 || size == 1) {
+                return sampleBuffer.getSpeed(size - 1);
             } else {
                 return getCurrentSpeed(currentSpeedAverageTime);
             }
-        } else {
-            return 0;
         }
     }
 
     // Returns average speed within the given time in m/s
     public double getCurrentSpeed(int time) {
+        long minTime = getDuration() - time;
         synchronized (samples) {
-            if (samples.size() < 2) {
-                return 0;
-            }
-            long currentTime = getDuration();
-            long minTime = currentTime - time;
-            double distance = 0;
-            GpsSample lastSample = samples.get(samples.size() - 1);
-            GpsSample firstSample = lastSample;
-            for (int i = samples.size() - 1; i >= 0; i--) { // Go backwards
-                GpsSample currentSample = samples.get(i);
-                if (lastResume != 0 && currentSample.absoluteTime < lastResume) {
-                    break; // We're past the last time we resumed, avoid large jumps during pauses
-                } else if (currentSample.relativeTime <= minTime) {
-                    break; // We can exit the loop now as every other sample was recorded earlier
-                }
-
-                distance += currentSample.toLatLong().sphericalDistance(lastSample.toLatLong());
-                lastSample = currentSample;
-            }
-            // Keep last speed even when losing GPS signal
-            // long timeDiff = lastGpsTime - lastSample.absoluteTime;
-            // long timeDiff = currentTime - lastSample.relativeTime;
-            long timeDiff = firstSample.relativeTime - lastSample.relativeTime;
-            if (timeDiff == 0) {
-                return 0;
-            }
-            return distance / (timeDiff / 1000d);
+            // Stop at the last time we resumed, avoid large jumps during pauses
+            return sampleBuffer.getAverageSpeedSince(minTime, lastResume != 0 ? lastResume : Long.MIN_VALUE);
         }
     }
 
@@ -413,6 +382,7 @@ public class GpsWorkoutRecorder extends BaseWorkoutRecorder {
     public void discard() {
         WorkoutLogger.log("WorkoutRecorder", "Discarding workout");
         workoutSaver.discardWorkout();
+        discardRrIntervals();
     }
 
     public enum GpsState {
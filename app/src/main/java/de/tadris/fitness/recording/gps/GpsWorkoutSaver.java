@@ -33,6 +33,7 @@ import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.GpsWorkoutData;
+import de.tadris.fitness.data.StatsRollupManager;
 import de.tadris.fitness.data.preferences.UserMeasurements;
 import de.tadris.fitness.util.AltitudeCorrection;
 import de.tadris.fitness.util.WorkoutCalculator;
@@ -48,14 +49,29 @@ public class GpsWorkoutSaver {
     protected final List<GpsSample> samples;
     protected final AppDatabase db;
 
+    // Type and start as last written to the database, needed to update the statistics
+    private String storedTypeId;
+    private long storedStart;
+
+    // Recorded samples are written in batches, a crash loses at most one batch
+    private static final int SAMPLE_FLUSH_COUNT = 20;
+    private static final long SAMPLE_FLUSH_INTERVAL = 10_000; // 10 seconds
+    private final List<GpsSample> pendingSamples = new ArrayList<>();
+    private long lastSampleFlush = System.currentTimeMillis();
+    // Held while writing, so batches are stored before the samples are modified or deleted
+    private final Object flushLock = new Object();
+
     public GpsWorkoutSaver(Context context, GpsWorkoutData data) {
         this.context = context;
         this.workout = data.getWorkout();
         this.samples = data.getSamples();
         this.db = Instance.getInstance(context).db;
+        this.storedTypeId = workout.workoutTypeId;
+        this.storedStart = workout.start;
     }
 
     public void finalizeWorkout() {
+        flushSamples();
         clearSamplesWithSameTime(true);
 
         calculateData(true);
@@ -64,9 +80,18 @@ public class GpsWorkoutSaver {
     }
 
     public void discardWorkout() {
-        deleteWorkoutAndSamples();
+        synchronized (flushLock) {
+            synchronized (pendingSamples) {
+                pendingSamples.clear();
+            }
+            deleteWorkoutAndSamples();
+        }
     }
 
+    /**
+     * Assigns the ids and queues the sample for the database.
+     * It's written by the next {@link #flushSamplesIfDue()} or {@link #flushSamples()}.
+     */
     public synchronized void addSample(GpsSample sample) {
         if (samples.size() == 0) {
             sample.id = this.workout.id + this.samples.size();
@@ -74,7 +99,38 @@ public class GpsWorkoutSaver {
             sample.id = getLastSample().id + 1;
         }
         sample.workoutId = this.workout.id;
-        db.gpsWorkoutDao().insertSample(sample);
+        synchronized (pendingSamples) {
+            pendingSamples.add(sample);
+        }
+    }
+
+    public void flushSamplesIfDue() {
+        boolean due;
+        synchronized (pendingSamples) {
+            due = pendingSamples.size() >= SAMPLE_FLUSH_COUNT
+                    || (!pendingSamples.isEmpty() && System.currentTimeMillis() - lastSampleFlush >= SAMPLE_FLUSH_INTERVAL);
+        }
+        if (due) {
+            flushSamples();
+        }
+    }
+
+    /**
+     * Writes all queued samples in one transaction. The queue is only locked while taking the
+     * batch, so {@link #addSample(GpsSample)} doesn't wait for the database.
+     */
+    public void flushSamples() {
+        synchronized (flushLock) {
+            GpsSample[] batch;
+            synchronized (pendingSamples) {
+                batch = pendingSamples.toArray(new GpsSample[0]);
+                pendingSamples.clear();
+                lastSampleFlush = System.currentTimeMillis();
+            }
+            if (batch.length > 0) {
+                db.gpsWorkoutDao().insertSamples(batch);
+            }
+        }
     }
 
     private GpsSample getLastSample() {
@@ -91,7 +147,14 @@ public class GpsWorkoutSaver {
     }
 
     protected void setIds() {
-        workout.id = System.nanoTime();
+        setIds(System.nanoTime());
+    }
+
+    /**
+     * Sets the workout id, the samples get the following ids.
+     */
+    protected void setIds(long id) {
+        workout.id = id;
         int i = 0;
         for (GpsSample sample : samples) {
             i++;
@@ -240,11 +303,8 @@ public class GpsWorkoutSaver {
         // Set the median sea level elevation value for all samples
         // Please see the AltitudeCorrection.java for more information
         try {
-            int lat = (int) Math.round(samples.get(0).lat);
-            int lon = (int) Math.round(samples.get(0).lon);
-            AltitudeCorrection correction = new AltitudeCorrection(context, lat, lon);
             for (GpsSample sample : samples) {
-                sample.elevationMSL = correction.getHeightOverSeaLevel(sample.elevation);
+                sample.elevationMSL = sample.elevation - AltitudeCorrection.getOffset(context, sample.lat, sample.lon);
             }
         } catch (IOException e) {
             // If we can't read the file, we cannot correct the values
@@ -316,10 +376,12 @@ public class GpsWorkoutSaver {
 
     protected void storeInDatabase() {
         db.gpsWorkoutDao().insertWorkoutAndSamples(workout, samples.toArray(new GpsSample[0]));
+        updateStatistics();
     }
 
     protected void storeWorkoutInDatabase() {
         db.gpsWorkoutDao().insertWorkout(workout);
+        updateStatistics();
     }
 
     protected void updateWorkoutAndSamples() {
@@ -333,9 +395,17 @@ public class GpsWorkoutSaver {
 
     protected void updateWorkoutInDatabase() {
         db.gpsWorkoutDao().updateWorkout(workout);
+        updateStatistics();
     }
 
     protected void deleteWorkoutAndSamples() {
         db.gpsWorkoutDao().deleteWorkoutAndSamples(workout, samples.toArray(new GpsSample[0]));
+        updateStatistics();
+    }
+
+    private void updateStatistics() {
+        new StatsRollupManager(context).onWorkoutChanged(storedTypeId, storedStart, workout);
+        storedTypeId = workout.workoutTypeId;
+        storedStart = workout.start;
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.hrv;
+
+import de.tadris.fitness.data.HeartRateVariability;
+
+/**
+ * Calculates heart rate variability metrics from a stream of RR intervals in constant time and
+ * memory per beat.
+ * <p>
+ * Intervals outside of physiological limits or deviating more than 20% from the last accepted one
+ * are counted as artifacts and ignored. Successive differences across an artifact are skipped.
+ * If too many intervals in a row deviate, the rhythm is assumed to have changed and the next one
+ * is accepted as the new reference.
+ */
+public class HeartRateVariabilityCalculator {
+
+    public static final int MIN_INTERVAL = 300; // ms, 200 bpm
+    public static final int MAX_INTERVAL = 2000; // ms, 30 bpm
+    private static final double MAX_DEVIATION = 0.2;
+    private static final int MAX_CONSECUTIVE_DEVIATIONS = 5;
+
+    private int beatCount = 0;
+    private int artifactCount = 0;
+    private int consecutiveDeviations = 0;
+    private int reference = -1; // last accepted interval
+    private int previous = -1; // last interval if it was accepted, -1 after an artifact
+
+    // Welford's online algorithm for mean and variance
+    private int acceptedCount = 0;
+    private double mean = 0;
+    private double squaredDeviationSum = 0;
+
+    private int differenceCount = 0;
+    private double squaredDifferenceSum = 0;
+
+    /**
+     * @param interval RR interval in ms
+     * @return whether the interval was accepted
+     */
+    public boolean add(int interval) {
+        beatCount++;
+        if (interval < MIN_INTERVAL || interval > MAX_INTERVAL) {
+            onArtifact();
+            return false;
+        }
+        if (reference != -1 && Math.abs(interval - reference) > MAX_DEVIATION * reference) {
+            consecutiveDeviations++;
+            if (consecutiveDeviations <= MAX_CONSECUTIVE_DEVIATIONS) {
+                onArtifact();
+                return false;
+            }
+            previous = -1; // start over with this interval
+        }
+        consecutiveDeviations = 0;
+
+        acceptedCount++;
+        double delta = interval - mean;
+        mean += delta / acceptedCount;
+        squaredDeviationSum += delta * (interval - mean);
+
+        if (previous != -1) {
+            double difference = interval - previous;
+            squaredDifferenceSum += difference * difference;
+            differenceCount++;
+        }
+        previous = interval;
+        reference = interval;
+        return true;
+    }
+
+    private void onArtifact() {
+        artifactCount++;
+        previous = -1;
+    }
+
+    public int getBeatCount() {
+        return beatCount;
+    }
+
+    public int getArtifactCount() {
+        return artifactCount;
+    }
+
+    public double getMeanInterval() {
+        return acceptedCount > 0 ? mean : Double.NaN;
+    }
+
+    public double getSdnn() {
+        return acceptedCount > 1 ? Math.sqrt(squaredDeviationSum / (acceptedCount - 1)) : Double.NaN;
+    }
+
+    public double getRmssd() {
+        return differenceCount > 0 ? Math.sqrt(squaredDifferenceSum / differenceCount) : Double.NaN;
+    }
+
+    public boolean hasResult() {
+        return differenceCount > 0;
+    }
+
+    public HeartRateVariability toHeartRateVariability(long workoutId) {
+        HeartRateVariability variability = new HeartRateVariability();
+        variability.workoutId = workoutId;
+        variability.beatCount = beatCount;
+        variability.artifactCount = artifactCount;
+        variability.meanInterval = getMeanInterval();
+        variability.sdnn = getSdnn();
+        variability.rmssd = getRmssd();
+        return variability;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.hrv;
+
+import java.util.List;
+
+import de.tadris.fitness.data.AppDatabase;
+import de.tadris.fitness.data.HeartRateVariabilityDao;
+import de.tadris.fitness.data.RrIntervalBatch;
+import de.tadris.fitness.util.WorkoutLogger;
+
+/**
+ * Collects the RR intervals of a workout while recording. They are fed into a
+ * {@link HeartRateVariabilityCalculator} and written to the database in batches, a crash loses
+ * at most one batch.
+ */
+public class RrIntervalRecorder {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long FLUSH_INTERVAL = 30_000; // 30 seconds
+
+    private final HeartRateVariabilityDao dao;
+    private final long workoutId;
+    private final HeartRateVariabilityCalculator calculator = new HeartRateVariabilityCalculator();
+
+    private final int[] pending = new int[BATCH_SIZE];
+    private int pendingCount = 0;
+    private long pendingStartTime;
+    private long lastFlush = System.currentTimeMillis();
+
+    /**
+     * Continues with the intervals that are already stored for the workout, e.g. after the
+     * recording was restored
+     */
+    public RrIntervalRecorder(AppDatabase db, long workoutId) {
+        this.dao = db.heartRateVariabilityDao();
+        this.workoutId = workoutId;
+        for (RrIntervalBatch batch : dao.getBatches(workoutId)) {
+            for (int interval : batch.getIntervals()) {
+                calculator.add(interval);
+            }
+        }
+    }
+
+    /**
+     * @param intervals RR intervals as reported by the heart rate measurement characteristic, in
+     *                  1/1024 seconds
+     */
+    public synchronized void addSensorIntervals(List<Integer> intervals) {
+        for (Integer interval : intervals) {
+            add((int) Math.round(interval * 1000d / 1024d));
+        }
+    }
+
+    /**
+     * @param interval RR interval in ms
+     */
+    public synchronized void add(int interval) {
+        if (pendingCount == pending.length) {
+            flush();
+        }
+        if (pendingCount == 0) {
+            pendingStartTime = System.currentTimeMillis();
+        }
+        pending[pendingCount++] = interval;
+        calculator.add(interval);
+    }
+
+    public synchronized void flushIfDue() {
+        if (pendingCount > 0 && System.currentTimeMillis() - lastFlush >= FLUSH_INTERVAL) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        if (pendingCount > 0) {
+            dao.insertBatch(new RrIntervalBatch(workoutId, pendingStartTime, pending, pendingCount));
+            pendingCount = 0;
+        }
+        lastFlush = System.currentTimeMillis();
+    }
+
+    /**
+     * Writes the remaining intervals and the variability summary when the workout is saved
+     *
+     * @param savedWorkoutId id the workout was finally saved with, it can differ from the id
+     *                       during recording
+     */
+    public synchronized void finish(long savedWorkoutId) {
+        flush();
+        if (savedWorkoutId != workoutId) {
+            dao.moveBatches(workoutId, savedWorkoutId);
+        }
+        if (calculator.hasResult()) {
+            dao.insertHeartRateVariability(calculator.toHeartRateVariability(savedWorkoutId));
+            WorkoutLogger.log("Recorder", "HRV: " + calculator.getBeatCount() + " beats, " +
+                    calculator.getArtifactCount() + " artifacts, RMSSD " + calculator.getRmssd());
+        }
+    }
+
+    public synchronized void discard() {
+        pendingCount = 0;
+        dao.deleteAllOfWorkout(workoutId);
+    }
+}
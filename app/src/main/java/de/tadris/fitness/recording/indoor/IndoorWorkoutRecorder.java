@@ -165,6 +165,7 @@ public class IndoorWorkoutRecorder extends BaseWorkoutRecorder {
     @Override
     public void save() {
         new IndoorWorkoutSaver(context, getWorkoutData()).save();
+        saveRrIntervals();
         saved = true;
     }
 
@@ -175,6 +176,7 @@ public class IndoorWorkoutRecorder extends BaseWorkoutRecorder {
 
     @Override
     public void discard() {
+        discardRrIntervals();
     }
 
     @Override
@@ -24,6 +24,7 @@ import de.tadris.fitness.data.BaseWorkoutData
 import de.tadris.fitness.data.IndoorSample
 import de.tadris.fitness.data.IndoorWorkout
 import de.tadris.fitness.data.IndoorWorkoutData
+import de.tadris.fitness.data.StatsRollupManager
 import de.tadris.fitness.util.WorkoutCalculator
 import de.tadris.fitness.util.calorie.CalorieCalculator
 
@@ -117,6 +118,7 @@ class IndoorWorkoutSaver(private val context: Context, workoutData: IndoorWorkou
     private fun insertWorkoutAndSamples() {
         Instance.getInstance(context).db.indoorWorkoutDao()
             .insertWorkoutAndSamples(workout, samples.toTypedArray())
+        StatsRollupManager(context).onWorkoutChanged(workout)
     }
 
     private fun getBaseWorkoutData() = BaseWorkoutData(workout, samples)
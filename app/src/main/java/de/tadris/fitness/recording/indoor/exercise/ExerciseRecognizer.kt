@@ -19,27 +19,35 @@
 
 package de.tadris.fitness.recording.indoor.exercise
 
+import android.util.Log
 import de.tadris.fitness.data.WorkoutTypeManager
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
 import org.greenrobot.eventbus.EventBus
 
 /**
  * Subclasses recognize repetitions in an indoor exercise. These can be steps, sit-ups, push-ups, etc.
- * When a repetition is recognized they must broadcast a RepetitionRecognizedEvent to the EventBus.
- * The event will then further processed by the IndoorWorkoutRecorder
+ * They are fed directly with the samples of their activated sensors. When a repetition is
+ * recognized they must pass a RepetitionRecognizedEvent to [onRepetitionRecognized], by default
+ * it is broadcast to the EventBus and then further processed by the IndoorWorkoutRecorder.
+ * Debug output goes through [debugListener], so recognizers can run without the Android log.
  */
-abstract class ExerciseRecognizer {
+abstract class ExerciseRecognizer : SensorSampleConsumer {
 
-    fun start() {
-        EventBus.getDefault().register(this)
-    }
+    var repetitionListener: (RepetitionRecognizedEvent) -> Unit = { EventBus.getDefault().post(it) }
 
-    fun stop() {
-        EventBus.getDefault().unregister(this)
-    }
+    var debugListener: (tag: String, message: String) -> Unit = { tag, message -> Log.d(tag, message) }
 
     abstract fun getActivatedSensors(): List<FitoTrackSensorOption>
 
+    protected fun onRepetitionRecognized(event: RepetitionRecognizedEvent) {
+        repetitionListener(event)
+    }
+
+    protected fun debug(tag: String, message: String) {
+        debugListener(tag, message)
+    }
+
     companion object {
 
         fun findByType(typeId: String): ExerciseRecognizer? {
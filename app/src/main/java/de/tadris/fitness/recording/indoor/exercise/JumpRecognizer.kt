@@ -20,13 +20,8 @@
 package de.tadris.fitness.recording.indoor.exercise
 
 import android.hardware.Sensor
-import android.hardware.SensorEvent
-import android.util.Log
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
-import org.greenrobot.eventbus.EventBus
-import org.greenrobot.eventbus.Subscribe
 import kotlin.math.max
-import kotlin.math.pow
 import kotlin.math.sqrt
 
 class JumpRecognizer(private val maxJumpDuration: Long) : ExerciseRecognizer() {
@@ -51,28 +46,26 @@ class JumpRecognizer(private val maxJumpDuration: Long) : ExerciseRecognizer() {
     private var motionState = MotionState.RELAXING
     //set(value) { field = value; Log.d("JumpRecognizer", "State detected: " + value.name) }
 
-    @Subscribe
-    fun onSensorEvent(event: SensorEvent) {
-        if (event.sensor.type == Sensor.TYPE_ACCELEROMETER) {
-            val absoluteAcceleration =
-                sqrt(event.values[0].pow(2) + event.values[1].pow(2) + event.values[2].pow(2)).toDouble() // in m/s²
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (sensorType == Sensor.TYPE_ACCELEROMETER) {
+            val absoluteAcceleration = sqrt((x * x + y * y + z * z).toDouble()) // in m/s²
 
             if (motionState == MotionState.RELAXING && absoluteAcceleration < THRESHOLD_FALLING) {
                 motionState = MotionState.PREPARE
-                lastJumpDetected = System.currentTimeMillis()
+                lastJumpDetected = timestamp
             } else if ((motionState == MotionState.PREPARE || motionState == MotionState.FALLING) && absoluteAcceleration > THRESHOLD_JUMPING && absoluteAcceleration > lastJumpMaxAcceleration * 0.6) {
                 motionState = MotionState.JUMPING
-                lastJumpDetected = System.currentTimeMillis()
+                lastJumpDetected = timestamp
             } else if (motionState == MotionState.JUMPING && absoluteAcceleration < THRESHOLD_FALLING) {
                 motionState = MotionState.FALLING
 
                 val intensity = thisJumpMaxAcceleration
-                EventBus.getDefault().post(RepetitionRecognizedEvent(lastJumpDetected, intensity))
+                onRepetitionRecognized(RepetitionRecognizedEvent(lastJumpDetected, intensity))
 
                 lastJumpMaxAcceleration = thisJumpMaxAcceleration
-                Log.d("JumpRecognizer", "max acceleration: $lastJumpMaxAcceleration")
+                debug("JumpRecognizer", "max acceleration: $lastJumpMaxAcceleration")
                 thisJumpMaxAcceleration = 0.0
-            } else if (motionState != MotionState.RELAXING && System.currentTimeMillis() - lastJumpDetected > maxJumpDuration) {
+            } else if (motionState != MotionState.RELAXING && timestamp - lastJumpDetected > maxJumpDuration) {
                 motionState = MotionState.RELAXING
                 lastJumpMaxAcceleration = 0.0
             }
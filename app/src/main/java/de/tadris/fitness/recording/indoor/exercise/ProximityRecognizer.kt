@@ -20,10 +20,7 @@
 package de.tadris.fitness.recording.indoor.exercise
 
 import android.hardware.Sensor
-import android.hardware.SensorEvent
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
-import org.greenrobot.eventbus.EventBus
-import org.greenrobot.eventbus.Subscribe
 
 class ProximityRecognizer : ExerciseRecognizer() {
 
@@ -31,13 +28,11 @@ class ProximityRecognizer : ExerciseRecognizer() {
 
     private var lastState = false // true if last sensor value was below the threshold
 
-    @Subscribe
-    fun onSensorEvent(event: SensorEvent) {
-        if (event.sensor.type == Sensor.TYPE_PROXIMITY) {
-            if (event.values[0] < 2) {
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (sensorType == Sensor.TYPE_PROXIMITY) {
+            if (x < 2) {
                 if (!lastState) {
-                    EventBus.getDefault()
-                        .post(RepetitionRecognizedEvent(System.currentTimeMillis()))
+                    onRepetitionRecognized(RepetitionRecognizedEvent(timestamp))
                     lastState = true
                 }
             } else {
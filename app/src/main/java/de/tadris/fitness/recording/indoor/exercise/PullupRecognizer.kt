@@ -20,13 +20,8 @@
 package de.tadris.fitness.recording.indoor.exercise
 
 import android.hardware.Sensor
-import android.hardware.SensorEvent
-import android.util.Log
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
-import org.greenrobot.eventbus.EventBus
-import org.greenrobot.eventbus.Subscribe
 import kotlin.math.max
-import kotlin.math.pow
 import kotlin.math.sqrt
 
 class PullupRecognizer : ExerciseRecognizer() {
@@ -55,22 +50,20 @@ class PullupRecognizer : ExerciseRecognizer() {
     private var state = MotionState.RELAXING
         set(value) {
             field = value
-            Log.d(TAG, "State: $state")
+            debug(TAG, "State: $state")
         }
 
     private val maxIntensity get() = (maxAcceleration - 9.81) * 10
 
-    @Subscribe
-    fun onSensorEvent(event: SensorEvent) {
-        if (event.sensor.type == Sensor.TYPE_ACCELEROMETER) {
-            val absoluteAcceleration =
-                sqrt(event.values[0].pow(2) + event.values[1].pow(2) + event.values[2].pow(2)).toDouble() // in m/s²
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (sensorType == Sensor.TYPE_ACCELEROMETER) {
+            val absoluteAcceleration = sqrt((x * x + y * y + z * z).toDouble()) // in m/s²
 
-            onAccelerationDetected(absoluteAcceleration)
+            onAccelerationDetected(timestamp, absoluteAcceleration)
         }
     }
 
-    private fun onAccelerationDetected(absoluteAcceleration: Double) {
+    private fun onAccelerationDetected(timestamp: Long, absoluteAcceleration: Double) {
         smoothedAcceleration =
             (1 - SMOOTHING) * smoothedAcceleration + SMOOTHING * absoluteAcceleration
         maxAcceleration = max(maxAcceleration, smoothedAcceleration)
@@ -78,29 +71,29 @@ class PullupRecognizer : ExerciseRecognizer() {
         when {
             state == MotionState.RELAXING && smoothedAcceleration > PULL_THRESHOLD -> {
                 state = MotionState.PULLING
-                lastPullupDetected = System.currentTimeMillis()
+                lastPullupDetected = timestamp
             }
 
             state == MotionState.PULLING && smoothedAcceleration < RELAX_THRESHOLD -> {
                 state = MotionState.RELAXING
-                detectPullup()
-                lastRelaxDetected = System.currentTimeMillis()
+                detectPullup(timestamp)
+                lastRelaxDetected = timestamp
             }
         }
     }
 
-    private fun detectPullup() {
+    private fun detectPullup(timestamp: Long) {
         val time1 = lastPullupDetected - lastRelaxDetected
-        val time2 = System.currentTimeMillis() - lastPullupDetected
+        val time2 = timestamp - lastPullupDetected
 
         val valid = time1 > TIME1_MIN && time2 in TIME2_RANGE
-        Log.d(
+        debug(
             TAG,
             "Detected pullup with t1=$time1 t2=$time2 intensity=$maxIntensity -> valid=$valid"
         )
 
         if (valid) {
-            EventBus.getDefault().post(
+            onRepetitionRecognized(
                 RepetitionRecognizedEvent(
                     lastPullupDetected,
                     maxIntensity
@@ -20,19 +20,15 @@
 package de.tadris.fitness.recording.indoor.exercise
 
 import android.hardware.Sensor
-import android.hardware.SensorEvent
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
-import org.greenrobot.eventbus.EventBus
-import org.greenrobot.eventbus.Subscribe
 
 class StepRecognizer : ExerciseRecognizer() {
 
     override fun getActivatedSensors() = listOf(FitoTrackSensorOption.STEPS)
 
-    @Subscribe
-    fun onSensorEvent(event: SensorEvent) {
-        if (event.sensor.type == Sensor.TYPE_STEP_DETECTOR) {
-            EventBus.getDefault().post(RepetitionRecognizedEvent(System.currentTimeMillis()))
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (sensorType == Sensor.TYPE_STEP_DETECTOR) {
+            onRepetitionRecognized(RepetitionRecognizedEvent(timestamp))
         }
     }
 
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+import android.hardware.Sensor
+import android.hardware.SensorEvent
+import android.hardware.SensorEventListener
+import android.hardware.SensorManager
+import android.os.Handler
+import android.os.HandlerThread
+import android.os.SystemClock
+import de.tadris.fitness.util.WorkoutLogger
+
+/**
+ * Receives sensor events on its own handler thread and hands them to a [SensorSampleConsumer]
+ * without going through the EventBus. Sensors are registered with a report latency so the
+ * hardware can batch samples; each batch is copied into a [SensorSampleBuffer] and delivered
+ * to the consumer at once.
+ */
+class SensorPipeline(
+    private val sensorManager: SensorManager,
+    private val consumer: SensorSampleConsumer,
+    bufferCapacity: Int = DEFAULT_BUFFER_CAPACITY
+) : SensorEventListener {
+
+    companion object {
+        private const val TAG = "SensorPipeline"
+        const val DEFAULT_BUFFER_CAPACITY = 512
+    }
+
+    private val buffer = SensorSampleBuffer(bufferCapacity)
+    private var thread: HandlerThread? = null
+    private var handler: Handler? = null
+    private var drainPending = false
+
+    private val drainRunnable = Runnable {
+        drainPending = false
+        drain()
+    }
+
+    /**
+     * Registers the sensor of the given type, if the device has one
+     *
+     * @return true if the sensor was registered
+     */
+    fun register(sensorType: Int, samplingPeriodUs: Int, maxReportLatencyUs: Int): Boolean {
+        val sensor = sensorManager.getDefaultSensor(sensorType) ?: return false
+        val handler = obtainHandler()
+        val registered =
+            sensorManager.registerListener(this, sensor, samplingPeriodUs, maxReportLatencyUs, handler)
+        if (registered) {
+            WorkoutLogger.log(
+                TAG,
+                "Registered ${sensor.name} with batching up to ${sensor.fifoMaxEventCount} events"
+            )
+        }
+        return registered
+    }
+
+    /**
+     * Unregisters all sensors, delivers the remaining samples and stops the thread
+     *
+     * @param onDrained called on the pipeline thread after the remaining samples were delivered
+     */
+    fun unregister(onDrained: (() -> Unit)? = null) {
+        sensorManager.unregisterListener(this)
+        val handler = handler
+        if (handler == null) {
+            onDrained?.invoke()
+            return
+        }
+        handler.post {
+            drain()
+            onDrained?.invoke()
+        }
+        thread?.quitSafely()
+        this.thread = null
+        this.handler = null
+    }
+
+    private fun obtainHandler(): Handler {
+        handler?.let { return it }
+        val thread = HandlerThread(TAG).apply { start() }
+        val handler = Handler(thread.looper)
+        this.thread = thread
+        this.handler = handler
+        return handler
+    }
+
+    override fun onSensorChanged(event: SensorEvent) {
+        // Runs on the pipeline thread. A batch is delivered as a burst of calls, the drain is
+        // posted behind it so the consumer sees the whole batch at once.
+        if (buffer.isFull) {
+            drain()
+        }
+        buffer.add(event.sensor.type, event.timestamp, event.values)
+        if (!drainPending) {
+            drainPending = true
+            handler?.post(drainRunnable)
+        }
+    }
+
+    private fun drain() {
+        // Event timestamps are based on elapsedRealtimeNanos()
+        val offset = System.currentTimeMillis() - SystemClock.elapsedRealtime()
+        buffer.drainTo(consumer, offset)
+    }
+
+    override fun onAccuracyChanged(sensor: Sensor?, accuracy: Int) {}
+}
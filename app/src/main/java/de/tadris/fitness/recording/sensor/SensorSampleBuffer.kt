@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+/**
+ * Fixed size ring buffer of sensor samples that stores everything in preallocated primitive
+ * arrays, so no objects are created per sample. It is not thread-safe: it is written and drained
+ * by the single thread of the [SensorPipeline].
+ */
+class SensorSampleBuffer(val capacity: Int) {
+
+    companion object {
+        const val VALUES_PER_SAMPLE = 3
+    }
+
+    private val sensorTypes = IntArray(capacity)
+    private val timestamps = LongArray(capacity)
+    private val values = FloatArray(capacity * VALUES_PER_SAMPLE)
+
+    private var head = 0 // index of the oldest sample
+    var size = 0
+        private set
+
+    val isFull get() = size == capacity
+
+    /**
+     * Appends a sample. Only the first [VALUES_PER_SAMPLE] values are stored.
+     *
+     * @return false if the buffer is full and the sample was not added
+     */
+    fun add(sensorType: Int, timestamp: Long, sampleValues: FloatArray): Boolean {
+        if (isFull) return false
+        val index = (head + size) % capacity
+        sensorTypes[index] = sensorType
+        timestamps[index] = timestamp
+        val offset = index * VALUES_PER_SAMPLE
+        val count = minOf(sampleValues.size, VALUES_PER_SAMPLE)
+        for (i in 0 until VALUES_PER_SAMPLE) {
+            values[offset + i] = if (i < count) sampleValues[i] else 0f
+        }
+        size++
+        return true
+    }
+
+    /**
+     * Delivers all buffered samples in insertion order and empties the buffer
+     *
+     * @param timestampOffset added to the stored timestamps after converting them from ns to ms
+     */
+    fun drainTo(consumer: SensorSampleConsumer, timestampOffset: Long) {
+        while (size > 0) {
+            val index = head
+            val offset = index * VALUES_PER_SAMPLE
+            head = (head + 1) % capacity
+            size--
+            consumer.onSensorSample(
+                sensorTypes[index],
+                timestamps[index] / 1_000_000 + timestampOffset,
+                values[offset],
+                values[offset + 1],
+                values[offset + 2]
+            )
+        }
+        consumer.onSamplesDrained()
+    }
+
+}
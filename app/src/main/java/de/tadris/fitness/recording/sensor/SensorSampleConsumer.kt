@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+/**
+ * Receives the samples of a [SensorPipeline] on the pipeline thread
+ */
+interface SensorSampleConsumer {
+
+    /**
+     * @param sensorType one of the Sensor.TYPE_* constants
+     * @param timestamp wall clock time of the measurement in milliseconds
+     * @param x first value of the sample
+     * @param y second value of the sample, 0 if the sensor reports less values
+     * @param z third value of the sample, 0 if the sensor reports less values
+     */
+    fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float)
+
+    /**
+     * Called after all currently buffered samples were delivered
+     */
+    fun onSamplesDrained() {}
+
+}
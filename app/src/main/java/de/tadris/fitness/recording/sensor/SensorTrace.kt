@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+import java.io.DataInput
+import java.io.DataOutput
+import java.io.IOException
+
+/**
+ * Compact binary format for raw sensor streams, used to replay recorded sessions through the
+ * exercise recognizers.
+ *
+ * Header: magic "FTST", format version (1 byte), timestamp of the first sample (8 bytes, ms).
+ * Each sample: sensor type (1 byte), number of values (1 byte), timestamp difference to the
+ * previous sample in ms (zigzag varint), then the values as 4 byte floats. All numbers are big
+ * endian.
+ */
+object SensorTrace {
+
+    const val MAGIC = 0x46545354 // "FTST"
+    const val VERSION = 1
+    const val FILE_EXTENSION = "fttrace"
+
+    fun writeVarLong(output: DataOutput, value: Long) {
+        var rest = (value shl 1) xor (value shr 63) // zigzag
+        while (rest and 0x7FL.inv() != 0L) {
+            output.writeByte(((rest and 0x7F) or 0x80).toInt())
+            rest = rest ushr 7
+        }
+        output.writeByte(rest.toInt())
+    }
+
+    fun readVarLong(input: DataInput): Long {
+        var result = 0L
+        var shift = 0
+        while (true) {
+            val b = input.readUnsignedByte()
+            result = result or ((b and 0x7F).toLong() shl shift)
+            if (b and 0x80 == 0) break
+            shift += 7
+            if (shift > 63) throw IOException("Malformed varint")
+        }
+        return (result ushr 1) xor -(result and 1)
+    }
+
+}
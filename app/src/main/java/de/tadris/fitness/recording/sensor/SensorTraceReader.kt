@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+import java.io.BufferedInputStream
+import java.io.Closeable
+import java.io.DataInputStream
+import java.io.EOFException
+import java.io.IOException
+import java.io.InputStream
+
+/**
+ * Reads a trace written by [SensorTraceWriter] and passes the samples to a consumer
+ */
+class SensorTraceReader(input: InputStream) : Closeable {
+
+    private val input = DataInputStream(BufferedInputStream(input))
+
+    /**
+     * @return number of replayed samples
+     */
+    @Throws(IOException::class)
+    fun replay(consumer: SensorSampleConsumer): Int {
+        val magic = try {
+            input.readInt()
+        } catch (e: EOFException) {
+            return 0 // nothing was recorded
+        }
+        if (magic != SensorTrace.MAGIC) {
+            throw IOException("Not a sensor trace")
+        }
+        val version = input.readUnsignedByte()
+        if (version != SensorTrace.VERSION) {
+            throw IOException("Unsupported trace version $version")
+        }
+        var timestamp = input.readLong()
+        var count = 0
+        while (true) {
+            val sensorType = input.read()
+            if (sensorType == -1) break
+            val valueCount = input.readUnsignedByte()
+            timestamp += SensorTrace.readVarLong(input)
+            val x = input.readFloat()
+            var y = 0f
+            var z = 0f
+            if (valueCount == 3) {
+                y = input.readFloat()
+                z = input.readFloat()
+            } else if (valueCount != 1) {
+                throw IOException("Invalid value count $valueCount")
+            }
+            consumer.onSensorSample(sensorType, timestamp, x, y, z)
+            count++
+        }
+        consumer.onSamplesDrained()
+        return count
+    }
+
+    override fun close() {
+        input.close()
+    }
+}
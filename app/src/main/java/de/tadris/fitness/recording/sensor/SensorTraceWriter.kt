@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.recording.sensor
+
+import java.io.BufferedOutputStream
+import java.io.Closeable
+import java.io.DataOutputStream
+import java.io.IOException
+import java.io.OutputStream
+
+/**
+ * Writes all received samples in the [SensorTrace] format. Samples with y and z equal to zero
+ * are stored with a single value.
+ */
+class SensorTraceWriter(output: OutputStream) : SensorSampleConsumer, Closeable {
+
+    private val output = DataOutputStream(BufferedOutputStream(output))
+    private var lastTimestamp = -1L
+    private var closed = false
+
+    var sampleCount = 0
+        private set
+
+    @Synchronized
+    @Throws(IOException::class)
+    fun write(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        if (closed) return
+        if (lastTimestamp == -1L) {
+            output.writeInt(SensorTrace.MAGIC)
+            output.writeByte(SensorTrace.VERSION)
+            output.writeLong(timestamp)
+            lastTimestamp = timestamp
+        }
+        val valueCount = if (y == 0f && z == 0f) 1 else 3
+        output.writeByte(sensorType)
+        output.writeByte(valueCount)
+        SensorTrace.writeVarLong(output, timestamp - lastTimestamp)
+        output.writeFloat(x)
+        if (valueCount == 3) {
+            output.writeFloat(y)
+            output.writeFloat(z)
+        }
+        lastTimestamp = timestamp
+        sampleCount++
+    }
+
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        try {
+            write(sensorType, timestamp, x, y, z)
+        } catch (e: IOException) {
+            e.printStackTrace()
+        }
+    }
+
+    @Synchronized
+    override fun close() {
+        if (closed) return
+        closed = true
+        output.close()
+    }
+}
@@ -23,6 +23,7 @@ import android.app.AlertDialog
 import android.content.ActivityNotFoundException
 import android.content.DialogInterface
 import android.content.Intent
+import android.content.SharedPreferences
 import android.net.Uri
 import android.os.Bundle
 import android.os.Handler
@@ -36,15 +37,20 @@ import android.widget.TextView
 import android.widget.Toast
 import androidx.core.app.ActivityCompat
 import androidx.documentfile.provider.DocumentFile
+import androidx.paging.LoadState
+import androidx.paging.Pager
+import androidx.paging.PagingConfig
+import androidx.paging.liveData
 import androidx.recyclerview.widget.LinearLayoutManager
 import androidx.recyclerview.widget.RecyclerView
+import androidx.room.InvalidationTracker
 import com.github.clans.fab.FloatingActionButton
 import com.github.clans.fab.FloatingActionMenu
 import de.tadris.fitness.Instance
 import de.tadris.fitness.R
 import de.tadris.fitness.data.BaseWorkout
-import de.tadris.fitness.data.GpsWorkout
-import de.tadris.fitness.data.IndoorWorkout
+import de.tadris.fitness.data.StatsRollupManager
+import de.tadris.fitness.data.WorkoutSummary
 import de.tadris.fitness.data.WorkoutType
 import de.tadris.fitness.ui.adapter.WorkoutAdapter
 import de.tadris.fitness.ui.adapter.WorkoutAdapter.WorkoutAdapterListener
@@ -59,9 +65,12 @@ import de.tadris.fitness.ui.workout.ShowGpsWorkoutActivity
 import de.tadris.fitness.util.DialogUtils
 import de.tadris.fitness.util.Icon
 import de.tadris.fitness.util.PermissionUtils
+import de.tadris.fitness.util.io.MassImporter
 import de.tadris.fitness.util.io.general.IOHelper
+import java.io.IOException
 
-class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
+class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener,
+    SharedPreferences.OnSharedPreferenceChangeListener {
 
     private lateinit var listView: RecyclerView
     private lateinit var shortStatsView: ShortStatsView
@@ -70,10 +79,16 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
     private lateinit var menu: FloatingActionMenu
     private lateinit var hintText: TextView
 
-    private var workouts: Array<BaseWorkout> = emptyArray()
+    private var latestWorkout: WorkoutSummary? = null
 
-    private var listSize = 0
-    private var lastClickedIndex = 0
+    @Volatile
+    private var statsOutdated = false
+
+    private val workoutTableObserver = object : InvalidationTracker.Observer(arrayOf("workout", "indoor_workout")) {
+        override fun onInvalidated(tables: Set<String>) {
+            statsOutdated = true
+        }
+    }
 
     override fun onCreate(savedInstanceState: Bundle?) {
         super.onCreate(savedInstanceState)
@@ -83,14 +98,29 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
         listView.setHasFixedSize(true)
         layoutManager = LinearLayoutManager(this)
         listView.layoutManager = layoutManager
-        adapter = WorkoutAdapter(workouts, this)
+        adapter = WorkoutAdapter(this)
+        adapter.addLoadStateListener { loadStates ->
+            if (loadStates.refresh is LoadState.NotLoading) {
+                hintText.visibility = if (adapter.itemCount == 0) View.VISIBLE else View.INVISIBLE
+            }
+        }
         listView.adapter = adapter
         shortStatsView = findViewById(R.id.short_stats_view)
 
+        val db = Instance.getInstance(this).db
+        Pager(PagingConfig(pageSize = PAGE_SIZE)) {
+            db.workoutSummaryDao().getWorkoutSummaries()
+        }.liveData.observe(this) { pagingData ->
+            adapter.submitData(lifecycle, pagingData)
+        }
+        db.invalidationTracker.addObserver(workoutTableObserver)
+        PreferenceManager.getDefaultSharedPreferences(this).registerOnSharedPreferenceChangeListener(this)
+
         menu = findViewById(R.id.workoutListMenu)
         menu.setOnMenuButtonLongClickListener(OnLongClickListener {
-            if (workouts.isNotEmpty()) {
-                startRecording(workouts[0].getWorkoutType(this))
+            val latestWorkout = latestWorkout
+            if (latestWorkout != null) {
+                startRecording(latestWorkout.getWorkoutType(this))
                 return@OnLongClickListener true
             } else {
                 return@OnLongClickListener false
@@ -107,6 +137,17 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
         refresh()
     }
 
+    override fun onDestroy() {
+        super.onDestroy()
+        Instance.getInstance(this).db.invalidationTracker.removeObserver(workoutTableObserver)
+        PreferenceManager.getDefaultSharedPreferences(this).unregisterOnSharedPreferenceChangeListener(this)
+    }
+
+    override fun onSharedPreferenceChanged(sharedPreferences: SharedPreferences?, key: String?) {
+        // Units and the selected time span of the short stats are stored in the preferences
+        statsOutdated = true
+    }
+
     private val mHandler = Handler()
 
     private fun hasPermission(): Boolean {
@@ -190,38 +231,29 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
         dialog.show()
         Thread {
             try {
-                var imported = 0
                 val documentFile = DocumentFile.fromTreeUri(this, dirUri)
                 val files = documentFile!!.listFiles()
-                for (i in files.indices) {
-                    dialog.setProgress(100 * i / files.size)
-                    val file = files[i]
-                    if (file.isFile && file.canRead()) {
-                        try {
-                            val fileUri = file.uri
-                            Log.d("MassImport", "Importing $fileUri")
-                            IOHelper.GpxImporter.importWorkout(
-                                this,
-                                contentResolver.openInputStream(fileUri)
-                            )
-                            imported++
-                        } catch (e: Exception) {
-                            e.printStackTrace()
-                            if (imported == 0 && i == files.size - 1) {
-                                // If all workouts failed throw exception so it is shown to the user
-                                throw e
-                            }
+                    .filter { it.isFile && it.canRead() }
+                    .map { file ->
+                        MassImporter.ImportFile(file.name ?: file.uri.toString(), file.length()) {
+                            contentResolver.openInputStream(file.uri)
+                                ?: throw IOException("Cannot open " + file.uri)
                         }
                     }
+                val result = MassImporter(this, IOHelper.GpxImporter) { progress ->
+                    dialog.setProgress(progress)
+                }.import(files)
+                if (result.imported == 0 && result.duplicates == 0 && result.failures.isNotEmpty()) {
+                    // If all workouts failed throw exception so it is shown to the user
+                    throw result.failures.last().error
                 }
-                dialog.setProgress(100)
                 mHandler.post {
                     dialog.cancel()
-                    Toast.makeText(
-                            this,
-                            resources.getQuantityString(R.plurals.importedWorkouts, imported, imported),
-                            Toast.LENGTH_LONG
-                    ).show()
+                    var message = resources.getQuantityString(R.plurals.importedWorkouts, result.imported, result.imported)
+                    if (result.failures.isNotEmpty()) {
+                        message += "\n" + resources.getQuantityString(R.plurals.importFailedFiles, result.failures.size, result.failures.size)
+                    }
+                    Toast.makeText(this, message, Toast.LENGTH_LONG).show()
                     refresh()
                 }
             } catch (e: Exception) {
@@ -272,7 +304,11 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
 
     public override fun onResume() {
         super.onResume()
-        refresh()
+        if (statsOutdated) {
+            refresh()
+        } else {
+            refreshFABMenu()
+        }
     }
 
     override fun onPause() {
@@ -280,53 +316,50 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
         menu.close(true)
     }
 
-    override fun onItemClick(pos: Int, workout: BaseWorkout) {
+    override fun onItemClick(pos: Int, workout: WorkoutSummary) {
         val intent =
             Intent(this, workout.getWorkoutType(this).getRecordingType().showDetailsActivityClass)
         intent.putExtra(ShowGpsWorkoutActivity.WORKOUT_ID_EXTRA, workout.id)
         startActivity(intent)
-        lastClickedIndex = pos
     }
 
-    override fun onItemLongClick(pos: Int, workout: BaseWorkout) {
+    override fun onItemLongClick(pos: Int, workout: WorkoutSummary) {
         DialogUtils.showDeleteWorkoutDialog(this) {
-            if (workout is GpsWorkout) {
-                Instance.getInstance(this).db.gpsWorkoutDao().deleteWorkout(workout)
-            } else if (workout is IndoorWorkout) {
-                Instance.getInstance(this).db.indoorWorkoutDao().deleteWorkout(workout)
+            val db = Instance.getInstance(this).db
+            val deletedWorkout: BaseWorkout? = if (workout.gps) {
+                db.gpsWorkoutDao().getWorkoutById(workout.id)?.also { db.gpsWorkoutDao().deleteWorkout(it) }
+            } else {
+                db.indoorWorkoutDao().getWorkoutById(workout.id)?.also { db.indoorWorkoutDao().deleteWorkout(it) }
+            }
+            if (deletedWorkout != null) {
+                db.heartRateVariabilityDao().deleteAllOfWorkout(deletedWorkout.id)
+                StatsRollupManager(this).onWorkoutChanged(deletedWorkout)
             }
             refresh()
         }
     }
 
+    /**
+     * The list itself is updated by the paging source whenever the workout tables change, this
+     * only refreshes the views that depend on all workouts.
+     */
     private fun refresh() {
+        statsOutdated = false
         shortStatsView.refresh()
-        loadData()
-        if (workouts.size > lastClickedIndex) {
-            adapter.notifyItemChanged(lastClickedIndex, workouts[lastClickedIndex])
-        }
-        if (listSize != workouts.size) {
-            adapter.notifyDataSetChanged()
-        }
-        listSize = workouts.size
         refreshFABMenu()
     }
 
-    private fun loadData() {
-        this.workouts = Instance.getInstance(this).db.allWorkouts.toTypedArray()
-
-        hintText.visibility = if (workouts.isEmpty()) View.VISIBLE else View.INVISIBLE
-        adapter.setWorkouts(this.workouts)
-    }
-
     private fun refreshFABMenu() {
+        latestWorkout = Instance.getInstance(this).db.workoutSummaryDao().latestWorkoutSummary
         val lastFab = findViewById<FloatingActionButton>(R.id.workoutListRecordLast)
-        if (workouts.isNotEmpty()) {
-            val lastType = workouts[0].getWorkoutType(this)
+        val latestWorkout = latestWorkout
+        if (latestWorkout != null) {
+            val lastType = latestWorkout.getWorkoutType(this)
             lastFab.labelText = lastType.title
             lastFab.setImageResource(Icon.getIcon(lastType.icon))
             lastFab.colorNormal = lastType.color
             lastFab.colorPressed = lastFab.colorNormal
+            lastFab.visibility = View.VISIBLE
             lastFab.setOnClickListener {
                 menu.close(true)
                 Handler().postDelayed({ startRecording(lastType) }, 300)
@@ -359,5 +392,6 @@ class ListWorkoutsActivity : FitoTrackActivity(), WorkoutAdapterListener {
     companion object {
         private const val FILE_IMPORT_SELECT_CODE = 21
         private const val FOLDER_IMPORT_SELECT_CODE = 23
+        private const val PAGE_SIZE = 50
     }
 }
\ No newline at end of file
@@ -27,18 +27,19 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.paging.PagingDataAdapter;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import java.util.Date;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
-import de.tadris.fitness.data.BaseWorkout;
-import de.tadris.fitness.data.GpsWorkout;
-import de.tadris.fitness.data.IndoorWorkout;
+import de.tadris.fitness.data.WorkoutSummary;
+import de.tadris.fitness.data.WorkoutType;
 import de.tadris.fitness.util.Icon;
 
-public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.WorkoutViewHolder>{
+public class WorkoutAdapter extends PagingDataAdapter<WorkoutSummary, WorkoutAdapter.WorkoutViewHolder> {
 
 
     public static class WorkoutViewHolder extends RecyclerView.ViewHolder{
@@ -63,32 +64,69 @@ public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.WorkoutV
         }
     }
 
-    private BaseWorkout[] workouts;
+    private static final DiffUtil.ItemCallback<WorkoutSummary> DIFF_CALLBACK = new DiffUtil.ItemCallback<WorkoutSummary>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull WorkoutSummary oldItem, @NonNull WorkoutSummary newItem) {
+            return oldItem.isSameWorkout(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull WorkoutSummary oldItem, @NonNull WorkoutSummary newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
     private final WorkoutAdapterListener listener;
 
-    public WorkoutAdapter(BaseWorkout[] workouts, WorkoutAdapterListener listener) {
-        setWorkouts(workouts);
+    public WorkoutAdapter(WorkoutAdapterListener listener) {
+        super(DIFF_CALLBACK);
         this.listener = listener;
     }
 
-    public void setWorkouts(BaseWorkout[] workouts) {
-        this.workouts = workouts;
-    }
-
+    @NonNull
     @Override
-    public WorkoutAdapter.WorkoutViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+    public WorkoutAdapter.WorkoutViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         // create a new view
         View v = LayoutInflater.from(parent.getContext()).inflate(R.layout.view_workout, parent, false);
-        return new WorkoutViewHolder(v);
+        WorkoutViewHolder holder = new WorkoutViewHolder(v);
+        holder.root.setOnClickListener(view -> {
+            int position = holder.getBindingAdapterPosition();
+            WorkoutSummary workout = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+            if (workout != null) {
+                listener.onItemClick(position, workout);
+            }
+        });
+        holder.root.setOnLongClickListener(view -> {
+            int position = holder.getBindingAdapterPosition();
+            WorkoutSummary workout = position != RecyclerView.NO_POSITION ? getItem(position) : null;
+            if (workout != null) {
+                listener.onItemLongClick(position, workout);
+                return true;
+            }
+            return false;
+        });
+        return holder;
     }
 
     // Replace the contents of a view (invoked by the layout manager)
     @Override
-    public void onBindViewHolder(WorkoutViewHolder holder, final int position) {
+    public void onBindViewHolder(@NonNull WorkoutViewHolder holder, final int position) {
+        WorkoutSummary workout = getItem(position);
+        if (workout == null) {
+            // Placeholder for a page that is not loaded yet
+            holder.dateText.setText("");
+            holder.typeText.setText("");
+            holder.commentText.setText("");
+            holder.lengthText.setText("");
+            holder.timeText.setText("");
+            holder.iconView.setImageDrawable(null);
+            return;
+        }
         Context context = holder.root.getContext();
-        BaseWorkout workout = workouts[position];
-        holder.dateText.setText(Instance.getInstance(context).userDateTimeUtils.formatDateTime(new Date(workout.start)));
-        holder.typeText.setText(workout.getWorkoutType(context).title);
+        Instance instance = Instance.getInstance(context);
+        WorkoutType type = workout.getWorkoutType(context);
+        holder.dateText.setText(instance.userDateTimeUtils.formatDateTime(new Date(workout.start)));
+        holder.typeText.setText(type.title);
         if (workout.comment != null) {
             if (workout.comment.length() > 33) {
                 holder.commentText.setText(workout.comment.substring(0, 30) + "...");
@@ -98,31 +136,20 @@ public class WorkoutAdapter extends RecyclerView.Adapter<WorkoutAdapter.WorkoutV
         } else {
             holder.commentText.setText("");
         }
-        if (workout instanceof GpsWorkout) {
-            holder.lengthText.setText(Instance.getInstance(context).distanceUnitUtils.getDistance(((GpsWorkout) workout).length));
-        } else if (workout instanceof IndoorWorkout) {
-            int repetitions = ((IndoorWorkout) workout).repetitions;
-            holder.lengthText.setText(repetitions + " " + context.getResources().getQuantityString(workout.getWorkoutType(context).repeatingExerciseName, repetitions));
+        if (workout.gps) {
+            holder.lengthText.setText(instance.distanceUnitUtils.getDistance(workout.length));
+        } else {
+            int repetitions = workout.repetitions;
+            holder.lengthText.setText(repetitions + " " + context.getResources().getQuantityString(type.repeatingExerciseName, repetitions));
         }
-        holder.timeText.setText(Instance.getInstance(context).distanceUnitUtils.getHourMinuteTime(workout.duration));
-        holder.iconView.setImageResource(Icon.getIcon(workout.getWorkoutType(context).icon));
-        holder.root.setOnClickListener(v -> listener.onItemClick(position, workout));
-        holder.root.setOnLongClickListener(v -> {
-            listener.onItemLongClick(position, workout);
-            return true;
-        });
-    }
-
-    // Return the size of your dataset (invoked by the layout manager)
-    @Override
-    public int getItemCount() {
-        return workouts.length;
+        holder.timeText.setText(instance.distanceUnitUtils.getHourMinuteTime(workout.duration));
+        holder.iconView.setImageResource(Icon.getIcon(type.icon));
     }
 
     public interface WorkoutAdapterListener {
-        void onItemClick(int pos, BaseWorkout workout);
+        void onItemClick(int pos, WorkoutSummary workout);
 
-        void onItemLongClick(int pos, BaseWorkout workout);
+        void onItemLongClick(int pos, WorkoutSummary workout);
     }
 
 
@@ -2,7 +2,8 @@ package de.tadris.fitness.ui.quiz;
 
 import android.content.pm.PackageManager;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
+import android.graphics.drawable.BitmapDrawable;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.CountDownTimer;
 import android.util.Log;
@@ -20,9 +21,6 @@ import androidx.annotation.Nullable;
 import androidx.core.content.ContextCompat;
 
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,15 +29,13 @@ import java.util.Random;
 import de.tadris.fitness.R;
 import de.tadris.fitness.client.BirdClassifierApiClient;
 import de.tadris.fitness.converter.ScientificNameConverter;
-import de.tadris.fitness.generator.Generator;
+import de.tadris.fitness.generator.BirdImageCatalog;
 import de.tadris.fitness.model.BirdData;
 import de.tadris.fitness.ui.FitoTrackActivity;
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
 
 public class QuizActivity extends FitoTrackActivity {
     private ImageView imageView;
+    private Bitmap quizImage;
 
     private Button backToWorkoutButton;
     private int imageValue;
@@ -64,6 +60,9 @@ public class QuizActivity extends FitoTrackActivity {
         backToWorkoutButton = findViewById(R.id.back_to_workout);
         setBackToWorkoutButtonEvent(backToWorkoutButton);
 
+        // Built on first use, in parallel to the classification of the photo
+        BirdImageCatalog.getInstance(this).prepareAsync();
+
         imageView = findViewById(R.id.quiz_imageView);
         renderQuizImage(imageView);
 
@@ -83,61 +82,82 @@ public class QuizActivity extends FitoTrackActivity {
     }
 
     private void renderQuizImage(ImageView imageView){
-        byte[] byteArray = getIntent().getByteArrayExtra("quiz_image");
-        Bitmap quizImage = BitmapFactory.decodeByteArray(byteArray, 0, byteArray.length);
-
-        // Convert byteArray to File to send to API Request
-        File file = new File(this.getCacheDir(), "image.jpg");
-        try {
-            file.createNewFile();
-        } catch (IOException e) {
-            // TODO Auto-generated catch block
-        }
-        FileOutputStream fos = null;
-        try {
-            fos = new FileOutputStream(file);
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
-        try {
-            fos.write(byteArray);
-            fos.flush();
-            fos.close();
-        } catch (IOException e) {
-            e.printStackTrace();
+        Uri imageUri = getIntent().getData();
+        if (imageUri == null || imageUri.getPath() == null) {
+            finish();
+            return;
         }
+        File imageFile = new File(imageUri.getPath());
 
-        // Call API will probably make another function later
-        //-----------------------------------------------------------------------------------------
-        BirdClassifierApiClient apiClient = new BirdClassifierApiClient();
-        Call<List<BirdData>> callPredictions = apiClient.getPredictions(file);
-        callPredictions.enqueue(new Callback <List<BirdData>> () {
+        // Decode the photo only as large as the view shows it, once its size is known
+        imageView.post(() -> QuizImage.load(imageFile, imageView.getWidth(), imageView.getHeight(), bitmap -> {
+            if (bitmap == null) {
+                return;
+            }
+            if (isDestroyed()) {
+                QuizImage.release(bitmap);
+                return;
+            }
+            quizImage = bitmap;
+            imageView.setImageBitmap(bitmap);
+        }));
 
+        BirdClassifierApiClient.getInstance(this).classify(imageFile, new BirdClassifierApiClient.PredictionCallback() {
             @Override
-            public void onResponse(Call < List<BirdData> > callPredictions, Response< List<BirdData>  > response) {
+            public void onPredictions(List<BirdData> predictions) {
                 Log.v("Upload", "success");
-                List<BirdData> responseBody = response.body();
+                if (isFinishing()) {
+                    return;
+                }
+                if (predictions.size() < 4) {
+                    onError(new Exception("Expected at least 4 predictions, got " + predictions.size()));
+                    return;
+                }
 
-                ScientificNameConverter converter = new ScientificNameConverter();
+                ScientificNameConverter converter = new ScientificNameConverter(QuizActivity.this);
 
-                choiceOne.setText(converter.convertToCommonName(responseBody.get(0).getScientificName()));
-                choiceTwo.setText(converter.convertToCommonName(responseBody.get(1).getScientificName()));
-                choiceThree.setText(converter.convertToCommonName(responseBody.get(3).getScientificName()));
+                setChoice(choiceOne, converter.convertToCommonName(predictions.get(0).getScientificName()));
+                setChoice(choiceTwo, converter.convertToCommonName(predictions.get(1).getScientificName()));
+                setChoice(choiceThree, converter.convertToCommonName(predictions.get(3).getScientificName()));
 
                 // pass correct choice (1, 2, 3) here to bind answer event to the button
                 // TODO: pass the choice which has the highest probability here.
                 bindAnswerEventToChoices(1);
             }
+
             @Override
-            public void onFailure(Call < List<BirdData>  > call, Throwable t) {
-                Log.e("Upload", t.getMessage());
+            public void onError(Exception e) {
+                Log.e("Upload", String.valueOf(e.getMessage()));
                 Toast.makeText(getApplicationContext(), "An error has occurred", Toast.LENGTH_LONG).show();
             }
+        });
+    }
 
+    /**
+     * Shows the name and, if the bird is in the catalog, its thumbnail on the choice
+     */
+    private void setChoice(Button choice, String name) {
+        choice.setText(name);
+        BirdImageCatalog.getInstance(this).loadThumbnailAsync(name, thumbnail -> {
+            if (thumbnail == null || isDestroyed()) {
+                return;
+            }
+            // Thumbnails are owned by the catalog cache, so they are not recycled here
+            BitmapDrawable drawable = new BitmapDrawable(getResources(), thumbnail);
+            int size = choice.getHeight() - choice.getPaddingTop() - choice.getPaddingBottom();
+            drawable.setBounds(0, 0, size, size);
+            choice.setCompoundDrawables(drawable, null, null, null);
         });
-        //-----------------------------------------------------------------------------------------
+    }
 
-        imageView.setImageBitmap(quizImage);
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (quizImage != null) {
+            imageView.setImageDrawable(null);
+            QuizImage.release(quizImage);
+            quizImage = null;
+        }
     }
 
     private void setBackToWorkoutButtonEvent(Button backToWorkoutButton){
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.ui.quiz;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import de.tadris.fitness.util.BitmapPool;
+import de.tadris.fitness.util.DataManager;
+import de.tadris.fitness.util.SampledBitmapDecoder;
+
+/**
+ * Hands the photo for the quiz over as a file in the cache directory instead of passing the image
+ * data in the intent. All file access happens on a background thread.
+ */
+public class QuizImage {
+
+    private static final String TAG = "QuizImage";
+    private static final String DIRECTORY = "quiz";
+    private static final String FILE_NAME = "capture.jpg";
+    private static final int JPEG_QUALITY = 95;
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private static final BitmapPool bitmapPool = new BitmapPool(2);
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public interface SavedListener {
+        void onSaved(File file);
+    }
+
+    public interface LoadedListener {
+        /**
+         * @param bitmap the decoded image or null if it cannot be read
+         */
+        void onLoaded(@Nullable Bitmap bitmap);
+    }
+
+    public static File getCaptureFile(Context context) {
+        File directory = new File(context.getCacheDir(), DIRECTORY);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.w(TAG, "Cannot create " + directory);
+        }
+        return new File(directory, FILE_NAME);
+    }
+
+    /**
+     * @return content uri of the capture file that can be passed to a camera app
+     */
+    public static Uri getCaptureUri(Context context) {
+        return DataManager.provide(context, getCaptureFile(context));
+    }
+
+    /**
+     * Writes a photo to the capture file, for camera apps that return only a thumbnail
+     */
+    public static void save(Context context, Bitmap photo, SavedListener listener) {
+        File file = getCaptureFile(context);
+        executor.execute(() -> {
+            try (OutputStream output = new FileOutputStream(file)) {
+                photo.compress(Bitmap.CompressFormat.JPEG, JPEG_QUALITY, output);
+                mainHandler.post(() -> listener.onSaved(file));
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot write " + file, e);
+            }
+        });
+    }
+
+    /**
+     * Decodes the image in the background, sampled down to about the requested size
+     */
+    public static void load(File file, int reqWidth, int reqHeight, LoadedListener listener) {
+        executor.execute(() -> {
+            Bitmap bitmap = null;
+            try {
+                bitmap = SampledBitmapDecoder.decode(file, reqWidth, reqHeight, bitmapPool);
+            } catch (IOException e) {
+                Log.e(TAG, "Cannot decode " + file, e);
+            }
+            Bitmap result = bitmap;
+            mainHandler.post(() -> listener.onLoaded(result));
+        });
+    }
+
+    /**
+     * Returns a bitmap from {@link #load(File, int, int, LoadedListener)} that isn't shown
+     * anymore, so the next quiz can decode into it.
+     */
+    public static void release(Bitmap bitmap) {
+        bitmapPool.put(bitmap);
+    }
+}
@@ -68,7 +68,7 @@ import org.greenrobot.eventbus.EventBus;
 import org.greenrobot.eventbus.Subscribe;
 import org.greenrobot.eventbus.ThreadMode;
 
-import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -105,6 +105,7 @@ import de.tadris.fitness.ui.dialog.ChooseBluetoothDeviceDialog;
 import de.tadris.fitness.ui.dialog.SelectIntervalSetDialog;
 import de.tadris.fitness.ui.dialog.SelectWorkoutInformationDialog;
 import de.tadris.fitness.ui.quiz.QuizActivity;
+import de.tadris.fitness.ui.quiz.QuizImage;
 import de.tadris.fitness.util.BluetoothDevicePreferences;
 import de.tadris.fitness.util.NfcAdapterHelper;
 import de.tadris.fitness.util.NotificationHelper;
@@ -839,7 +840,11 @@ public abstract class RecordWorkoutActivity extends FitoTrackActivity implements
     }
 
     private void dispatchTakePictureIntent() {
+        // The camera writes the photo directly into the cache file that is handed to the quiz
+        QuizImage.getCaptureFile(this).delete();
         Intent takePictureIntent = new Intent(MediaStore.ACTION_IMAGE_CAPTURE);
+        takePictureIntent.putExtra(MediaStore.EXTRA_OUTPUT, QuizImage.getCaptureUri(this));
+        takePictureIntent.addFlags(Intent.FLAG_GRANT_WRITE_URI_PERMISSION);
         startActivityForResult(takePictureIntent, REQUEST_IMAGE_CAPTURE);
         /*
         if (takePictureIntent.resolveActivity(getPackageManager()) != null) {
@@ -970,17 +975,22 @@ public abstract class RecordWorkoutActivity extends FitoTrackActivity implements
             chooseHRDevice();
         }
         if (requestCode == REQUEST_IMAGE_CAPTURE && resultCode == RESULT_OK) {
-            // BitMap is data structure of image file which store the image in memory
-            Bitmap photo = (Bitmap) data.getExtras().get("data");
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            photo.compress(Bitmap.CompressFormat.PNG, 100, stream);
-            byte[] byteArray = stream.toByteArray();
-            Intent sendImage = new Intent(RecordWorkoutActivity.this, QuizActivity.class);
-            sendImage.putExtra("quiz_image", byteArray);
-            startActivity(sendImage);
+            File captureFile = QuizImage.getCaptureFile(this);
+            if (captureFile.length() > 0) {
+                startQuiz(captureFile);
+            } else if (data != null && data.getExtras() != null && data.getExtras().get("data") instanceof Bitmap) {
+                // Some camera apps ignore EXTRA_OUTPUT and only return a thumbnail
+                QuizImage.save(this, (Bitmap) data.getExtras().get("data"), this::startQuiz);
+            }
         }
     }
 
+    private void startQuiz(File imageFile) {
+        Intent sendImage = new Intent(RecordWorkoutActivity.this, QuizActivity.class);
+        sendImage.setData(Uri.fromFile(imageFile));
+        startActivity(sendImage);
+    }
+
     private void onPressStopButton() {
         if (isRestrictedInput()) {
             Toast.makeText(this, R.string.unlockPhoneStopWorkout, Toast.LENGTH_LONG).show();
@@ -34,6 +34,7 @@ import java.io.File;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
+import de.tadris.fitness.data.GpsTrackStorage;
 import de.tadris.fitness.export.RestoreController;
 import de.tadris.fitness.ui.ShareFileActivity;
 import de.tadris.fitness.ui.dialog.ProgressDialogController;
@@ -82,6 +83,11 @@ public class BackupSettingsFragment extends FitoTrackSettingFragment {
         });
         triggerChangeListener(backupIntervalPreference);
 
+        findPreference("compactTrackStorage").setOnPreferenceChangeListener((preference, newValue) -> {
+            GpsTrackStorage.applyPreferenceAsync(Instance.getInstance(getContext()), (Boolean) newValue);
+            return true;
+        });
+
     }
 
     private void startExportTargetActivity(String exportSource) {
@@ -44,6 +44,11 @@ class DebugSettingsFragment : FitoTrackSettingFragment() {
             true
         }
 
+        findPreference<Preference>("droppedLogMessages")?.summary = getString(
+            R.string.debugDroppedLogMessagesSummary,
+            instance.logger.droppedMessages
+        )
+
         findPreference<Preference>("debugSensors")?.setOnPreferenceClickListener {
             startActivity(Intent(requireContext(), SensorDebugActivity::class.java))
             true
@@ -58,6 +63,7 @@ class DebugSettingsFragment : FitoTrackSettingFragment() {
 
     private fun copyLogs() {
         thread {
+            instance.logger.flush()
             val destination =
                 File(DataManager.getSharedDirectory(context) + "/fitotrack-logs-${System.currentTimeMillis()}.txt")
             FileUtils.copyFile(instance.logger.file, destination)
@@ -202,11 +202,13 @@ public class EditWorkoutTypeActivity extends InformationActivity implements Icon
         } else {
             Instance.getInstance(this).db.workoutTypeDao().update(type);
         }
+        WorkoutTypeManager.getInstance().notifyWorkoutTypesChanged();
         finish();
     }
 
     private void delete() {
         Instance.getInstance(this).db.workoutTypeDao().delete(type);
+        WorkoutTypeManager.getInstance().notifyWorkoutTypesChanged();
         finish();
     }
 
@@ -19,30 +19,41 @@
 
 package de.tadris.fitness.ui.settings
 
-import android.hardware.SensorEvent
+import android.content.Intent
 import android.os.Bundle
 import android.widget.ArrayAdapter
 import android.widget.Button
+import android.widget.CheckBox
 import android.widget.Spinner
 import android.widget.TextView
 import de.tadris.fitness.Instance
 import de.tadris.fitness.R
 import de.tadris.fitness.recording.component.ExerciseRecognitionComponent
 import de.tadris.fitness.recording.component.FitoTrackSensorOption
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
+import de.tadris.fitness.recording.sensor.SensorTrace
+import de.tadris.fitness.recording.sensor.SensorTraceWriter
 import de.tadris.fitness.ui.FitoTrackActivity
-import org.greenrobot.eventbus.EventBus
-import org.greenrobot.eventbus.Subscribe
-import org.greenrobot.eventbus.ThreadMode
+import de.tadris.fitness.ui.ShareFileActivity
+import de.tadris.fitness.util.DataManager
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
 
-class SensorDebugActivity : FitoTrackActivity() {
+class SensorDebugActivity : FitoTrackActivity(), SensorSampleConsumer {
 
     private lateinit var spinner: Spinner
     private lateinit var startStopButton: Button
     private lateinit var infoText: TextView
+    private lateinit var recordTraceBox: CheckBox
 
     private val exerciseRecognitionComponent = ExerciseRecognitionComponent()
     private var running = false
 
+    private var traceFile: File? = null
+    @Volatile
+    private var traceWriter: SensorTraceWriter? = null
+
     private val sensors = FitoTrackSensorOption
         .values()
         .mapIndexed { index, sensor -> index to sensor }
@@ -57,6 +68,7 @@ class SensorDebugActivity : FitoTrackActivity() {
         spinner = findViewById(R.id.debugSensorsSelection)
         startStopButton = findViewById(R.id.debugSensorsStartButton)
         infoText = findViewById(R.id.debugSensorsInfo)
+        recordTraceBox = findViewById(R.id.debugSensorsRecordTrace)
 
         spinner.adapter = ArrayAdapter(
             this,
@@ -66,13 +78,11 @@ class SensorDebugActivity : FitoTrackActivity() {
         startStopButton.setOnClickListener { toggleStart() }
 
         exerciseRecognitionComponent.init(this)
-
-        EventBus.getDefault().register(this)
+        exerciseRecognitionComponent.sampleListener = this
     }
 
     override fun onDestroy() {
         stop()
-        EventBus.getDefault().unregister(this)
         super.onDestroy()
     }
 
@@ -88,6 +98,10 @@ class SensorDebugActivity : FitoTrackActivity() {
         if (running) return
         running = true
         val sensor = sensors[spinner.selectedItemPosition].second
+        if (recordTraceBox.isChecked) {
+            startTrace(sensor)
+        }
+        recordTraceBox.isEnabled = false
         exerciseRecognitionComponent.activateSensor(sensor)
         refreshButtonText()
     }
@@ -95,17 +109,52 @@ class SensorDebugActivity : FitoTrackActivity() {
     private fun stop() {
         if (!running) return
         running = false
-        exerciseRecognitionComponent.unregister()
+        val writer = traceWriter
+        val file = traceFile
+        traceFile = null
+        exerciseRecognitionComponent.unregister {
+            // The pipeline delivered its last samples, now the trace is complete
+            if (writer != null && file != null) {
+                if (traceWriter === writer) {
+                    traceWriter = null
+                }
+                writer.close()
+                runOnUiThread { shareTrace(file) }
+            }
+        }
+        recordTraceBox.isEnabled = true
         refreshButtonText()
         infoText.text = ""
     }
 
-    @Subscribe(threadMode = ThreadMode.MAIN)
-    fun onSensorEvent(event: SensorEvent) {
-        val info =
-            "${event.sensor.name},${event.timestamp},${event.values.joinToString(separator = ",")}"
-        Instance.getInstance(this).logger.info("SensorDebug", info)
-        infoText.text = info.replace(",", "\n")
+    private fun startTrace(sensor: FitoTrackSensorOption) {
+        try {
+            val file = DataManager.createSharableFile(
+                this,
+                "sensor-trace-${sensor.name.lowercase()}-${System.currentTimeMillis()}.${SensorTrace.FILE_EXTENSION}"
+            )
+            traceWriter = SensorTraceWriter(FileOutputStream(file))
+            traceFile = file
+        } catch (e: IOException) {
+            showErrorDialog(e, R.string.error, R.string.errorExportFailed)
+        }
+    }
+
+    private fun shareTrace(file: File) {
+        if (isFinishing || isDestroyed) return
+        val intent = Intent(this, ShareFileActivity::class.java)
+        intent.putExtra(ShareFileActivity.EXTRA_FILE_URI, DataManager.provide(this, file).toString())
+        intent.putExtra(ShareFileActivity.EXTRA_FILE_MIME, "application/octet-stream")
+        startActivity(intent)
+    }
+
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        traceWriter?.onSensorSample(sensorType, timestamp, x, y, z)
+        val info = "$sensorType,$timestamp,$x,$y,$z"
+        runOnUiThread {
+            Instance.getInstance(this).logger.info("SensorDebug", info)
+            infoText.text = info.replace(",", "\n")
+        }
     }
 
     private fun refreshButtonText() {
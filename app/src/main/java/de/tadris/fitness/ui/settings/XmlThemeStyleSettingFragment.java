@@ -52,8 +52,8 @@ import java.util.stream.Collectors;
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.AppDatabase;
+import de.tadris.fitness.data.GpsTrackColumns;
 import de.tadris.fitness.data.GpsWorkout;
-import de.tadris.fitness.data.GpsWorkoutData;
 import de.tadris.fitness.map.FitoTrackRenderThemeMenuCallback;
 import de.tadris.fitness.map.MapManager;
 import de.tadris.fitness.map.SimpleColoringStrategy;
@@ -100,11 +100,11 @@ public class XmlThemeStyleSettingFragment extends FitoTrackSettingFragment imple
 
         GpsWorkout workout = db.gpsWorkoutDao().getLastWorkout();
         if (workout != null) {
-            GpsWorkoutData workoutData = GpsWorkoutData.fromWorkout(getContext(), workout);
+            // Only the positions are needed, compacted tracks are read without sample objects
+            GpsTrackColumns track = db.gpsWorkoutDao().getTrackColumns(workout.id);
             WorkoutLayer workoutLayer = new WorkoutLayer(
-                    workoutData.getSamples(),
-                    new SimpleColoringStrategy(((FitoTrackActivity) requireActivity()).getThemePrimaryColor()),
-                    null);
+                    track,
+                    new SimpleColoringStrategy(((FitoTrackActivity) requireActivity()).getThemePrimaryColor()));
             mapView.addLayer(workoutLayer);
             final BoundingBox bounds = workoutLayer.getBoundingBox().extendMeters(50);
             handler.postDelayed(() -> mapView.getModel().mapViewPosition.setMapPosition(new MapPosition(bounds.getCenterPoint(),
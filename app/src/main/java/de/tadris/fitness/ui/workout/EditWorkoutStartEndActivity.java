@@ -33,8 +33,10 @@ import org.mapsforge.map.layer.overlay.FixedPixelCircle;
 import java.util.ArrayList;
 import java.util.List;
 
+import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsTrackStorage;
 import de.tadris.fitness.data.GpsWorkoutData;
 import de.tadris.fitness.map.SimpleColoringStrategy;
 import de.tadris.fitness.map.WorkoutLayer;
@@ -55,7 +57,7 @@ public class EditWorkoutStartEndActivity extends ShowWorkoutMapDiagramActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        workoutLayer.setColoringStrategy(workout, new SimpleColoringStrategy(getThemePrimaryColor()));
+        workoutLayer.setColoringStrategy(new SimpleColoringStrategy(getThemePrimaryColor()));
     }
 
     @Override
@@ -134,7 +136,7 @@ public class EditWorkoutStartEndActivity extends ShowWorkoutMapDiagramActivity {
         }
         //Draw new track
         if (selectedStartSample != null || selectedEndSample != null) {
-            workoutLayer.setColoringStrategy(workout, new SimpleColoringStrategy(Color.GRAY));
+            workoutLayer.setColoringStrategy(new SimpleColoringStrategy(Color.GRAY));
             newWorkoutLayer = new WorkoutLayer(newWorkoutSamples, new SimpleColoringStrategy(getThemePrimaryColor()), null);
             mapView.addLayer(newWorkoutLayer);
 
@@ -156,8 +158,10 @@ public class EditWorkoutStartEndActivity extends ShowWorkoutMapDiagramActivity {
 
         if (item.getItemId() == R.id.actionMoveApply) {
             if (selectedStartSample != null || selectedEndSample != null){
+                Instance.getInstance(this).db.gpsWorkoutDao().expandSamples(workout.id);
                 WorkoutCutter cutter = new WorkoutCutter(this, new GpsWorkoutData(workout, new ArrayList<>(samples)));
                 cutter.cutWorkout(selectedStartSample,selectedEndSample);
+                GpsTrackStorage.compactIfEnabled(this, workout.id);
 
 
                 Intent intent=new Intent();
@@ -19,12 +19,10 @@
 
 package de.tadris.fitness.ui.workout;
 
-import static java.lang.Math.ceil;
-import static java.lang.Math.log;
 import static java.lang.Math.max;
-import static java.lang.Math.pow;
 
 import android.graphics.Color;
+import android.util.LongSparseArray;
 import android.view.ViewGroup;
 import android.widget.LinearLayout;
 
@@ -39,9 +37,7 @@ import org.mapsforge.map.layer.download.TileDownloadLayer;
 import org.mapsforge.map.layer.overlay.FixedPixelCircle;
 
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.data.BaseSample;
@@ -49,7 +45,6 @@ import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.GpsWorkoutData;
-import de.tadris.fitness.data.StatsDataTypes;
 import de.tadris.fitness.data.preferences.UserPreferences;
 import de.tadris.fitness.map.ColoringStrategy;
 import de.tadris.fitness.map.GradientColoringStrategy;
@@ -68,6 +63,7 @@ public abstract class GpsWorkoutActivity extends WorkoutActivity implements MapS
     protected MapView mapView;
     protected WorkoutLayer workoutLayer;
     private FixedPixelCircle highlightingCircle;
+    private LongSparseArray<GpsSample> samplesById;
 
     protected GpsSample selectedSample = null;
 
@@ -133,7 +129,7 @@ public abstract class GpsWorkoutActivity extends WorkoutActivity implements MapS
 
         if (Instance.getInstance(this).userPreferences.getTrackStyleMode().equals(UserPreferences.STYLE_USAGE_ALWAYS)) {
             // Always show coloring
-            workoutLayer.setSampleConverter(workout, new SpeedConverter(this));
+            workoutLayer.setSampleConverter(getSampleStatistics(), new SpeedConverter(this));
         }
 
         mapView.addLayer(workoutLayer);
@@ -180,6 +176,16 @@ public abstract class GpsWorkoutActivity extends WorkoutActivity implements MapS
         //nada onChartSelectionChanged(sample)
     }
 
+    private LongSparseArray<GpsSample> getSamplesById() {
+        if (samplesById == null) {
+            samplesById = new LongSparseArray<>(samples.size());
+            for (GpsSample sample : samples) {
+                samplesById.put(sample.id, sample);
+            }
+        }
+        return samplesById;
+    }
+
     @Override
     protected void onChartSelectionChanged(BaseSample clickedSample) {
         //remove any previous layer
@@ -197,12 +203,7 @@ public abstract class GpsWorkoutActivity extends WorkoutActivity implements MapS
         }
 
         // Find real sample with same id as the clicked one
-        GpsSample diagramSample = (GpsSample) clickedSample;
-        for (GpsSample realSample : samples) {
-            if (diagramSample.id == realSample.id) {
-                selectedSample = realSample;
-            }
-        }
+        selectedSample = getSamplesById().get(clickedSample.id);
 
         // if a sample was selected show it on the map
         if (selectedSample != null) {
@@ -252,75 +253,4 @@ public abstract class GpsWorkoutActivity extends WorkoutActivity implements MapS
     protected GpsWorkoutData getGpsWorkoutData() {
         return new GpsWorkoutData(workout, samples);
     }
-
-    @Override
-    protected List<BaseSample> aggregatedSamples(int maxSampleNumber, StatsDataTypes.TimeSpan viewFieldSpan) {
-
-        int firstViewFieldSampleOriginalIndex = 0;
-
-        LinkedList<BaseSample> aggregatedSamples = new LinkedList<>();
-        LinkedList<BaseSample> viewFieldSamples = new LinkedList<>();
-
-        // Generating a list with all samples in the current view field
-        for (BaseSample sample : samples) {
-            if (sample instanceof GpsSample) {
-                if (viewFieldSpan.contains(sample.relativeTime)) {
-                    viewFieldSamples.add(sample);
-                }
-                if (viewFieldSamples.isEmpty()) {
-                    firstViewFieldSampleOriginalIndex++;
-                }
-            }
-        }
-
-        // Aggregate samples
-        int aggregationSize = viewFieldSamples.size() > maxSampleNumber ?
-                (int) (pow(2,ceil(log(viewFieldSamples.size()/3.0/maxSampleNumber))) * 3) :
-                1;
-        int firstGroupIndexInView = firstViewFieldSampleOriginalIndex / aggregationSize;
-        int currentGroupIndex = firstGroupIndexInView;
-        int aggregationGpsSampleNumber = 0; // We have to count separately since for the case
-        // where there is a list combining GpsSamples and other  BaseSample types
-        GpsSample combinedSample = new GpsSample();
-        for (ListIterator<BaseSample> i = viewFieldSamples.listIterator(); i.hasNext();) {
-            int originalIndex = i.nextIndex() + firstViewFieldSampleOriginalIndex;
-            int groupIndex = originalIndex / aggregationSize;
-            if (groupIndex != currentGroupIndex) {
-                combinedSample.divide(aggregationGpsSampleNumber);
-                aggregatedSamples.add(combinedSample);
-
-                combinedSample = new GpsSample();
-                aggregationGpsSampleNumber = 0;
-                currentGroupIndex++;
-            }
-
-            BaseSample sample = i.next();
-            if (sample instanceof GpsSample) {
-                GpsSample gpsSample = (GpsSample) sample;
-                combinedSample.add(gpsSample);
-                combinedSample.id = gpsSample.id;
-                aggregationGpsSampleNumber++;
-            }
-        }
-
-        // Index of element directly behind the last shown group
-        int behindViewIndex = (currentGroupIndex + 1) * aggregationSize;
-        // Index of element directly in front of the first shown group
-        int beforeViewIndex = firstGroupIndexInView * aggregationSize - 1;
-
-        // Add those samples
-        int samplesSize = samples.size();
-        if (behindViewIndex < samplesSize) {
-            aggregatedSamples.add(samples.get(behindViewIndex));
-            // Also add the last sample to the list
-            aggregatedSamples.add(samples.get(samples.size()-1));
-        }
-        if (beforeViewIndex > 0) {
-            aggregatedSamples.add(0, samples.get(beforeViewIndex));
-            // Also add the first sample to the list
-            aggregatedSamples.add(0, samples.get(0));
-        }
-
-        return aggregatedSamples;
-    }
 }
@@ -19,7 +19,6 @@
 
 package de.tadris.fitness.ui.workout;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -29,7 +28,6 @@ import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.IndoorSample;
 import de.tadris.fitness.data.IndoorWorkout;
 import de.tadris.fitness.data.IndoorWorkoutData;
-import de.tadris.fitness.data.StatsDataTypes;
 
 public abstract class IndoorWorkoutActivity extends WorkoutActivity {
 
@@ -57,9 +55,4 @@ public abstract class IndoorWorkoutActivity extends WorkoutActivity {
         return new IndoorWorkoutData(workout, samples);
     }
 
-    @Override
-    protected List<BaseSample> aggregatedSamples(int aggregationLength, StatsDataTypes.TimeSpan viewFieldSpan) {
-        return new ArrayList<>(samples);
-    }
-
 }
@@ -47,6 +47,7 @@ import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.StatsProvider;
+import de.tadris.fitness.data.StatsRollupManager;
 import de.tadris.fitness.osm.OAuthAuthentication;
 import de.tadris.fitness.osm.OsmTraceUploader;
 import de.tadris.fitness.ui.ShareFileActivity;
@@ -128,6 +129,7 @@ public class ShowGpsWorkoutActivity extends GpsWorkoutActivity implements Dialog
             addTitle(getString(R.string.workoutHeartRate));
             addKeyValue(getString(R.string.workoutAvgHeartRate), workout.avgHeartRate +" "+ getString(R.string.unitHeartBeatsPerMinute),
                     getString(R.string.workoutMaxHeartRate), workout.maxHeartRate +" "+ getString(R.string.unitHeartBeatsPerMinute));
+            addHeartRateVariability();
 
             addDiagram(new HeartRateConverter(this), ShowWorkoutMapDiagramActivity.DIAGRAM_TYPE_HEART_RATE);
         }
@@ -275,6 +277,8 @@ public class ShowGpsWorkoutActivity extends GpsWorkoutActivity implements Dialog
 
     public void deleteWorkout() {
         Instance.getInstance(this).db.gpsWorkoutDao().deleteWorkout(workout);
+        Instance.getInstance(this).db.heartRateVariabilityDao().deleteAllOfWorkout(workout.id);
+        new StatsRollupManager(this).onWorkoutChanged(workout);
         finish();
     }
 
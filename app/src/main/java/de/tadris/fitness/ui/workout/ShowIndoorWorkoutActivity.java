@@ -32,6 +32,7 @@ import java.util.List;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
+import de.tadris.fitness.data.StatsRollupManager;
 import de.tadris.fitness.data.preferences.UserMeasurements;
 import de.tadris.fitness.ui.workout.diagram.FrequencyConverter;
 import de.tadris.fitness.ui.workout.diagram.HeartRateConverter;
@@ -93,6 +94,7 @@ public class ShowIndoorWorkoutActivity extends IndoorWorkoutActivity implements
             addTitle(getString(R.string.workoutHeartRate));
             addKeyValue(getString(R.string.workoutAvgHeartRate), workout.avgHeartRate + " " + getString(R.string.unitHeartBeatsPerMinute),
                     getString(R.string.workoutMaxHeartRate), workout.maxHeartRate + " " + getString(R.string.unitHeartBeatsPerMinute));
+            addHeartRateVariability();
 
             addDiagram(new HeartRateConverter(this));
         }
@@ -159,6 +161,8 @@ public class ShowIndoorWorkoutActivity extends IndoorWorkoutActivity implements
 
     public void deleteWorkout() {
         Instance.getInstance(this).db.indoorWorkoutDao().deleteWorkout(workout);
+        Instance.getInstance(this).db.heartRateVariabilityDao().deleteAllOfWorkout(workout.id);
+        new StatsRollupManager(this).onWorkoutChanged(workout);
         finish();
     }
 
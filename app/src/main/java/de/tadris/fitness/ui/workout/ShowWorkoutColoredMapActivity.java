@@ -114,9 +114,6 @@ public abstract class ShowWorkoutColoredMapActivity extends GpsWorkoutActivity {
         } else if (coloringPropertyMode == COLORING_PROPERTY_CUSTOM) {
             converter = coloringConverter;
         }
-        if (converter != null) {
-            converter.onCreate(getBaseWorkoutData());
-        }
-        workoutLayer.setSampleConverter(workout, converter);
+        workoutLayer.setSampleConverter(getSampleStatistics(), converter);
     }
 }
\ No newline at end of file
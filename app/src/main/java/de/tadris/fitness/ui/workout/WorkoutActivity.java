@@ -43,7 +43,9 @@ import com.github.mikephil.charting.listener.OnChartValueSelectedListener;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
@@ -51,10 +53,13 @@ import de.tadris.fitness.data.BaseSample;
 import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.HeartRateVariability;
 import de.tadris.fitness.data.Interval;
 import de.tadris.fitness.data.IntervalSet;
 import de.tadris.fitness.data.StatsDataTypes;
 import de.tadris.fitness.ui.workout.diagram.SampleConverter;
+import de.tadris.fitness.ui.workout.diagram.SamplePyramid;
+import de.tadris.fitness.ui.workout.diagram.SampleStatistics;
 import de.tadris.fitness.util.WorkoutCalculator;
 import de.tadris.fitness.util.charts.ChartStyles;
 import de.tadris.fitness.util.charts.marker.DisplayValueMarker;
@@ -72,6 +77,8 @@ public abstract class WorkoutActivity extends InformationActivity {
     protected final Handler mHandler = new Handler();
     protected IntervalSet usedIntervalSet;
     protected Interval[] intervals;
+    private final Map<SampleConverter, SamplePyramid> samplePyramids = new IdentityHashMap<>();
+    private SampleStatistics sampleStatistics;
 
     protected DistanceUnitUtils distanceUnitUtils;
     protected EnergyUnitUtils energyUnitUtils;
@@ -111,6 +118,21 @@ public abstract class WorkoutActivity extends InformationActivity {
         theme = getTheme();
     }
 
+    /**
+     * Shows the heart rate variability that was calculated while recording, if there is one
+     */
+    protected void addHeartRateVariability() {
+        HeartRateVariability variability = Instance.getInstance(this).db.heartRateVariabilityDao().getHeartRateVariability(workout.id);
+        if (variability == null) {
+            return;
+        }
+        String unit = " " + getString(R.string.unitMillisecondsShort);
+        addKeyValue(getString(R.string.workoutRmssd), Math.round(variability.rmssd) + unit,
+                getString(R.string.workoutSdnn), Math.round(variability.sdnn) + unit);
+        addKeyValue(getString(R.string.workoutHeartBeats), String.valueOf(variability.beatCount),
+                getString(R.string.workoutHeartBeatArtifacts), Math.round(variability.getArtifactRatio() * 100) + " %");
+    }
+
     protected CombinedChart addDiagram(SampleConverter converter) {
         CombinedChart chart = getDiagram(converter);
         root.addView(chart, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT, fullScreenItems ? ViewGroup.LayoutParams.MATCH_PARENT : getMapHeight() / 2));
@@ -165,7 +187,18 @@ public abstract class WorkoutActivity extends InformationActivity {
     protected void onChartSelectionChanged(BaseSample sample) {
     }
 
-    abstract List<BaseSample> aggregatedSamples(int aggregationLength, StatsDataTypes.TimeSpan viewFieldSpan);
+    /**
+     * The pyramid is built once per converter, after that zooming and scrolling only reads the
+     * visible slice of it.
+     */
+    private SamplePyramid getSamplePyramid(SampleConverter converter) {
+        SamplePyramid pyramid = samplePyramids.get(converter);
+        if (pyramid == null) {
+            pyramid = new SamplePyramid(samples, getSampleStatistics().getChannel(converter));
+            samplePyramids.put(converter, pyramid);
+        }
+        return pyramid;
+    }
 
     protected void updateChart(CombinedChart chart, List<SampleConverter> converters, boolean showIntervalSets) {
         boolean hasMultipleConverters = converters.size() > 1;
@@ -195,14 +228,10 @@ public abstract class WorkoutActivity extends InformationActivity {
 
         int converterIndex = 0;
         for (SampleConverter converter : converters) {
-            converter.onCreate(getBaseWorkoutData());
-
             List<Entry> entries = new ArrayList<>();
-            for (BaseSample sample : aggregatedSamples(NUMBER_OF_SAMPLES_IN_DIAGRAM, chartViewField)) {
-                // turn data into Entry objects
-                Entry e = new Entry((float) (sample.relativeTime) / 1000f / 60f, converter.getValue(sample), sample);
-                entries.add(e);
-            }
+            getSamplePyramid(converter).query(chartViewField.startTime, chartViewField.endTime, NUMBER_OF_SAMPLES_IN_DIAGRAM,
+                    // turn data into Entry objects
+                    (time, value, sampleIndex) -> entries.add(new Entry((float) time / 1000f / 60f, value, samples.get(sampleIndex))));
             chart.getXAxis().setValueFormatter(converter.getXValueFormatter());
 
             LineDataSet dataSet = new LineDataSet(entries, converter.getName()); // add entries to dataset
@@ -261,11 +290,12 @@ public abstract class WorkoutActivity extends InformationActivity {
 
     public void updateChartSelection(CombinedChart chart, List<SampleConverter> converters) {
         // Fix Y-Axis scale
-        chart.getAxisLeft().setAxisMaximum(converters.get(0).getMaxValue(workout)*1.05f);
-        chart.getAxisLeft().setAxisMinimum(converters.get(0).getMinValue(workout)*0.95f);
+        SampleStatistics statistics = getSampleStatistics();
+        chart.getAxisLeft().setAxisMaximum(converters.get(0).getMaxValue(statistics)*1.05f);
+        chart.getAxisLeft().setAxisMinimum(converters.get(0).getMinValue(statistics)*0.95f);
         if (converters.size() > 1) {
-            chart.getAxisRight().setAxisMaximum(converters.get(1).getMaxValue(workout)*1.05f);
-            chart.getAxisRight().setAxisMinimum(converters.get(1).getMinValue(workout)*0.95f);
+            chart.getAxisRight().setAxisMaximum(converters.get(1).getMaxValue(statistics)*1.05f);
+            chart.getAxisRight().setAxisMinimum(converters.get(1).getMinValue(statistics)*0.95f);
         }
     }
 
@@ -289,6 +319,16 @@ public abstract class WorkoutActivity extends InformationActivity {
         return new BaseWorkoutData(workout, samples);
     }
 
+    /**
+     * @return converted sample values of this workout, shared by diagrams and map coloring
+     */
+    protected SampleStatistics getSampleStatistics() {
+        if (sampleStatistics == null) {
+            sampleStatistics = new SampleStatistics(getBaseWorkoutData());
+        }
+        return sampleStatistics;
+    }
+
     @Override
     public boolean onOptionsItemSelected(MenuItem item) {
         int id = item.getItemId();
@@ -74,6 +74,16 @@ public abstract class AbstractSampleConverter implements SampleConverter {
         return new DefaultValueFormatter(1);
     }
 
+    @Override
+    public float getMinValue(SampleStatistics statistics) {
+        return statistics.getChannel(this).getMin();
+    }
+
+    @Override
+    public float getMaxValue(SampleStatistics statistics) {
+        return statistics.getChannel(this).getMax();
+    }
+
     @Override
     public void afterAdd(CombinedChart chart) {
     } // Mostly not needed
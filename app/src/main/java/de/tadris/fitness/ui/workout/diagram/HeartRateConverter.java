@@ -23,7 +23,6 @@ import android.content.Context;
 
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 
 public class HeartRateConverter extends AbstractSampleConverter {
@@ -57,12 +56,12 @@ public class HeartRateConverter extends AbstractSampleConverter {
     }
 
     @Override
-    public float getMinValue(BaseWorkout workout) {
+    public float getMinValue(SampleStatistics statistics) {
         return 50;
     }
 
     @Override
-    public float getMaxValue(BaseWorkout workout) {
+    public float getMaxValue(SampleStatistics statistics) {
         return 160;
     }
 }
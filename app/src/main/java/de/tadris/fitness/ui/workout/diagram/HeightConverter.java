@@ -26,7 +26,6 @@ import com.github.mikephil.charting.formatter.ValueFormatter;
 
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
@@ -67,12 +66,12 @@ public class HeightConverter extends AbstractSampleConverter {
     }
 
     @Override
-    public float getMinValue(BaseWorkout workout) {
-        return (float) distanceUnitUtils.getDistanceUnitSystem().getElevationFromMeters(((GpsWorkout) workout).minElevationMSL);
+    public float getMinValue(SampleStatistics statistics) {
+        return (float) distanceUnitUtils.getDistanceUnitSystem().getElevationFromMeters(((GpsWorkout) statistics.getWorkout()).minElevationMSL);
     }
 
     @Override
-    public float getMaxValue(BaseWorkout workout) {
-        return (float) distanceUnitUtils.getDistanceUnitSystem().getElevationFromMeters(((GpsWorkout) workout).maxElevationMSL);
+    public float getMaxValue(SampleStatistics statistics) {
+        return (float) distanceUnitUtils.getDistanceUnitSystem().getElevationFromMeters(((GpsWorkout) statistics.getWorkout()).maxElevationMSL);
     }
 }
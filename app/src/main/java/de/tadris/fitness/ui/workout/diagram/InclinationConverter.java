@@ -21,20 +21,14 @@ package de.tadris.fitness.ui.workout.diagram;
 
 import android.content.Context;
 
-import java.util.Comparator;
-import java.util.List;
-
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.WorkoutManager;
 
 public class InclinationConverter extends AbstractSampleConverter {
 
-    float min, max;
-
     public InclinationConverter(Context context) {
         super(context);
     }
@@ -42,9 +36,6 @@ public class InclinationConverter extends AbstractSampleConverter {
     @Override
     public void onCreate(BaseWorkoutData data) {
         WorkoutManager.calculateInclination(data.castToGpsData().getSamples());
-        List<GpsSample> samples = data.castToGpsData().getSamples();
-        this.min = samples.stream().min(inclinationComparator).get().tmpInclination;
-        this.max = samples.stream().max(inclinationComparator).get().tmpInclination;
     }
 
     @Override
@@ -66,24 +57,4 @@ public class InclinationConverter extends AbstractSampleConverter {
     public int getColor() {
         return R.color.diagramInclination;
     }
-
-    @Override
-    public float getMinValue(BaseWorkout workout) {
-        return min;
-    }
-
-    @Override
-    public float getMaxValue(BaseWorkout workout) {
-        return max;
-    }
-
-    public static Comparator<GpsSample> inclinationComparator = (first, second) -> {
-        if (first.tmpInclination > second.tmpInclination) {
-            return 1;
-        } else if (first.tmpInclination < second.tmpInclination) {
-            return -1;
-        } else {
-            return 0;
-        }
-    };
 }
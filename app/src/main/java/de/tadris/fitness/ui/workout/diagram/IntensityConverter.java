@@ -23,7 +23,6 @@ import android.content.Context;
 
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.IndoorSample;
 import de.tadris.fitness.data.IndoorWorkout;
@@ -39,13 +38,13 @@ public class IntensityConverter extends AbstractSampleConverter {
     }
 
     @Override
-    public float getMinValue(BaseWorkout workout) {
+    public float getMinValue(SampleStatistics statistics) {
         return 0;
     }
 
     @Override
-    public float getMaxValue(BaseWorkout workout) {
-        return (float) ((IndoorWorkout) workout).maxIntensity;
+    public float getMaxValue(SampleStatistics statistics) {
+        return (float) ((IndoorWorkout) statistics.getWorkout()).maxIntensity;
     }
 
     @Override
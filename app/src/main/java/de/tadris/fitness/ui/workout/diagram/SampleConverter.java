@@ -25,16 +25,15 @@ import com.github.mikephil.charting.charts.CombinedChart;
 import com.github.mikephil.charting.formatter.ValueFormatter;
 
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 
 public interface SampleConverter {
 
     void onCreate(BaseWorkoutData data);
 
-    float getMinValue(BaseWorkout workout);
+    float getMinValue(SampleStatistics statistics);
 
-    float getMaxValue(BaseWorkout workout);
+    float getMaxValue(SampleStatistics statistics);
 
     float getValue(BaseSample sample);
 
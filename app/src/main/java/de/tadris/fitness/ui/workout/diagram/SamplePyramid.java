@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.ui.workout.diagram;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tadris.fitness.data.BaseSample;
+
+/**
+ * Precomputed mean levels over the values of one converter. Level 0 holds the raw
+ * samples, every following level combines two buckets of the level below, so level {@code k}
+ * summarizes {@code 2^k} samples per bucket.
+ * <p>
+ * A diagram update only picks the coarsest level that still has enough points in the visible
+ * window and reads that slice, so it is O(visible points) regardless of the workout length.
+ */
+public class SamplePyramid {
+
+    public interface PointConsumer {
+        /**
+         * @param time        mean relative time of the bucket in ms
+         * @param value       mean value of the bucket
+         * @param sampleIndex index of the last sample in the bucket, used to link the point to a sample
+         */
+        void accept(long time, float value, int sampleIndex);
+    }
+
+    private final int sampleCount;
+    private final long[] sampleTimes;
+    private final List<Level> levels = new ArrayList<>();
+
+    /**
+     * @param channel converted values of the samples, in the same order
+     */
+    public SamplePyramid(List<? extends BaseSample> samples, SampleStatistics.Channel channel) {
+        this(getRelativeTimes(samples), getValues(channel, samples.size()));
+    }
+
+    /**
+     * @param sampleTimes relative times of the samples in ascending order
+     * @param values      values of the samples, in the same order
+     */
+    public SamplePyramid(long[] sampleTimes, float[] values) {
+        this.sampleCount = sampleTimes.length;
+        this.sampleTimes = sampleTimes;
+        levels.add(new Level(sampleTimes, values));
+        while (levels.get(levels.size() - 1).size() > 1) {
+            levels.add(levels.get(levels.size() - 1).combine(levels.size() - 1, sampleCount));
+        }
+    }
+
+    /**
+     * Emits the points that cover the given time span with at most about {@code maxPoints} points.
+     * One neighbouring point on each side and the first and last sample are added so that lines
+     * continue out of the visible window and the diagram keeps the full time range.
+     */
+    public void query(long fromTime, long toTime, int maxPoints, PointConsumer consumer) {
+        if (sampleCount == 0) {
+            return;
+        }
+        int first = lowerBound(fromTime);
+        int last = lowerBound(toTime + 1) - 1; // last sample with time <= toTime
+        int visibleCount = Math.max(last - first + 1, 1);
+
+        int levelIndex = 0;
+        while (levelIndex < levels.size() - 1 && ceilShift(visibleCount, levelIndex) > maxPoints) {
+            levelIndex++;
+        }
+        Level level = levels.get(levelIndex);
+
+        int firstBucket = Math.max(Math.min(first, sampleCount - 1) >> levelIndex, 0);
+        int lastBucket = Math.max(last, first) >> levelIndex;
+        firstBucket = Math.max(firstBucket - 1, 0);
+        lastBucket = Math.min(lastBucket + 1, level.size() - 1);
+
+        if (firstBucket > 0 || levelIndex > 0) {
+            consumer.accept(sampleTimes[0], levels.get(0).mean[0], 0);
+        }
+        for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            int lastSampleOfBucket = Math.min(((bucket + 1) << levelIndex), sampleCount) - 1;
+            consumer.accept(level.time[bucket], level.mean[bucket], lastSampleOfBucket);
+        }
+        if (lastBucket < level.size() - 1 || levelIndex > 0) {
+            consumer.accept(sampleTimes[sampleCount - 1], levels.get(0).mean[sampleCount - 1], sampleCount - 1);
+        }
+    }
+
+    private static long[] getRelativeTimes(List<? extends BaseSample> samples) {
+        long[] times = new long[samples.size()];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = samples.get(i).relativeTime;
+        }
+        return times;
+    }
+
+    private static float[] getValues(SampleStatistics.Channel channel, int count) {
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = channel.getValue(i);
+        }
+        return values;
+    }
+
+    /**
+     * @return index of the first sample with a relative time >= time
+     */
+    private int lowerBound(long time) {
+        int low = 0;
+        int high = sampleCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sampleTimes[mid] < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static int ceilShift(int value, int shift) {
+        return (int) (((long) value + (1L << shift) - 1) >> shift);
+    }
+
+    private static class Level {
+        final long[] time;
+        final float[] mean;
+
+        Level(long[] time, float[] mean) {
+            this.time = time;
+            this.mean = mean;
+        }
+
+        int size() {
+            return time.length;
+        }
+
+        /**
+         * @param levelIndex  index of this level
+         * @param sampleCount total number of samples, needed for the size of the last bucket
+         */
+        Level combine(int levelIndex, int sampleCount) {
+            int size = (size() + 1) / 2;
+            long[] time = new long[size];
+            float[] mean = new float[size];
+            long bucketSize = 1L << levelIndex;
+            for (int i = 0; i < size; i++) {
+                int left = 2 * i;
+                int right = left + 1;
+                if (right < size()) {
+                    // Only the last bucket of a level can be smaller than the others
+                    long leftWeight = bucketSize;
+                    long rightWeight = Math.min(bucketSize, sampleCount - right * bucketSize);
+                    long totalWeight = leftWeight + rightWeight;
+                    time[i] = (this.time[left] * leftWeight + this.time[right] * rightWeight) / totalWeight;
+                    mean[i] = (float) (((double) this.mean[left] * leftWeight + (double) this.mean[right] * rightWeight) / totalWeight);
+                } else {
+                    time[i] = this.time[left];
+                    mean[i] = this.mean[left];
+                }
+            }
+            return new Level(time, mean);
+        }
+    }
+}
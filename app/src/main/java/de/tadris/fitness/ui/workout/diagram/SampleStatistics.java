@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.ui.workout.diagram;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.tadris.fitness.data.BaseSample;
+import de.tadris.fitness.data.BaseWorkout;
+import de.tadris.fitness.data.BaseWorkoutData;
+
+/**
+ * Per-workout cache of the values of every {@link SampleConverter} channel. It lives as long as
+ * the screen that shows the workout, so converters, diagrams and map coloring share one pass over
+ * the samples instead of loading or converting them again.
+ */
+public class SampleStatistics {
+
+    private final BaseWorkoutData data;
+    private final Map<Class<? extends SampleConverter>, Channel> channels = new HashMap<>();
+
+    public SampleStatistics(BaseWorkoutData data) {
+        this.data = data;
+    }
+
+    public BaseWorkout getWorkout() {
+        return data.getWorkout();
+    }
+
+    /**
+     * Returns the statistics for the converter's channel. On first use the converter prepares the
+     * workout data ({@link SampleConverter#onCreate(BaseWorkoutData)}) and all values are
+     * converted once.
+     */
+    public Channel getChannel(SampleConverter converter) {
+        Channel channel = channels.get(converter.getClass());
+        if (channel == null) {
+            converter.onCreate(data);
+            channel = new Channel(data.getSamples(), converter);
+            channels.put(converter.getClass(), channel);
+        }
+        return channel;
+    }
+
+    public static class Channel {
+
+        private final float[] values;
+        private final float min;
+        private final float max;
+        private final float mean;
+        private float[] sortedValues;
+
+        Channel(List<BaseSample> samples, SampleConverter converter) {
+            values = new float[samples.size()];
+            float min = Float.POSITIVE_INFINITY;
+            float max = Float.NEGATIVE_INFINITY;
+            double sum = 0;
+            int count = 0;
+            for (int i = 0; i < values.length; i++) {
+                float value = converter.getValue(samples.get(i));
+                values[i] = value;
+                if (Float.isNaN(value) || Float.isInfinite(value)) {
+                    continue; // e.g. inclination without distance
+                }
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+                count++;
+            }
+            this.min = count > 0 ? min : 0;
+            this.max = count > 0 ? max : 0;
+            this.mean = count > 0 ? (float) (sum / count) : 0;
+        }
+
+        public int size() {
+            return values.length;
+        }
+
+        public float getValue(int sampleIndex) {
+            return values[sampleIndex];
+        }
+
+        public float getMin() {
+            return min;
+        }
+
+        public float getMax() {
+            return max;
+        }
+
+        public float getMean() {
+            return mean;
+        }
+
+        /**
+         * @param percentile between 0 and 100
+         * @return linearly interpolated percentile of all values
+         */
+        public float getPercentile(double percentile) {
+            if (values.length == 0) {
+                return 0;
+            }
+            if (sortedValues == null) {
+                // NaN sorts to the end, it's only reached for the highest percentiles
+                sortedValues = Arrays.copyOf(values, values.length);
+                Arrays.sort(sortedValues);
+            }
+            double position = Math.max(0, Math.min(100, percentile)) / 100 * (sortedValues.length - 1);
+            int lower = (int) Math.floor(position);
+            int upper = Math.min(lower + 1, sortedValues.length - 1);
+            double fraction = position - lower;
+            return (float) (sortedValues[lower] + (sortedValues[upper] - sortedValues[lower]) * fraction);
+        }
+    }
+}
@@ -21,16 +21,8 @@ package de.tadris.fitness.ui.workout.diagram;
 
 import android.content.Context;
 
-import java.util.Arrays;
-import java.util.Comparator;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
-
-import de.tadris.fitness.Instance;
 import de.tadris.fitness.R;
 import de.tadris.fitness.data.BaseSample;
-import de.tadris.fitness.data.BaseWorkout;
 import de.tadris.fitness.data.BaseWorkoutData;
 import de.tadris.fitness.data.GpsSample;
 
@@ -70,26 +62,4 @@ public class SpeedConverter extends AbstractSampleConverter {
     public int getColor() {
         return R.color.diagramSpeed;
     }
-
-    @Override
-    public float getMinValue(BaseWorkout workout) {
-        Stream<GpsSample> samples = Arrays.stream(Instance.getInstance(context).db.gpsWorkoutDao().getAllSamplesOfWorkout(workout.id));
-        return (float) distanceUnitUtils.getDistanceUnitSystem().getSpeedFromMeterPerSecond(samples.min(speedComparator).get().speed);
-    }
-
-    @Override
-    public float getMaxValue(BaseWorkout workout) {
-        List<GpsSample> samples = Arrays.stream(Instance.getInstance(context).db.gpsWorkoutDao().getAllSamplesOfWorkout(workout.id)).collect(Collectors.toList());
-        return (float) distanceUnitUtils.getDistanceUnitSystem().getSpeedFromMeterPerSecond(samples.stream().max(speedComparator).get().speed);
-    }
-
-    public static Comparator<GpsSample> speedComparator = (first, second) -> {
-        if (first.speed > second.speed) {
-            return 1;
-        } else if (first.speed < second.speed) {
-            return -1;
-        } else {
-            return 0;
-        }
-    };
 }
@@ -25,8 +25,9 @@ import org.apache.commons.io.IOUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
 
 import de.tadris.fitness.R;
 
@@ -40,37 +41,63 @@ import de.tadris.fitness.R;
  * but we want the height over the sea level. That's why we have to correct the height.
  * Luckily I found a file containing the corrections for all places around the world.
  * <p>
- * The geoids.csv is from https://github.com/vectorstofinal/geoid_heights and licensed under MIT
+ * The geoid heights are from https://github.com/vectorstofinal/geoid_heights and licensed under MIT.
+ * The geoids.csv from there was converted to geoids.bin: a grid of big-endian 16-bit integers
+ * containing the offset in centimeters, row by row from latitude -90 to 90 and in each row
+ * from longitude -180 to 180 in one degree steps.
+ * <p>
+ * The grid is loaded once per process, offsets are interpolated bilinearly between the grid points.
  */
 public class AltitudeCorrection {
 
-    private Context context;
-    private int latitude, longitude;
-    private double offset; // Basically how much higher the sea-level than the ellipsoid is
+    private static final int GRID_ROWS = 181; // -90..90
+    private static final int GRID_COLUMNS = 361; // -180..180
+
+    private static ShortBuffer grid;
 
-    public AltitudeCorrection(Context context, int latitude, int longitude) throws IOException {
-        this.context = context;
-        this.latitude = latitude;
-        this.longitude = longitude;
-        findOffset();
+    private AltitudeCorrection() {
     }
 
-    private void findOffset() throws IOException {
-        InputStream inputStream = context.getResources().openRawResource(R.raw.geoids);
-        List<String> list = IOUtils.readLines(inputStream, StandardCharsets.UTF_8);
-        for (String line : list) {
-            String[] data = line.split(",");
-            int lat = Integer.parseInt(data[0]);
-            int lon = Integer.parseInt(data[1]);
-            double offset = Double.parseDouble(data[2]);
-            if (lat == this.latitude && lon == this.longitude) {
-                this.offset = offset;
-                return;
-            }
-        }
+    /**
+     * @return how much higher the sea-level than the ellipsoid is at the given position in meters
+     */
+    public static double getOffset(Context context, double latitude, double longitude) throws IOException {
+        ShortBuffer grid = getGrid(context);
+
+        double row = Math.max(0, Math.min(GRID_ROWS - 1, latitude + 90));
+        double column = ((longitude + 180) % 360 + 360) % 360; // normalize to 0..360
+        int row0 = Math.min((int) row, GRID_ROWS - 2);
+        int column0 = Math.min((int) column, GRID_COLUMNS - 2);
+        double rowFraction = row - row0;
+        double columnFraction = column - column0;
+
+        double bottom = interpolate(getGridValue(grid, row0, column0), getGridValue(grid, row0, column0 + 1), columnFraction);
+        double top = interpolate(getGridValue(grid, row0 + 1, column0), getGridValue(grid, row0 + 1, column0 + 1), columnFraction);
+        return interpolate(bottom, top, rowFraction);
     }
 
-    public double getHeightOverSeaLevel(double heightOverEllipsoid) {
-        return heightOverEllipsoid - offset;
+    private static double interpolate(double a, double b, double fraction) {
+        return a + (b - a) * fraction;
+    }
+
+    private static double getGridValue(ShortBuffer grid, int row, int column) {
+        return grid.get(row * GRID_COLUMNS + column) / 100d;
+    }
+
+    private static synchronized ShortBuffer getGrid(Context context) throws IOException {
+        if (grid == null) {
+            byte[] data;
+            try (InputStream inputStream = context.getResources().openRawResource(R.raw.geoids)) {
+                data = IOUtils.toByteArray(inputStream);
+            }
+            if (data.length != GRID_ROWS * GRID_COLUMNS * 2) {
+                throw new IOException("Unexpected geoid grid size: " + data.length);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect(data.length).order(ByteOrder.BIG_ENDIAN);
+            buffer.put(data);
+            buffer.flip();
+            grid = buffer.asShortBuffer();
+        }
+        return grid;
     }
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness.util;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Small pool of mutable bitmaps that can be reused with {@link android.graphics.BitmapFactory.Options#inBitmap}
+ */
+public class BitmapPool {
+
+    private final int maxSize;
+    private final ArrayDeque<Bitmap> bitmaps = new ArrayDeque<>();
+
+    public BitmapPool(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the smallest pooled bitmap with at least this allocation size or null if there is none
+     */
+    @Nullable
+    public synchronized Bitmap get(int byteCount) {
+        Bitmap best = null;
+        for (Bitmap bitmap : bitmaps) {
+            if (bitmap.getAllocationByteCount() >= byteCount &&
+                    (best == null || bitmap.getAllocationByteCount() < best.getAllocationByteCount())) {
+                best = bitmap;
+            }
+        }
+        if (best != null) {
+            bitmaps.remove(best);
+        }
+        return best;
+    }
+
+    /**
+     * Returns a bitmap that isn't used anymore to the pool. The oldest bitmap is recycled if the
+     * pool is full.
+     */
+    public synchronized void put(Bitmap bitmap) {
+        if (bitmap.isRecycled() || !bitmap.isMutable() || bitmaps.contains(bitmap)) {
+            return;
+        }
+        if (bitmaps.size() >= maxSize) {
+            bitmaps.removeFirst().recycle();
+        }
+        bitmaps.addLast(bitmap);
+    }
+
+    public synchronized void clear() {
+        Iterator<Bitmap> iterator = bitmaps.iterator();
+        while (iterator.hasNext()) {
+            iterator.next().recycle();
+            iterator.remove();
+        }
+    }
+}
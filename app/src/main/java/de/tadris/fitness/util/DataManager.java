@@ -25,12 +25,11 @@ import android.util.Log;
 
 import androidx.core.content.FileProvider;
 
-import org.apache.commons.io.IOUtils;
-
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.util.Objects;
 
 import de.tadris.fitness.BuildConfig;
@@ -85,23 +84,19 @@ public class DataManager {
 
         Log.d("DataManager", "Rotating log file, cutting off " + cutoffBytes + " bytes.");
 
-        // create tmp file
+        // copy everything after the cut-off into a tmp file
         File newFile = new File(oldFile.getParentFile(), oldFile.getName() + ".rotated");
-        newFile.createNewFile();
-
-        FileInputStream input = new FileInputStream(oldFile);
-        FileOutputStream output = new FileOutputStream(newFile);
-
-        // skip cutoffBytes bytes
-        for (long l = 0; l < cutoffBytes; l++) {
-            input.read(); // skip bytes
+        try (FileChannel input = new FileInputStream(oldFile).getChannel();
+             FileChannel output = new FileOutputStream(newFile).getChannel()) {
+            long position = cutoffBytes;
+            long size = input.size();
+            while (position < size) {
+                long transferred = input.transferTo(position, size - position, output);
+                if (transferred <= 0) break;
+                position += transferred;
+            }
         }
 
-        // copy the rest into the new file
-        IOUtils.copy(input, output);
-        input.close();
-        output.close();
-
         oldFile.delete();
         newFile.renameTo(oldFile);
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.util
+
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * Bounded lock-free queue of log lines for many producers and a single consumer. Producers never
+ * block: if the buffer is full the line is dropped and counted instead.
+ */
+class LogRingBuffer(capacity: Int) {
+
+    private val capacity = Integer.highestOneBit(capacity - 1) shl 1 // next power of two
+    private val mask = this.capacity - 1
+    private val lines = AtomicReferenceArray<String?>(this.capacity)
+    private val times = LongArray(this.capacity)
+
+    private val tail = AtomicLong() // next position to claim by producers
+    @Volatile
+    private var head = 0L // next position to read by the consumer
+
+    private val dropped = AtomicLong()
+
+    /**
+     * Number of lines that were dropped because the buffer was full
+     */
+    val droppedCount get() = dropped.get()
+
+    /**
+     * Lines that were added but not yet consumed
+     */
+    val size get() = (tail.get() - head).toInt()
+
+    /**
+     * Position after the last claimed slot, see [consumedPosition]
+     */
+    val position get() = tail.get()
+
+    /**
+     * Position after the last consumed line
+     */
+    val consumedPosition get() = head
+
+    /**
+     * @return false if the line was dropped
+     */
+    fun offer(time: Long, line: String): Boolean {
+        while (true) {
+            val position = tail.get()
+            if (position - head >= capacity) {
+                dropped.incrementAndGet()
+                return false
+            }
+            if (tail.compareAndSet(position, position + 1)) {
+                val index = (position and mask.toLong()).toInt()
+                times[index] = time
+                lines.lazySet(index, line) // publishes the time as well
+                return true
+            }
+        }
+    }
+
+    /**
+     * Passes all published lines to the consumer in order. Must only be called from one thread.
+     *
+     * @return number of consumed lines
+     */
+    fun drain(consumer: (time: Long, line: String) -> Unit): Int {
+        var count = 0
+        while (true) {
+            val index = (head and mask.toLong()).toInt()
+            val line = lines.get(index) ?: break // empty or not yet published
+            val time = times[index]
+            lines.lazySet(index, null)
+            head++
+            consumer(time, line)
+            count++
+        }
+        return count
+    }
+
+}
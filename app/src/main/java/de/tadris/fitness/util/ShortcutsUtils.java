@@ -39,7 +39,7 @@ import de.tadris.fitness.data.WorkoutTypeManager;
 import de.tadris.fitness.ui.record.RecordWorkoutActivity;
 import de.tadris.fitness.util.charts.BitmapHelper;
 
-public class ShortcutsUtils {
+public class ShortcutsUtils implements WorkoutTypeManager.WorkoutTypeChangeListener {
     private static final String TAG = "ShortcutsUtils";
     public static final int SHORTCUTS_NUMBER = 5;
 
@@ -91,5 +91,15 @@ public class ShortcutsUtils {
       updateShortcuts(
               WorkoutTypeManager.getInstance().getAllTypesSorted(context)
       );
+      WorkoutTypeManager.getInstance().removeChangeListener(this);
+      WorkoutTypeManager.getInstance().addChangeListener(this);
+    }
+
+    @Override
+    public void onWorkoutTypesChanged() {
+      // Titles, icons or colors of the types might have changed
+      updateShortcuts(
+              WorkoutTypeManager.getInstance().getAllTypesSorted(context)
+      );
     }
 }
@@ -27,13 +27,22 @@ import java.io.File
 import java.io.FileOutputStream
 import java.text.SimpleDateFormat
 import java.util.Date
-import kotlin.concurrent.thread
+import java.util.concurrent.TimeUnit
+import java.util.concurrent.locks.LockSupport
 
+/**
+ * Writes log lines into the recorder log file. [info] only puts the line into a [LogRingBuffer],
+ * a background thread formats and writes them and flushes the file periodically or when the
+ * buffer fills up.
+ */
 class WorkoutLogger(context: Context) {
 
     companion object {
 
         private const val MAX_LOG_SIZE = 1000L * 1000 * 2 // 2 MB
+        private const val BUFFER_CAPACITY = 1024
+        private const val HIGH_WATER_MARK = BUFFER_CAPACITY / 2
+        private val FLUSH_INTERVAL = TimeUnit.SECONDS.toNanos(1)
 
         @JvmStatic
         fun log(tag: String, message: String) {
@@ -48,35 +57,97 @@ class WorkoutLogger(context: Context) {
 
     }
 
-    private val formatter = SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
-    private val currentDate get() = formatter.format(Date())
-
     val file = File(context.filesDir, "recorder.log")
-    private var writer: BufferedWriter? = null
 
-    init {
-        // Async init log file
-        thread {
+    private val buffer = LogRingBuffer(BUFFER_CAPACITY)
+
+    /**
+     * Number of lines that couldn't be written because the buffer was full
+     */
+    val droppedMessages get() = buffer.droppedCount
+
+    @Volatile
+    private var flushedPosition = 0L
+
+    private val writerThread = Thread({ runWriter() }, "WorkoutLogger").apply {
+        isDaemon = true
+        start()
+    }
+
+    fun info(tag: String, message: String) {
+        buffer.offer(System.currentTimeMillis(), "[$tag] $message")
+        if (buffer.size >= HIGH_WATER_MARK) {
+            LockSupport.unpark(writerThread)
+        }
+        Log.i(tag, message)
+    }
+
+    /**
+     * Blocks until all lines logged so far are written to the file or the timeout is reached
+     */
+    fun flush(timeoutMillis: Long = 1000) {
+        val target = buffer.position
+        val deadline = System.currentTimeMillis() + timeoutMillis
+        while (flushedPosition < target && System.currentTimeMillis() < deadline) {
+            LockSupport.unpark(writerThread)
+            Thread.sleep(10)
+        }
+    }
+
+    private fun runWriter() {
+        try {
+            DataManager.rotateFile(file, MAX_LOG_SIZE)
+        } catch (e: Exception) {
+            e.printStackTrace()
+        }
+        val writer = try {
+            FileOutputStream(file, true).bufferedWriter()
+        } catch (e: Exception) {
+            e.printStackTrace()
+            return
+        }
+
+        val formatter = SimpleDateFormat("yyyy-MM-dd HH:mm:ss")
+        var formattedSecond = -1L
+        var formattedDate = ""
+        var reportedDrops = 0L
+        while (true) {
+            var written = buffer.drain { time, line ->
+                val second = time / 1000
+                if (second != formattedSecond) {
+                    formattedSecond = second
+                    formattedDate = formatter.format(Date(time))
+                }
+                writer.writeLine(formattedDate, line)
+            }
+            val drops = buffer.droppedCount
+            if (drops != reportedDrops) {
+                writer.writeLine(formatter.format(Date()), "[Logger] dropped ${drops - reportedDrops} messages")
+                reportedDrops = drops
+                written++
+            }
             try {
-                DataManager.rotateFile(file, MAX_LOG_SIZE)
+                if (written > 0) {
+                    writer.flush()
+                }
             } catch (e: Exception) {
                 e.printStackTrace()
             }
-            writer = FileOutputStream(file, true).bufferedWriter()
+            flushedPosition = buffer.consumedPosition
+            LockSupport.parkNanos(this, FLUSH_INTERVAL)
         }
     }
 
-    fun info(tag: String, message: String) {
-        appendLine("[$currentDate][$tag] $message")
-        Log.i(tag, message)
-    }
-
-    private fun appendLine(line: String) {
-        writer?.let { writer ->
-            writer.write(line)
-            writer.newLine()
-            writer.flush()
+    private fun BufferedWriter.writeLine(date: String, line: String) {
+        try {
+            write("[")
+            write(date)
+            write("]")
+            write(line)
+            newLine()
+        } catch (e: Exception) {
+            e.printStackTrace()
         }
     }
 
-}
\ No newline at end of file
+}
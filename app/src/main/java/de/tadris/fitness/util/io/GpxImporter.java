@@ -16,137 +16,253 @@
  *     You should have received a copy of the GNU General Public License
  *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-
 package de.tadris.fitness.util.io;
 
-import com.fasterxml.jackson.core.JsonParser;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
-import com.github.sisyphsu.dateparser.DateParserUtils;
+import org.kxml2.io.KXmlParser;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Date;
 import java.util.List;
 
 import de.tadris.fitness.data.GpsSample;
 import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.GpsWorkoutData;
-import de.tadris.fitness.util.gpx.Gpx;
-import de.tadris.fitness.util.gpx.Track;
-import de.tadris.fitness.util.gpx.TrackPoint;
-import de.tadris.fitness.util.gpx.TrackPointExtensions;
-import de.tadris.fitness.util.gpx.TrackSegment;
 import de.tadris.fitness.util.io.general.IWorkoutImporter;
 
+/**
+ * Reads GPX files with a pull parser and creates the samples while reading,
+ * so no intermediate object tree of the whole file is built.
+ */
 public class GpxImporter implements IWorkoutImporter {
 
-    private Gpx gpx;
-
     @Override
     public WorkoutImportResult readWorkouts(InputStream input) throws IOException {
-        getGpx(input);
-
-        if (gpx.getTrk().size() == 0
-                || gpx.getTrk().get(0).getTrkseg().size() == 0
-                || gpx.getTrk().get(0).getTrkseg().get(0).getTrkpt().size() == 0) {
-            throw new IllegalArgumentException("given GPX file does not contain location data");
+        Metadata metadata = new Metadata();
+        List<TrackReader> tracks = new ArrayList<>();
+        try {
+            XmlPullParser parser = new KXmlParser();
+            parser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+            parser.setInput(input, null);
+            readGpx(parser, metadata, tracks);
+        } catch (XmlPullParserException e) {
+            throw new IOException("Cannot read GPX file: " + e.getMessage(), e);
         }
 
         List<GpsWorkoutData> workouts = new ArrayList<>();
-        for (Track track : gpx.getTrk()) {
-            workouts.add(getWorkoutDataFromTrack(track));
+        for (TrackReader track : tracks) {
+            if (!track.samples.isEmpty()) {
+                workouts.add(track.toWorkoutData(metadata));
+            }
+        }
+        if (workouts.isEmpty()) {
+            throw new IllegalArgumentException("given GPX file does not contain location data");
         }
 
         return new WorkoutImportResult(workouts);
     }
 
-    private void getGpx(InputStream input) throws IOException {
-        XmlMapper mapper = new XmlMapper();
-        mapper.configure(JsonParser.Feature.IGNORE_UNDEFINED, true);
-        gpx = mapper.readValue(input, Gpx.class);
-    }
-
-    private GpsWorkoutData getWorkoutDataFromTrack(Track track) {
-        TrackSegment firstSegment = track.getTrkseg().get(0);
-        TrackPoint firstPoint = firstSegment.getTrkpt().get(0);
-
-        GpsWorkout workout = new GpsWorkout();
-        workout.comment = track.getName();
-        if (workout.comment == null) {
-            workout.comment = track.getDesc();
+    private static void readGpx(XmlPullParser parser, Metadata metadata, List<TrackReader> tracks) throws IOException, XmlPullParserException {
+        if (!nextChild(parser) || !"gpx".equals(parser.getName())) {
+            throw new IOException("given file is not a GPX file");
         }
-        if (gpx.getMetadata() != null) {
-            if (workout.comment == null) {
-                workout.comment = gpx.getMetadata().getName();
+        while (nextChild(parser)) {
+            switch (parser.getName()) {
+                case "metadata":
+                    readMetadata(parser, metadata);
+                    break;
+                case "trk":
+                    TrackReader track = new TrackReader();
+                    track.read(parser);
+                    tracks.add(track);
+                    break;
+                default:
+                    skip(parser);
             }
-            if (workout.comment == null) {
-                workout.comment = gpx.getMetadata().getDesc();
+        }
+    }
+
+    private static void readMetadata(XmlPullParser parser, Metadata metadata) throws IOException, XmlPullParserException {
+        while (nextChild(parser)) {
+            switch (parser.getName()) {
+                case "name":
+                    metadata.name = readText(parser);
+                    break;
+                case "desc":
+                    metadata.desc = readText(parser);
+                    break;
+                default:
+                    skip(parser);
             }
         }
+    }
+
+    private static class Metadata {
+        String name;
+        String desc;
+    }
 
-        String startTime = firstPoint.getTime();
+    private static class TrackReader {
+
+        private final List<GpsSample> samples = new ArrayList<>();
+        private String name;
+        private String desc;
+        private String type;
+
+        void read(XmlPullParser parser) throws IOException, XmlPullParserException {
+            while (nextChild(parser)) {
+                switch (parser.getName()) {
+                    case "name":
+                        name = readText(parser);
+                        break;
+                    case "desc":
+                        desc = readText(parser);
+                        break;
+                    case "type":
+                        type = readText(parser);
+                        break;
+                    case "trkseg":
+                        readSegment(parser);
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+        }
 
-        if (startTime == null || startTime.isEmpty()) {
-            throw new RuntimeException("The GPX file doesn't include timestamps.");
+        private void readSegment(XmlPullParser parser) throws IOException, XmlPullParserException {
+            while (nextChild(parser)) {
+                if ("trkpt".equals(parser.getName())) {
+                    samples.add(readPoint(parser));
+                } else {
+                    skip(parser);
+                }
+            }
         }
 
-        workout.start = parseDate(startTime).getTime();
+        private GpsSample readPoint(XmlPullParser parser) throws IOException, XmlPullParserException {
+            GpsSample sample = new GpsSample();
+            sample.lat = parseDouble(parser.getAttributeValue(null, "lat"));
+            sample.lon = parseDouble(parser.getAttributeValue(null, "lon"));
+            String time = null;
+            while (nextChild(parser)) {
+                switch (parser.getName()) {
+                    case "ele":
+                        sample.elevation = parseDouble(readText(parser));
+                        break;
+                    case "time":
+                        time = readText(parser);
+                        break;
+                    case "extensions":
+                        readPointExtensions(parser, sample);
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
 
-        int index = firstSegment.getTrkpt().size();
-        String lastTime = firstSegment.getTrkpt().get(index - 1).getTime();
-        workout.end = parseDate(lastTime).getTime();
-        workout.duration = workout.end - workout.start;
-        String extractedWorkoutTypeId = getTypeIdById(gpx.getTrk().get(0).getType());
-        if (!extractedWorkoutTypeId.isEmpty()) {
-            workout.workoutTypeId = extractedWorkoutTypeId;
+            if (samples.isEmpty() && (time == null || time.isEmpty())) {
+                throw new RuntimeException("The GPX file doesn't include timestamps.");
+            }
+            sample.absoluteTime = Iso8601Parser.parse(time);
+            long startTime = samples.isEmpty() ? sample.absoluteTime : samples.get(0).absoluteTime;
+            sample.relativeTime = sample.absoluteTime - startTime;
+            return sample;
         }
 
-        List<GpsSample> samples = getSamplesFromTrack(workout.start, gpx.getTrk().get(0));
+        /**
+         * Reads the speed and the heart rate of the TrackPointExtension regardless of the namespace prefix used
+         */
+        private void readPointExtensions(XmlPullParser parser, GpsSample sample) throws IOException, XmlPullParserException {
+            while (nextChild(parser)) {
+                switch (parser.getName()) {
+                    case "speed":
+                        sample.speed = parseDouble(readText(parser));
+                        break;
+                    case "hr":
+                        sample.heartRate = (int) parseDouble(readText(parser));
+                        break;
+                    case "TrackPointExtension":
+                        readPointExtensions(parser, sample);
+                        break;
+                    default:
+                        skip(parser);
+                }
+            }
+        }
 
-        return new GpsWorkoutData(workout, samples);
+        GpsWorkoutData toWorkoutData(Metadata metadata) {
+            GpsWorkout workout = new GpsWorkout();
+            workout.comment = firstNonNull(name, desc, metadata.name, metadata.desc);
+            workout.start = samples.get(0).absoluteTime;
+            workout.end = samples.get(samples.size() - 1).absoluteTime;
+            workout.duration = workout.end - workout.start;
+            String extractedWorkoutTypeId = getTypeIdById(type);
+            if (!extractedWorkoutTypeId.isEmpty()) {
+                workout.workoutTypeId = extractedWorkoutTypeId;
+            }
+            return new GpsWorkoutData(workout, samples);
+        }
     }
 
-    private static List<GpsSample> getSamplesFromTrack(long startTime, Track track) {
-        List<GpsSample> samples = new ArrayList<>();
-
-        for (TrackSegment segment : track.getTrkseg()) {
-            samples.addAll(getSamplesFromTrackSegment(startTime, segment));
+    /**
+     * Moves to the next child element of the current element, ignoring any text in between.
+     *
+     * @return true if a child element was found, false if the current element ended
+     */
+    private static boolean nextChild(XmlPullParser parser) throws IOException, XmlPullParserException {
+        while (true) {
+            switch (parser.next()) {
+                case XmlPullParser.START_TAG:
+                    return true;
+                case XmlPullParser.END_TAG:
+                    return false;
+                case XmlPullParser.END_DOCUMENT:
+                    throw new IOException("Unexpected end of GPX file");
+            }
         }
+    }
 
-        return samples;
+    private static String readText(XmlPullParser parser) throws IOException, XmlPullParserException {
+        return parser.nextText().trim();
     }
 
-    private static List<GpsSample> getSamplesFromTrackSegment(long startTime, TrackSegment segment) {
-        List<GpsSample> samples = new ArrayList<>();
-        for (TrackPoint point : segment.getTrkpt()) {
-            GpsSample sample = new GpsSample();
-            sample.absoluteTime = parseDate(point.getTime()).getTime();
-            sample.elevation = point.getEle();
-            sample.lat = point.getLat();
-            sample.lon = point.getLon();
-            sample.relativeTime = sample.absoluteTime - startTime;
-            TrackPointExtensions extensions = point.getExtensions();
-            if (extensions != null) {
-                sample.speed = extensions.getSpeed();
-                if (extensions.getGpxTpxExtension() != null) {
-                    sample.heartRate = extensions.getGpxTpxExtension().getHr();
-                }
+    private static void skip(XmlPullParser parser) throws IOException, XmlPullParserException {
+        int depth = 1;
+        while (depth != 0) {
+            switch (parser.next()) {
+                case XmlPullParser.START_TAG:
+                    depth++;
+                    break;
+                case XmlPullParser.END_TAG:
+                    depth--;
+                    break;
+                case XmlPullParser.END_DOCUMENT:
+                    throw new IOException("Unexpected end of GPX file");
             }
-            samples.add(sample);
         }
-        return samples;
     }
 
-    private static Date parseDate(String str) {
+    private static double parseDouble(String value) throws IOException {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
         try {
-            // Need parseCalendar because parseDate seems to be corrupted.
-            // The hour is always one lesser then the original time.
-            return DateParserUtils.parseCalendar(str).getTime();
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("Cannot parse timestamps: " + e.getMessage(), e.getCause());
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid number in GPX file: " + value, e);
+        }
+    }
+
+    private static String firstNonNull(String... values) {
+        for (String value : values) {
+            if (value != null) {
+                return value;
+            }
         }
+        return null;
     }
 
     private static String getTypeIdById(String id) {
@@ -166,4 +282,4 @@ public class GpxImporter implements IWorkoutImporter {
                 return id;
         }
     }
-}
\ No newline at end of file
+}
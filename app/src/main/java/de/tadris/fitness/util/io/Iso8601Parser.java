@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.util.io;
+
+import com.github.sisyphsu.dateparser.DateParserUtils;
+
+/**
+ * Parses the timestamps found in GPX files without allocating intermediate objects.
+ * <p>
+ * The common {@code yyyy-MM-dd'T'HH:mm:ss(.SSS)(Z|+hh:mm)} form is decoded directly,
+ * everything else falls back to {@link DateParserUtils}.
+ */
+public final class Iso8601Parser {
+
+    private Iso8601Parser() {
+    }
+
+    /**
+     * @return milliseconds since epoch
+     * @throws RuntimeException if the timestamp cannot be parsed at all
+     */
+    public static long parse(String str) {
+        if (str == null) {
+            throw new RuntimeException("Cannot parse timestamps: missing time");
+        }
+        long time = parseIso(str);
+        if (time != Long.MIN_VALUE) {
+            return time;
+        }
+        try {
+            // Need parseCalendar because parseDate seems to be corrupted.
+            // The hour is always one lesser then the original time.
+            return DateParserUtils.parseCalendar(str).getTimeInMillis();
+        } catch (Exception e) {
+            throw new RuntimeException("Cannot parse timestamps: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return milliseconds since epoch or {@link Long#MIN_VALUE} if the string is not in the expected form
+     */
+    static long parseIso(String str) {
+        int length = str.length();
+        if (length < 20 || str.charAt(4) != '-' || str.charAt(7) != '-' || str.charAt(10) != 'T'
+                || str.charAt(13) != ':' || str.charAt(16) != ':') {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(str, 0, 4);
+        int month = digits(str, 5, 2);
+        int day = digits(str, 8, 2);
+        int hour = digits(str, 11, 2);
+        int minute = digits(str, 14, 2);
+        int second = digits(str, 17, 2);
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 60) {
+            return Long.MIN_VALUE;
+        }
+
+        int pos = 19;
+        int millis = 0;
+        if (str.charAt(pos) == '.') {
+            pos++;
+            int fractionStart = pos;
+            int scale = 100;
+            while (pos < length && isDigit(str.charAt(pos))) {
+                millis += (str.charAt(pos) - '0') * scale;
+                scale /= 10;
+                pos++;
+            }
+            if (pos == fractionStart || pos == length) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        int offsetMinutes;
+        char zone = str.charAt(pos);
+        if (zone == 'Z' && pos + 1 == length) {
+            offsetMinutes = 0;
+        } else if (zone == '+' || zone == '-') {
+            int offsetHours = digits(str, pos + 1, 2);
+            int offsetMins = 0;
+            int rest = length - pos - 3;
+            if (rest == 3 && str.charAt(pos + 3) == ':') {
+                offsetMins = digits(str, pos + 4, 2);
+            } else if (rest == 2) {
+                offsetMins = digits(str, pos + 3, 2);
+            } else if (rest != 0) {
+                return Long.MIN_VALUE;
+            }
+            if (offsetHours < 0 || offsetMins < 0) {
+                return Long.MIN_VALUE;
+            }
+            offsetMinutes = (offsetHours * 60 + offsetMins) * (zone == '-' ? -1 : 1);
+        } else {
+            // No zone designator: local time, let the generic parser decide
+            return Long.MIN_VALUE;
+        }
+
+        long epochSeconds = daysFromCivil(year, month, day) * 86400L
+                + hour * 3600L + minute * 60L + second - offsetMinutes * 60L;
+        return epochSeconds * 1000L + millis;
+    }
+
+    /**
+     * Days since 1970-01-01 in the proleptic gregorian calendar
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        year -= month <= 2 ? 1 : 0;
+        long era = year / 400;
+        long yearOfEra = year - era * 400;
+        long dayOfYear = (153L * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int digits(String str, int start, int count) {
+        if (start + count > str.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = str.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
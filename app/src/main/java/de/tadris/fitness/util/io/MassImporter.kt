@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness.util.io
+
+import android.content.Context
+import android.util.Log
+import de.tadris.fitness.Instance
+import de.tadris.fitness.data.StatsRollupManager
+import de.tadris.fitness.util.io.general.IWorkoutImporter
+import de.tadris.fitness.util.io.general.ImportWorkoutSaver
+import java.io.InputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.Executors
+
+/**
+ * Imports many files at once. Parsing and calculating the workout data runs on a small
+ * worker pool while the calling thread writes the results in batched transactions.
+ */
+class MassImporter(
+    private val context: Context,
+    private val importer: IWorkoutImporter,
+    private val listener: ProgressListener? = null,
+) {
+
+    private val db = Instance.getInstance(context).db
+
+    private var lastId = 0L
+    private var imported = 0
+    private var duplicates = 0
+    private val failures = mutableListOf<Failure>()
+
+    private var totalBytes = 0L
+    private var doneBytes = 0L
+
+    /**
+     * Blocks until all files are processed. A failing file doesn't abort the import,
+     * it's reported in [Result.failures] instead.
+     */
+    fun import(files: List<ImportFile>): Result {
+        totalBytes = files.sumOf { it.weight }
+        val queue = ArrayBlockingQueue<ParsedFile>(QUEUE_CAPACITY)
+        val executor = Executors.newFixedThreadPool(WORKERS)
+        try {
+            files.forEach { file -> executor.execute { queue.put(parse(file)) } }
+
+            val batch = mutableListOf<ParsedFile>()
+            var batchSamples = 0
+            for (i in files.indices) {
+                val parsed = queue.take()
+                if (parsed.error != null) {
+                    Log.w("MassImport", "Cannot import ${parsed.file.name}", parsed.error)
+                    failures += Failure(parsed.file, parsed.error)
+                    doneBytes += parsed.file.weight
+                    continue
+                }
+                batch += parsed
+                batchSamples += parsed.savers.sumOf { it.sampleCount }
+                if (batch.size >= BATCH_FILES || batchSamples >= BATCH_SAMPLES) {
+                    commit(batch)
+                    batchSamples = 0
+                }
+            }
+            commit(batch)
+        } finally {
+            executor.shutdownNow()
+        }
+
+        if (imported > 0) {
+            StatsRollupManager(context).rebuild()
+        }
+        listener?.onProgressUpdate(100)
+        return Result(imported, duplicates, failures.toList())
+    }
+
+    private fun parse(file: ImportFile): ParsedFile {
+        return try {
+            val workouts = file.open().use { importer.readWorkouts(it).workouts }
+            val savers = workouts.map { ImportWorkoutSaver(context, it).apply { prepareWorkout() } }
+            ParsedFile(file, savers, null)
+        } catch (e: Exception) {
+            ParsedFile(file, emptyList(), e)
+        } catch (e: Throwable) {
+            // e.g. OutOfMemoryError on a huge file, the writer still waits for one entry per file
+            ParsedFile(file, emptyList(), Exception("Cannot parse ${file.name}", e))
+        }
+    }
+
+    private fun commit(batch: MutableList<ParsedFile>) {
+        if (batch.isEmpty()) return
+        var batchImported = 0
+        var batchDuplicates = 0
+        var batchLastId = lastId
+        try {
+            db.runInTransaction(Runnable {
+                batch.forEach { parsed ->
+                    parsed.savers.forEach { saver ->
+                        if (db.getWorkoutByStart(saver.workout.start) != null) {
+                            batchDuplicates++
+                        } else {
+                            // Ids of consecutive workouts must not overlap with the sample ids of the previous one
+                            batchLastId = saver.insertPreparedWorkout(maxOf(System.nanoTime(), batchLastId + 1))
+                            batchImported++
+                        }
+                    }
+                }
+            })
+            lastId = batchLastId
+            imported += batchImported
+            duplicates += batchDuplicates
+        } catch (e: Exception) {
+            Log.e("MassImport", "Cannot store batch", e)
+            batch.forEach { failures += Failure(it.file, e) }
+        }
+        batch.forEach { doneBytes += it.file.weight }
+        batch.clear()
+        listener?.onProgressUpdate((doneBytes * 100 / totalBytes).toInt())
+    }
+
+    class ImportFile(val name: String, val size: Long, private val opener: () -> InputStream) {
+
+        // Files of unknown size still count for progress
+        internal val weight: Long get() = maxOf(size, 1L)
+
+        fun open() = opener()
+    }
+
+    class Failure(val file: ImportFile, val error: Exception)
+
+    class Result(val imported: Int, val duplicates: Int, val failures: List<Failure>)
+
+    private class ParsedFile(val file: ImportFile, val savers: List<ImportWorkoutSaver>, val error: Exception?)
+
+    fun interface ProgressListener {
+
+        fun onProgressUpdate(progress: Int)
+
+    }
+
+    companion object {
+        private val WORKERS = Runtime.getRuntime().availableProcessors().coerceIn(1, 4)
+
+        // Parsed files waiting for the writer, bounds the memory used by samples
+        private val QUEUE_CAPACITY = WORKERS * 2
+
+        private const val BATCH_FILES = 20
+        private const val BATCH_SAMPLES = 50_000
+    }
+
+}
@@ -22,6 +22,7 @@ package de.tadris.fitness.util.io.general;
 import android.content.Context;
 
 import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsWorkout;
 import de.tadris.fitness.data.GpsWorkoutData;
 import de.tadris.fitness.recording.gps.GpsWorkoutSaver;
 
@@ -33,12 +34,37 @@ public class ImportWorkoutSaver extends GpsWorkoutSaver {
 
     public void saveWorkout() {
         setIds();
+        prepareWorkout();
+        storeInDatabase();
+    }
 
+    /**
+     * Calculates all workout data without accessing the database, so it can run on any thread.
+     */
+    public void prepareWorkout() {
         setMSLElevationToElevation();
         setSpeed();
         calculateData(false);
+    }
 
-        storeInDatabase();
+    /**
+     * Inserts the prepared workout using the given id and the following ids for its samples.
+     * The statistics aren't updated, callers have to rebuild them afterwards.
+     *
+     * @return the last id used
+     */
+    public long insertPreparedWorkout(long id) {
+        setIds(id);
+        db.gpsWorkoutDao().insertWorkoutAndSamples(workout, samples.toArray(new GpsSample[0]));
+        return id + samples.size();
+    }
+
+    public GpsWorkout getWorkout() {
+        return workout;
+    }
+
+    public int getSampleCount() {
+        return samples.size();
     }
 
     private void setMSLElevationToElevation() {
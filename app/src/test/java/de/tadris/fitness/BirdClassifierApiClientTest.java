@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import de.tadris.fitness.client.BirdClassifierApiClient;
+import de.tadris.fitness.client.ImageHash;
+import de.tadris.fitness.model.BirdData;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+public class BirdClassifierApiClientTest {
+
+    private static final String PREDICTIONS = "[{\"scientificName\":\"Tyto alba\",\"probability\":0.9}," +
+            "{\"scientificName\":\"Corvus frugilegus\",\"probability\":0.1}]";
+    private static final byte[] IMAGE = {(byte) 0xff, (byte) 0xd8, 1, 2, 3};
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private MockWebServer server;
+    private File cacheDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        cacheDirectory = folder.newFolder("predictions");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    private BirdClassifierApiClient createClient() {
+        return new BirdClassifierApiClient(server.url("/").toString(), cacheDirectory);
+    }
+
+    @Test
+    public void testRequestAndCache() throws Exception {
+        server.enqueue(new MockResponse().setBody(PREDICTIONS));
+        BirdClassifierApiClient client = createClient();
+
+        List<BirdData> predictions = client.getPredictions(IMAGE, 0x0f0f0f0f0f0f0f0fL);
+        Assert.assertEquals(2, predictions.size());
+        Assert.assertEquals("Tyto alba", predictions.get(0).getScientificName());
+        Assert.assertEquals(0.9, predictions.get(0).getProbability(), 1e-9);
+
+        RecordedRequest request = server.takeRequest();
+        Assert.assertEquals("POST", request.getMethod());
+        Assert.assertTrue(request.getPath().startsWith("/BirdClassifier/prediction"));
+        Assert.assertTrue(request.getHeader("Content-Type").startsWith("multipart/form-data"));
+
+        // Same photo, a nearly identical photo and a new client instance are served from the cache
+        Assert.assertEquals("Tyto alba", client.getPredictions(IMAGE, 0x0f0f0f0f0f0f0f0fL).get(0).getScientificName());
+        Assert.assertEquals("Tyto alba", client.getPredictions(IMAGE, 0x0f0f0f0f0f0f0f0eL).get(0).getScientificName());
+        Assert.assertEquals("Tyto alba", createClient().getPredictions(IMAGE, 0x0f0f0f0f0f0f0f0fL).get(0).getScientificName());
+        Assert.assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void testDifferentPhotoIsRequested() throws Exception {
+        server.enqueue(new MockResponse().setBody(PREDICTIONS));
+        server.enqueue(new MockResponse().setBody("[]"));
+        BirdClassifierApiClient client = createClient();
+
+        client.getPredictions(IMAGE, 0);
+        Assert.assertTrue(client.getPredictions(IMAGE, -1).isEmpty());
+        Assert.assertEquals(2, server.getRequestCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void testErrorIsNotCached() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(500));
+        try {
+            createClient().getPredictions(IMAGE, 42);
+        } finally {
+            Assert.assertEquals(0, cacheDirectory.list().length);
+        }
+    }
+
+    @Test
+    public void testDifferenceHash() {
+        int[] gradient = new int[ImageHash.WIDTH * ImageHash.HEIGHT];
+        for (int i = 0; i < gradient.length; i++) {
+            int value = (i % ImageHash.WIDTH) * 25;
+            gradient[i] = 0xff000000 | value << 16 | value << 8 | value;
+        }
+        Assert.assertEquals(-1L, ImageHash.differenceHash(gradient)); // brightness increases everywhere
+        gradient[0] = 0xffffffff;
+        Assert.assertEquals(1, ImageHash.distance(-1L, ImageHash.differenceHash(gradient)));
+    }
+}
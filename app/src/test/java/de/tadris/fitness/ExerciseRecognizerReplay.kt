@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness
+
+import de.tadris.fitness.recording.indoor.exercise.ExerciseRecognizer
+import de.tadris.fitness.recording.indoor.exercise.ExerciseRecognizer.RepetitionRecognizedEvent
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
+import de.tadris.fitness.recording.sensor.SensorTraceReader
+import java.io.InputStream
+
+/**
+ * Feeds a recorded sensor trace through an [ExerciseRecognizer] on the JVM, using only the
+ * timestamps stored in the trace.
+ */
+class ExerciseRecognizerReplay(private val recognizer: ExerciseRecognizer) : SensorSampleConsumer {
+
+    class Result(
+        val repetitions: List<RepetitionRecognizedEvent>,
+        val sampleCount: Int,
+        /**
+         * Time between the timestamp of a repetition and the sample that completed it, in ms
+         */
+        val latencies: List<Long>,
+        val cpuNanosPerSample: Double
+    ) {
+        val meanLatency get() = if (latencies.isEmpty()) 0.0 else latencies.average()
+        val maxLatency get() = latencies.maxOrNull() ?: 0L
+
+        override fun toString() =
+            "${repetitions.size} repetitions in $sampleCount samples, latency mean=${"%.1f".format(meanLatency)}ms " +
+                    "max=${maxLatency}ms, ${"%.0f".format(cpuNanosPerSample)}ns per sample"
+    }
+
+    private val repetitions = mutableListOf<RepetitionRecognizedEvent>()
+    private val latencies = mutableListOf<Long>()
+    private var currentTimestamp = 0L
+    private var sampleCount = 0
+    private var cpuNanos = 0L
+
+    init {
+        recognizer.repetitionListener = { event ->
+            repetitions.add(event)
+            latencies.add(currentTimestamp - event.timestamp)
+        }
+        recognizer.debugListener = { _, _ -> }
+    }
+
+    override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+        currentTimestamp = timestamp
+        val start = System.nanoTime()
+        recognizer.onSensorSample(sensorType, timestamp, x, y, z)
+        cpuNanos += System.nanoTime() - start
+        sampleCount++
+    }
+
+    fun replay(trace: InputStream): Result {
+        SensorTraceReader(trace).use { it.replay(this) }
+        return Result(
+            repetitions.toList(),
+            sampleCount,
+            latencies.toList(),
+            if (sampleCount == 0) 0.0 else cpuNanos.toDouble() / sampleCount
+        )
+    }
+
+}
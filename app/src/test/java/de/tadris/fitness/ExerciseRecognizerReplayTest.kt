@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness
+
+import android.hardware.Sensor
+import de.tadris.fitness.recording.indoor.exercise.JumpRecognizer
+import de.tadris.fitness.recording.indoor.exercise.ProximityRecognizer
+import de.tadris.fitness.recording.indoor.exercise.PullupRecognizer
+import de.tadris.fitness.recording.indoor.exercise.StepRecognizer
+import de.tadris.fitness.recording.sensor.SensorSampleConsumer
+import de.tadris.fitness.recording.sensor.SensorTraceReader
+import de.tadris.fitness.recording.sensor.SensorTraceWriter
+import org.junit.Assert.assertEquals
+import org.junit.Test
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+
+class ExerciseRecognizerReplayTest {
+
+    companion object {
+        private const val START = 1_700_000_000_000L
+        private const val INTERVAL = 20L // 50 Hz
+    }
+
+    private class TraceBuilder(private val sensorType: Int) {
+        private val output = ByteArrayOutputStream()
+        private val writer = SensorTraceWriter(output)
+        private var time = START
+
+        fun hold(duration: Long, x: Float, y: Float = 0f, z: Float = 0f): TraceBuilder {
+            val end = time + duration
+            while (time < end) {
+                writer.write(sensorType, time, x, y, z)
+                time += INTERVAL
+            }
+            return this
+        }
+
+        fun build(): ByteArray {
+            writer.close()
+            return output.toByteArray()
+        }
+    }
+
+    @Test
+    fun testTraceRoundTrip() {
+        val trace = TraceBuilder(Sensor.TYPE_ACCELEROMETER)
+            .hold(100, 1.5f, -2.25f, 9.81f)
+            .hold(60, 3f)
+            .build()
+        val samples = mutableListOf<String>()
+        val count = SensorTraceReader(ByteArrayInputStream(trace)).replay(object : SensorSampleConsumer {
+            override fun onSensorSample(sensorType: Int, timestamp: Long, x: Float, y: Float, z: Float) {
+                samples.add("$sensorType,${timestamp - START},$x,$y,$z")
+            }
+        })
+        assertEquals(8, count)
+        assertEquals("1,0,1.5,-2.25,9.81", samples.first())
+        assertEquals("1,140,3.0,0.0,0.0", samples.last())
+    }
+
+    @Test
+    fun testRopeSkipping() {
+        val builder = TraceBuilder(Sensor.TYPE_ACCELEROMETER).hold(1000, 0f, 0f, 9.81f)
+        repeat(10) {
+            builder.hold(200, 0f, 0f, 1f) // in the air
+            builder.hold(160, 5f, 5f, 24f) // landing and jumping off
+        }
+        builder.hold(200, 0f, 0f, 1f).hold(2000, 0f, 0f, 9.81f)
+
+        val result = ExerciseRecognizerReplay(JumpRecognizer(maxJumpDuration = 1250)).replay(
+            ByteArrayInputStream(builder.build())
+        )
+        assertEquals(10, result.repetitions.size)
+        assertEquals(160L, result.maxLatency)
+    }
+
+    @Test
+    fun testPullups() {
+        val builder = TraceBuilder(Sensor.TYPE_ACCELEROMETER).hold(3000, 0f, 0f, 9.81f)
+        repeat(5) {
+            builder.hold(800, 0f, 0f, 12f).hold(1500, 0f, 0f, 8f).hold(1000, 0f, 0f, 9.81f)
+        }
+
+        val result = ExerciseRecognizerReplay(PullupRecognizer()).replay(ByteArrayInputStream(builder.build()))
+        assertEquals(5, result.repetitions.size)
+    }
+
+    @Test
+    fun testPushups() {
+        val builder = TraceBuilder(Sensor.TYPE_PROXIMITY)
+        repeat(8) {
+            builder.hold(600, 5f).hold(400, 0f)
+        }
+
+        val result = ExerciseRecognizerReplay(ProximityRecognizer()).replay(ByteArrayInputStream(builder.build()))
+        assertEquals(8, result.repetitions.size)
+        assertEquals(0L, result.maxLatency)
+    }
+
+    @Test
+    fun testSteps() {
+        val output = ByteArrayOutputStream()
+        SensorTraceWriter(output).use { writer ->
+            for (i in 0 until 12) {
+                writer.write(Sensor.TYPE_STEP_DETECTOR, START + i * 550L, 1f, 0f, 0f)
+            }
+        }
+
+        val result = ExerciseRecognizerReplay(StepRecognizer()).replay(ByteArrayInputStream(output.toByteArray()))
+        assertEquals(12, result.repetitions.size)
+        assertEquals(START + 11 * 550L, result.repetitions.last().timestamp)
+    }
+
+}
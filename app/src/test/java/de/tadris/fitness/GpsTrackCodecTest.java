@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsTrack;
+import de.tadris.fitness.data.GpsTrackCodec;
+import de.tadris.fitness.data.GpsTrackColumns;
+
+public class GpsTrackCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        GpsSample[] samples = createTrack(1000);
+        GpsTrack track = new GpsTrack(42, samples);
+        GpsSample[] decoded = track.toSamples();
+
+        Assert.assertEquals(samples.length, decoded.length);
+        for (int i = 0; i < samples.length; i++) {
+            GpsSample expected = samples[i];
+            GpsSample actual = decoded[i];
+            Assert.assertEquals(expected.id, actual.id);
+            Assert.assertEquals(42, actual.workoutId);
+            Assert.assertEquals(expected.absoluteTime, actual.absoluteTime);
+            Assert.assertEquals(expected.relativeTime, actual.relativeTime);
+            Assert.assertEquals(expected.lat, actual.lat, 0.5e-7);
+            Assert.assertEquals(expected.lon, actual.lon, 0.5e-7);
+            Assert.assertEquals(expected.elevation, actual.elevation, 0.005);
+            Assert.assertEquals(expected.elevationMSL, actual.elevationMSL, 0.005);
+            Assert.assertEquals(expected.speed, actual.speed, 0.0005);
+            Assert.assertEquals(expected.pressure, actual.pressure, 0.006);
+            Assert.assertEquals(expected.heartRate, actual.heartRate);
+            Assert.assertEquals(expected.intervalTriggered, actual.intervalTriggered);
+        }
+    }
+
+    @Test
+    public void testExtremeValues() {
+        GpsSample first = new GpsSample();
+        first.id = Long.MAX_VALUE;
+        first.absoluteTime = 0;
+        first.lat = -90;
+        first.lon = 180;
+        first.heartRate = -1;
+        GpsSample second = new GpsSample();
+        second.id = 1;
+        second.absoluteTime = Long.MAX_VALUE;
+        second.lat = 90;
+        second.lon = -180;
+        second.elevation = -420.5;
+        second.intervalTriggered = 7;
+
+        GpsSample[] samples = {first, second};
+        GpsTrackColumns columns = GpsTrackCodec.decode(GpsTrackCodec.encode(samples), 2);
+        Assert.assertArrayEquals(new long[]{Long.MAX_VALUE, 1}, columns.ids);
+        Assert.assertArrayEquals(new long[]{0, Long.MAX_VALUE}, columns.absoluteTimes);
+        Assert.assertArrayEquals(new double[]{-90, 90}, columns.lats, 0);
+        Assert.assertArrayEquals(new double[]{180, -180}, columns.lons, 0);
+        Assert.assertArrayEquals(new double[]{0, -420.5}, columns.elevations, 0);
+        Assert.assertArrayEquals(new int[]{-1, -1}, columns.heartRates);
+        Assert.assertArrayEquals(new long[]{-1, 7}, columns.intervalsTriggered);
+    }
+
+    @Test
+    public void testEmptyTrack() {
+        GpsTrack track = new GpsTrack(1, new GpsSample[0]);
+        Assert.assertEquals(0, track.toSamples().length);
+    }
+
+    @Test
+    public void testMergeRows() {
+        GpsSample[] samples = createTrack(150);
+        GpsSample[] trackSamples = new GpsTrack(42, Arrays.copyOfRange(samples, 0, 100)).toSamples();
+        GpsSample[] rows = Arrays.copyOfRange(samples, 90, 150);
+        rows[0].heartRate = 200;
+        Collections.reverse(Arrays.asList(rows));
+
+        GpsSample[] merged = GpsTrack.merge(trackSamples, rows);
+
+        Assert.assertEquals(samples.length, merged.length);
+        for (int i = 0; i < samples.length; i++) {
+            Assert.assertEquals(samples[i].id, merged[i].id);
+        }
+        Assert.assertEquals(200, merged[90].heartRate);
+    }
+
+    @Test
+    public void testColumnsFromSamples() {
+        GpsSample[] samples = createTrack(100);
+        GpsTrackColumns columns = GpsTrackColumns.fromSamples(samples);
+        GpsSample[] converted = columns.toSamples(42);
+
+        Assert.assertEquals(samples.length, columns.size);
+        for (int i = 0; i < samples.length; i++) {
+            Assert.assertEquals(samples[i].id, converted[i].id);
+            Assert.assertEquals(samples[i].lat, columns.lats[i], 0);
+            Assert.assertEquals(samples[i].lon, columns.lons[i], 0);
+            Assert.assertEquals(samples[i].pressure, converted[i].pressure, 0);
+            Assert.assertEquals(samples[i].intervalTriggered, converted[i].intervalTriggered);
+        }
+    }
+
+    @Test
+    public void testTrackSize() {
+        GpsSample[] samples = createTrack(3 * 60 * 60); // three hours, one sample per second
+        byte[] data = GpsTrackCodec.encode(samples);
+        double bytesPerSample = (double) data.length / samples.length;
+        Assert.assertTrue("Track uses " + bytesPerSample + " bytes per sample", bytesPerSample < 14);
+    }
+
+    private static GpsSample[] createTrack(int count) {
+        Random random = new Random(7);
+        GpsSample[] samples = new GpsSample[count];
+        long start = 1_680_000_000_000L;
+        double lat = 52.5200066;
+        double lon = 13.404954;
+        double elevation = 80;
+        int heartRate = 120;
+        for (int i = 0; i < count; i++) {
+            GpsSample sample = new GpsSample();
+            sample.id = start + i * 1000L + random.nextInt(3);
+            sample.absoluteTime = start + i * 1000L + random.nextInt(20);
+            sample.relativeTime = sample.absoluteTime - start;
+            sample.speed = 3 + random.nextGaussian() * 0.3;
+            lat += sample.speed / 111_000 * Math.cos(i / 300d);
+            lon += sample.speed / 68_000 * Math.sin(i / 300d);
+            elevation += random.nextGaussian() * 0.2;
+            heartRate = Math.max(60, Math.min(190, heartRate + random.nextInt(3) - 1));
+            sample.lat = lat;
+            sample.lon = lon;
+            sample.elevation = elevation;
+            sample.elevationMSL = elevation - 39.7;
+            sample.pressure = (float) (1013.25 - elevation / 8.3);
+            sample.heartRate = heartRate;
+            sample.intervalTriggered = i % 600 == 0 ? i / 600 + 1 : -1;
+            samples[i] = sample;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.github.sisyphsu.dateparser.DateParserUtils;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import de.tadris.fitness.data.GpsSample;
+import de.tadris.fitness.data.GpsWorkoutData;
+import de.tadris.fitness.util.gpx.Gpx;
+import de.tadris.fitness.util.gpx.Track;
+import de.tadris.fitness.util.gpx.TrackPoint;
+import de.tadris.fitness.util.gpx.TrackSegment;
+import de.tadris.fitness.util.io.GpxImporter;
+import de.tadris.fitness.util.io.Iso8601Parser;
+
+public class GpxStreamingImportTest {
+
+    // 10 hours at 1 Hz
+    private static final int BENCHMARK_POINTS = 36_000;
+
+    @Test
+    public void testIso8601Parser() {
+        Assert.assertEquals(1594374985000L, Iso8601Parser.parse("2020-07-10T09:56:25Z"));
+        Assert.assertEquals(1455522214000L, Iso8601Parser.parse("2016-02-15T07:43:34.000Z"));
+        Assert.assertEquals(1586593557630L, Iso8601Parser.parse("2020-04-11T08:25:57.630Z"));
+        Assert.assertEquals(1586593557630L, Iso8601Parser.parse("2020-04-11T10:25:57.630+02:00"));
+        Assert.assertEquals(1586593557000L, Iso8601Parser.parse("2020-04-11T03:25:57-0500"));
+        Assert.assertEquals(DateParserUtils.parseCalendar("2020-04-11 08:25:57").getTimeInMillis(),
+                Iso8601Parser.parse("2020-04-11 08:25:57"));
+    }
+
+    @Test
+    public void testImportMultipleSegments() throws IOException {
+        GpsWorkoutData data = new GpxImporter().readWorkouts(new ByteArrayInputStream(generateGpx(120, 3).getBytes())).workouts.get(0);
+
+        Assert.assertEquals(120, data.getSamples().size());
+        Assert.assertEquals("running", data.getWorkout().workoutTypeId);
+        Assert.assertEquals(119_000, data.getWorkout().duration);
+        Assert.assertEquals(119_000, data.getSamples().get(119).relativeTime);
+        Assert.assertEquals(150, data.getSamples().get(50).heartRate);
+        Assert.assertEquals(2.5, data.getSamples().get(50).speed, 0.001);
+    }
+
+    @Test
+    public void benchmarkImport() throws IOException {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        byte[] gpx = generateGpx(BENCHMARK_POINTS, 1).getBytes();
+
+        // Warm up both paths so class loading isn't counted
+        readLegacy(gpx);
+        new GpxImporter().readWorkouts(new ByteArrayInputStream(gpx));
+
+        long legacyStart = allocatedBytes();
+        List<GpsSample> legacy = readLegacy(gpx);
+        long legacyBytes = allocatedBytes() - legacyStart;
+
+        long streamingStart = allocatedBytes();
+        List<GpsSample> streaming = new GpxImporter().readWorkouts(new ByteArrayInputStream(gpx)).workouts.get(0).getSamples();
+        long streamingBytes = allocatedBytes() - streamingStart;
+
+        Assert.assertEquals(legacy.size(), streaming.size());
+        for (int i = 0; i < legacy.size(); i++) {
+            Assert.assertEquals(legacy.get(i).absoluteTime, streaming.get(i).absoluteTime);
+            Assert.assertEquals(legacy.get(i).lat, streaming.get(i).lat, 0);
+            Assert.assertEquals(legacy.get(i).heartRate, streaming.get(i).heartRate);
+        }
+        Assert.assertTrue("Streaming allocated " + (streamingBytes >> 20) + " MiB, object binding " + (legacyBytes >> 20) + " MiB",
+                streamingBytes < legacyBytes);
+    }
+
+    /**
+     * The previous import path: bind the whole file with Jackson, then convert the points
+     */
+    private static List<GpsSample> readLegacy(byte[] gpxData) throws IOException {
+        XmlMapper mapper = new XmlMapper();
+        mapper.configure(JsonParser.Feature.IGNORE_UNDEFINED, true);
+        Gpx gpx = mapper.readValue(new ByteArrayInputStream(gpxData), Gpx.class);
+        List<GpsSample> samples = new ArrayList<>();
+        for (Track track : gpx.getTrk()) {
+            for (TrackSegment segment : track.getTrkseg()) {
+                for (TrackPoint point : segment.getTrkpt()) {
+                    GpsSample sample = new GpsSample();
+                    sample.absoluteTime = DateParserUtils.parseCalendar(point.getTime()).getTimeInMillis();
+                    sample.lat = point.getLat();
+                    sample.lon = point.getLon();
+                    sample.elevation = point.getEle();
+                    if (point.getExtensions() != null) {
+                        sample.speed = point.getExtensions().getSpeed();
+                        if (point.getExtensions().getGpxTpxExtension() != null) {
+                            sample.heartRate = point.getExtensions().getGpxTpxExtension().getHr();
+                        }
+                    }
+                    samples.add(sample);
+                }
+            }
+        }
+        return samples;
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static String generateGpx(int points, int segments) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        long start = 1594374985000L;
+        StringBuilder builder = new StringBuilder();
+        builder.append("<?xml version='1.0' encoding='UTF-8'?>\n")
+                .append("<gpx creator=\"FitoTrack\" version=\"1.1\" xmlns:gpxtpx=\"http://www.garmin.com/xmlschemas/TrackPointExtension/v1\" xmlns=\"http://www.topografix.com/GPX/1/1\">\n")
+                .append("  <trk>\n    <name>Benchmark</name>\n    <type>1</type>\n");
+        int perSegment = points / segments;
+        for (int i = 0; i < points; i++) {
+            if (i % perSegment == 0) {
+                if (i > 0) {
+                    builder.append("    </trkseg>\n");
+                }
+                builder.append("    <trkseg>\n");
+            }
+            builder.append("      <trkpt lat=\"").append(35.2479 + i * 1e-5).append("\" lon=\"").append(24.1676 + i * 1e-5).append("\">\n")
+                    .append("        <ele>").append(748.05 + (i % 100) * 0.1).append("</ele>\n")
+                    .append("        <extensions>\n")
+                    .append("          <speed>2.5</speed>\n")
+                    .append("          <gpxtpx:TrackPointExtension>\n")
+                    .append("            <gpxtpx:hr>").append(100 + i % 80).append("</gpxtpx:hr>\n")
+                    .append("          </gpxtpx:TrackPointExtension>\n")
+                    .append("        </extensions>\n")
+                    .append("        <time>").append(format.format(new Date(start + i * 1000L))).append("</time>\n")
+                    .append("      </trkpt>\n");
+        }
+        builder.append("    </trkseg>\n  </trk>\n</gpx>");
+        return builder.toString();
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.tadris.fitness.data.RrIntervalBatch;
+import de.tadris.fitness.recording.hrv.HeartRateVariabilityCalculator;
+
+public class HeartRateVariabilityCalculatorTest {
+
+    @Test
+    public void testMetrics() {
+        HeartRateVariabilityCalculator calculator = new HeartRateVariabilityCalculator();
+        int[] intervals = {800, 810, 790, 800, 820};
+        for (int interval : intervals) {
+            Assert.assertTrue(calculator.add(interval));
+        }
+
+        // successive differences: 10, -20, 10, 20
+        Assert.assertEquals(Math.sqrt((100 + 400 + 100 + 400) / 4d), calculator.getRmssd(), 1e-9);
+        Assert.assertEquals(804, calculator.getMeanInterval(), 1e-9);
+        // squared deviations: 16, 36, 196, 16, 256
+        Assert.assertEquals(Math.sqrt(520 / 4d), calculator.getSdnn(), 1e-9);
+        Assert.assertEquals(0, calculator.getArtifactCount());
+    }
+
+    @Test
+    public void testArtifactsAreSkipped() {
+        HeartRateVariabilityCalculator calculator = new HeartRateVariabilityCalculator();
+        calculator.add(800);
+        calculator.add(810);
+        Assert.assertFalse(calculator.add(1600)); // missed beat
+        Assert.assertFalse(calculator.add(100)); // out of range
+        calculator.add(820);
+        calculator.add(830);
+
+        // only 810 -> 800 and 830 -> 820 are successive, the difference across the artifacts is skipped
+        Assert.assertEquals(10, calculator.getRmssd(), 1e-9);
+        Assert.assertEquals(2, calculator.getArtifactCount());
+        Assert.assertEquals(6, calculator.getBeatCount());
+    }
+
+    @Test
+    public void testRhythmChangeIsAccepted() {
+        HeartRateVariabilityCalculator calculator = new HeartRateVariabilityCalculator();
+        calculator.add(1000);
+        calculator.add(1000);
+        for (int i = 0; i < 5; i++) {
+            Assert.assertFalse(calculator.add(600));
+        }
+        Assert.assertTrue(calculator.add(600));
+        Assert.assertTrue(calculator.add(610));
+        Assert.assertEquals(5, calculator.getArtifactCount());
+    }
+
+    @Test
+    public void testIntervalEncoding() {
+        int[] intervals = {812, 805, 1999, 300, 65535, 0, 790};
+        byte[] encoded = RrIntervalBatch.encode(intervals, intervals.length);
+        Assert.assertArrayEquals(intervals, RrIntervalBatch.decode(encoded, intervals.length));
+        Assert.assertTrue(encoded.length < intervals.length * 2 + 4);
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package de.tadris.fitness;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import de.tadris.fitness.ui.workout.diagram.SamplePyramid;
+
+public class SamplePyramidTest {
+
+    @Test
+    public void testAllSamplesWhenFewEnough() {
+        List<long[]> points = query(createPyramid(50), 0, 49_000, 100);
+
+        Assert.assertEquals(50, points.size());
+        for (int i = 0; i < 50; i++) {
+            assertPoint(points.get(i), i * 1000L, i, i);
+        }
+    }
+
+    @Test
+    public void testVisibleRangeWithNeighbours() {
+        List<long[]> points = query(createPyramid(50), 10_000, 20_000, 100);
+
+        // first sample, neighbour 9, samples 10..20, neighbour 21, last sample
+        Assert.assertEquals(1 + 1 + 11 + 1 + 1, points.size());
+        assertPoint(points.get(0), 0, 0, 0);
+        for (int i = 0; i < 13; i++) {
+            assertPoint(points.get(1 + i), (9 + i) * 1000L, 9 + i, 9 + i);
+        }
+        assertPoint(points.get(points.size() - 1), 49_000, 49, 49);
+    }
+
+    @Test
+    public void testRangeEdgesBetweenSamples() {
+        // 10.5 s - 12.5 s only contains the samples 11 and 12
+        List<long[]> points = query(createPyramid(50), 10_500, 12_500, 100);
+
+        Assert.assertEquals(1 + 1 + 2 + 1 + 1, points.size());
+        assertPoint(points.get(1), 10_000, 10, 10);
+        assertPoint(points.get(4), 13_000, 13, 13);
+    }
+
+    @Test
+    public void testRangeAtTheEnd() {
+        List<long[]> points = query(createPyramid(50), 45_000, 60_000, 100);
+
+        // first sample, neighbour 44, samples 45..49, the last sample is not repeated
+        Assert.assertEquals(1 + 1 + 5, points.size());
+        assertPoint(points.get(0), 0, 0, 0);
+        assertPoint(points.get(points.size() - 1), 49_000, 49, 49);
+    }
+
+    @Test
+    public void testMaxPoints() {
+        int sampleCount = 10_000;
+        int maxPoints = 100;
+        List<long[]> points = query(createPyramid(sampleCount), 0, (sampleCount - 1) * 1000L, maxPoints);
+
+        // Buckets plus the neighbours and the first and last sample
+        Assert.assertTrue(points.size() + " points", points.size() <= maxPoints + 4);
+        Assert.assertTrue(points.size() + " points", points.size() > maxPoints / 2);
+        assertPoint(points.get(0), 0, 0, 0);
+        assertPoint(points.get(points.size() - 1), (sampleCount - 1) * 1000L, sampleCount - 1, sampleCount - 1);
+
+        long lastTime = -1;
+        for (long[] point : points) {
+            Assert.assertTrue(point[0] >= lastTime);
+            // Values equal the sample index, so the mean of a bucket is its mean time in seconds
+            Assert.assertEquals(point[0] / 1000d, point[1] / 1000d, 0.5);
+            lastTime = point[0];
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertTrue(query(new SamplePyramid(new long[0], new float[0]), 0, 1000, 100).isEmpty());
+    }
+
+    private static SamplePyramid createPyramid(int count) {
+        long[] times = new long[count];
+        float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = i * 1000L;
+            values[i] = i;
+        }
+        return new SamplePyramid(times, values);
+    }
+
+    /**
+     * @return time, value * 1000 and sample index of the emitted points
+     */
+    private static List<long[]> query(SamplePyramid pyramid, long from, long to, int maxPoints) {
+        List<long[]> points = new ArrayList<>();
+        pyramid.query(from, to, maxPoints, (time, value, sampleIndex) -> points.add(new long[]{time, Math.round(value * 1000), sampleIndex}));
+        return points;
+    }
+
+    private static void assertPoint(long[] point, long time, float value, int sampleIndex) {
+        Assert.assertEquals(time, point[0]);
+        Assert.assertEquals(Math.round(value * 1000), point[1]);
+        Assert.assertEquals(sampleIndex, point[2]);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2023 Jannis Scheibe <jannis@tadris.de>
+ *
+ * This file is part of FitoTrack
+ *
+ * FitoTrack is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     FitoTrack is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.tadris.fitness;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tadris.fitness.aggregation.AggregatedInformationDataPoint;
+import de.tadris.fitness.aggregation.AggregationSpan;
+import de.tadris.fitness.aggregation.SpanAggregator;
+import de.tadris.fitness.data.StatsDataTypes;
+
+public class SpanAggregatorTest {
+
+    private static final int BENCHMARK_WORKOUTS = 50_000;
+
+    /**
+     * Number of data point times the legacy implementation compared against a span
+     */
+    private static long legacyTimeReads;
+
+    @Test
+    public void testAggregateSpans() {
+        List<StatsDataTypes.DataPoint> data = generateData(2_000, 3);
+        for (AggregationSpan span : new AggregationSpan[]{AggregationSpan.DAY, AggregationSpan.WEEK, AggregationSpan.MONTH, AggregationSpan.YEAR, AggregationSpan.ALL}) {
+            assertSameBuckets(aggregateLegacy(new ArrayList<>(data), span), aggregate(data, span));
+        }
+    }
+
+    @Test
+    public void testAggregateValues() {
+        List<StatsDataTypes.DataPoint> data = new ArrayList<>();
+        Calendar calendar = new GregorianCalendar(2022, Calendar.MARCH, 10, 12, 0);
+        data.add(new StatsDataTypes.DataPoint(null, 0, calendar.getTimeInMillis(), 4));
+        calendar.add(Calendar.HOUR_OF_DAY, 2);
+        data.add(new StatsDataTypes.DataPoint(null, 1, calendar.getTimeInMillis(), 2));
+        calendar.add(Calendar.MONTH, 2);
+        data.add(new StatsDataTypes.DataPoint(null, 2, calendar.getTimeInMillis(), 9));
+
+        List<AggregatedInformationDataPoint> buckets = aggregate(data, AggregationSpan.MONTH);
+
+        Assert.assertEquals(2, buckets.size());
+        Assert.assertEquals(2, buckets.get(0).getCount());
+        Assert.assertEquals(6, buckets.get(0).getSum(), 0.0001);
+        Assert.assertEquals(2, buckets.get(0).getMin(), 0.0001);
+        Assert.assertEquals(4, buckets.get(0).getMax(), 0.0001);
+        Assert.assertEquals(3, buckets.get(0).getAvg(), 0.0001);
+        Assert.assertEquals(1, buckets.get(1).getCount());
+        Assert.assertEquals(9, buckets.get(1).getSum(), 0.0001);
+    }
+
+    @Test
+    public void benchmarkAggregation() {
+        List<StatsDataTypes.DataPoint> data = generateData(BENCHMARK_WORKOUTS, 10);
+
+        legacyTimeReads = 0;
+        List<float[]> legacy = aggregateLegacy(new ArrayList<>(data), AggregationSpan.WEEK);
+
+        // Time reads are counted instead of measuring the duration, which depends on the machine
+        long[] sweepTimeReads = new long[1];
+        List<AggregatedInformationDataPoint> sweep = new SpanAggregator<StatsDataTypes.DataPoint>(AggregationSpan.WEEK, new GregorianCalendar(),
+                dataPoint -> {
+                    sweepTimeReads[0]++;
+                    return dataPoint.time;
+                }, dataPoint -> dataPoint.value).aggregate(data);
+
+        assertSameBuckets(legacy, sweep);
+        // The legacy scan reads every data point once per week, the sweep about 2 log2(n) + 1 times
+        Assert.assertTrue("single pass read " + sweepTimeReads[0] + " times, per-span scan " + legacyTimeReads,
+                sweepTimeReads[0] * 10 < legacyTimeReads);
+    }
+
+    private static List<StatsDataTypes.DataPoint> generateData(int count, int years) {
+        Random random = new Random(42);
+        long end = new GregorianCalendar(2023, Calendar.JANUARY, 1).getTimeInMillis();
+        long range = TimeUnit.DAYS.toMillis(365L * years);
+        List<StatsDataTypes.DataPoint> data = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long time = end - (long) (random.nextDouble() * range);
+            data.add(new StatsDataTypes.DataPoint(null, i, time, random.nextInt(20_000)));
+        }
+        return data;
+    }
+
+    private static List<AggregatedInformationDataPoint> aggregate(List<StatsDataTypes.DataPoint> data, AggregationSpan span) {
+        return new SpanAggregator<StatsDataTypes.DataPoint>(span, new GregorianCalendar(),
+                dataPoint -> dataPoint.time, dataPoint -> dataPoint.value).aggregate(data);
+    }
+
+    /**
+     * The former StatsProvider.getCombinedCandleData aggregation, which scans all data points for
+     * every span. Returns x, max, min, mean and sum for each non-empty span.
+     */
+    private static List<float[]> aggregateLegacy(ArrayList<StatsDataTypes.DataPoint> data, AggregationSpan span) {
+        List<float[]> candleEntries = new ArrayList<>();
+
+        // Find start and end time of workouts
+        long oldestWorkoutTime = Collections.min(data, StatsDataTypes.DataPoint.timeComparator).time;
+        long newestWorkoutTime = Collections.max(data, StatsDataTypes.DataPoint.timeComparator).time;
+
+        GregorianCalendar calendar = new GregorianCalendar();
+        calendar.setTimeInMillis(oldestWorkoutTime);
+
+        span.setCalendarToAggregationStart(calendar);
+
+
+        // Iterate all time spans from first workout time to last workout time
+        while (calendar.getTimeInMillis() < newestWorkoutTime) {
+            ArrayList<StatsDataTypes.DataPoint> intervalData = findDataPointsInAggregationSpan(data, calendar, span);
+
+            // Calculate min, max and average of the data of the span and store in the candle list
+            if (intervalData.size() > 0) {
+                float min = (float) Collections.min(intervalData, StatsDataTypes.DataPoint.valueComparator).value;
+                float max = (float) Collections.max(intervalData, StatsDataTypes.DataPoint.valueComparator).value;
+                float mean = calculateValueAverage(intervalData);
+                candleEntries.add(new float[]{(float) calendar.getTimeInMillis(), max, min, mean, calculateValueSum(intervalData)});
+            }
+
+            // Increment time span
+            if (span != AggregationSpan.ALL) {
+                calendar.add(span.calendarField, 1);
+            } else  {
+                calendar.setTimeInMillis(Long.MAX_VALUE);
+            }
+        }
+        return candleEntries;
+    }
+
+    private static ArrayList<StatsDataTypes.DataPoint> findDataPointsInAggregationSpan(ArrayList<StatsDataTypes.DataPoint> data, Calendar startTime, AggregationSpan span) {
+        // Retrieve the workoutProperty for all workouts in the specific time span
+        StatsDataTypes.TimeSpan timeSpan = new StatsDataTypes.TimeSpan(startTime.getTimeInMillis(), span.getAggregationEnd(startTime).getTimeInMillis());
+        ArrayList<StatsDataTypes.DataPoint> intervalData = new ArrayList<>();
+
+        // Create list of data points belonging to the same time span
+        Iterator<StatsDataTypes.DataPoint> dataPointIterator = data.iterator();
+        while (dataPointIterator.hasNext()) {
+            StatsDataTypes.DataPoint dataPoint = dataPointIterator.next();
+            legacyTimeReads++;
+            if (timeSpan.contains(dataPoint.time)) {
+                intervalData.add(dataPoint);
+                data.remove(dataPointIterator);
+            }
+        }
+        return intervalData;
+    }
+
+    private static float calculateValueAverage(ArrayList<StatsDataTypes.DataPoint> marks) {
+        float average = 0f;
+        if (!marks.isEmpty()) {
+            average = calculateValueSum(marks) / marks.size();
+        }
+        return average;
+    }
+
+    private static float calculateValueSum(ArrayList<StatsDataTypes.DataPoint> marks) {
+        float sum = 0f;
+        for (StatsDataTypes.DataPoint mark : marks) {
+            sum += mark.value;
+        }
+        return sum;
+    }
+
+    private static void assertSameBuckets(List<float[]> expected, List<AggregatedInformationDataPoint> actual) {
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            float[] candle = expected.get(i);
+            AggregatedInformationDataPoint bucket = actual.get(i);
+            Assert.assertEquals(candle[0], (float) bucket.getDate().getTime(), 0);
+            Assert.assertEquals(candle[1], bucket.getMax(), 0.001);
+            Assert.assertEquals(candle[2], bucket.getMin(), 0.001);
+            // The former implementation summed in float precision
+            Assert.assertEquals(candle[3], bucket.getAvg(), Math.abs(candle[3]) * 1e-5);
+            Assert.assertEquals(candle[4], bucket.getSum(), Math.abs(candle[4]) * 1e-5);
+        }
+    }
+}